@@ -0,0 +1,71 @@
+package com.zeoflow.zson.benchmarks;
+
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.ZsonAttributes;
+import com.zeoflow.zson.ZsonCast;
+import com.zeoflow.zson.ZsonSelectors;
+import com.zeoflow.zson.benchmarks.model.TweetSummary;
+import com.zeoflow.zson.model.Attribute;
+import com.zeoflow.zson.path.JsonPath;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The {@link ZsonCast}, {@link ZsonAttributes} and {@link ZsonSelectors} helpers and {@link
+ * JsonPath} queries on a single tweet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConvenienceBenchmark {
+  private Object tweet;
+  private String json;
+  private ZsonSelectors selectors;
+  private JsonPath hashtags;
+
+  @Setup public void setUp() {
+    tweet = Corpus.TWEET.object();
+    json = Corpus.TWEET.json();
+    ZsonSelectors.Builder builder = ZsonSelectors.builder();
+    builder.add("id_str");
+    builder.add("user", "screen_name");
+    builder.add("user", "followers_count");
+    builder.add("entities", "hashtags", 0, "text");
+    builder.add("lang");
+    selectors = builder.build();
+    hashtags = JsonPath.compile("$.entities.hashtags[*].text");
+  }
+
+  @Benchmark public TweetSummary cast() {
+    return ZsonCast.fromObject(tweet).toObject(TweetSummary.class).cast();
+  }
+
+  @Benchmark public Attribute attributeFromJson() {
+    return ZsonAttributes.withJson(json).getAttribute("user", "screen_name");
+  }
+
+  @Benchmark public Attribute attributeFromJsonLazily() {
+    return ZsonAttributes.withJsonLazily(json).getAttribute("user", "screen_name");
+  }
+
+  @Benchmark public ZsonSelectors.Result selectors() {
+    return selectors.select(json);
+  }
+
+  @Benchmark public List<JsonElement> jsonPath() {
+    return hashtags.evaluate(json);
+  }
+
+  @Benchmark public Attribute attributeFromObject() {
+    return ZsonAttributes.withObject(tweet).getAttribute("user", "screen_name");
+  }
+}
@@ -0,0 +1,290 @@
+package com.zeoflow.zson.benchmarks;
+
+import com.zeoflow.zson.Zson;
+import com.zeoflow.zson.benchmarks.model.Catalog;
+import com.zeoflow.zson.benchmarks.model.FeatureCollection;
+import com.zeoflow.zson.benchmarks.model.Timeline;
+import com.zeoflow.zson.benchmarks.model.Tweet;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The documents benchmarked against. Each corpus is generated from a fixed
+ * seed so every run and every machine sees the same bytes, without the repo
+ * carrying megabytes of sample data:
+ *
+ * <ul>
+ *   <li>{@link #TWEET}: a single status update, the small object graph.
+ *   <li>{@link #TIMELINE}: a search response of 100 statuses, string heavy
+ *       and full of non-ASCII text and escapes.
+ *   <li>{@link #GEO}: a GeoJSON feature collection of polygons, almost
+ *       entirely floating point numbers.
+ *   <li>{@link #CATALOG}: a ticketing catalog with deep nesting, large maps
+ *       and many small integers.
+ * </ul>
+ */
+public enum Corpus {
+  TWEET(Tweet.class) {
+    @Override Object generate(Random random) {
+      return tweet(random, 1);
+    }
+  },
+  TIMELINE(Timeline.class) {
+    @Override Object generate(Random random) {
+      Timeline timeline = new Timeline();
+      timeline.statuses = new ArrayList<Tweet>();
+      for (int i = 0; i < 100; i++) {
+        timeline.statuses.add(tweet(random, i + 1));
+      }
+      timeline.searchMetadata = new Timeline.SearchMetadata();
+      timeline.searchMetadata.maxId = timeline.statuses.get(99).id;
+      timeline.searchMetadata.sinceId = 0L;
+      timeline.searchMetadata.count = 100;
+      timeline.searchMetadata.completedIn = 0.087;
+      timeline.searchMetadata.query = "%E4%B8%80";
+      return timeline;
+    }
+  },
+  GEO(FeatureCollection.class) {
+    @Override Object generate(Random random) {
+      FeatureCollection collection = new FeatureCollection();
+      collection.type = "FeatureCollection";
+      collection.features = new ArrayList<FeatureCollection.Feature>();
+      for (int f = 0; f < 4; f++) {
+        FeatureCollection.Feature feature = new FeatureCollection.Feature();
+        feature.type = "Feature";
+        feature.properties = new LinkedHashMap<String, String>();
+        feature.properties.put("name", "Region " + f);
+        feature.geometry = new FeatureCollection.Geometry();
+        feature.geometry.type = "Polygon";
+        feature.geometry.coordinates = new double[12][][];
+        for (int r = 0; r < feature.geometry.coordinates.length; r++) {
+          // a random walk, so neighbouring points share leading digits like real borders do
+          double longitude = -141.0 + random.nextDouble() * 88.0;
+          double latitude = 41.0 + random.nextDouble() * 42.0;
+          double[][] ring = new double[1000][];
+          for (int p = 0; p < ring.length; p++) {
+            longitude += (random.nextDouble() - 0.5) * 0.01;
+            latitude += (random.nextDouble() - 0.5) * 0.01;
+            ring[p] = new double[] { longitude, latitude };
+          }
+          feature.geometry.coordinates[r] = ring;
+        }
+        collection.features.add(feature);
+      }
+      return collection;
+    }
+  },
+  CATALOG(Catalog.class) {
+    @Override Object generate(Random random) {
+      Catalog catalog = new Catalog();
+      catalog.areaNames = names(random, 205705993L, 60, "Arri\u00e8re-sc\u00e8ne central");
+      catalog.audienceSubCategoryNames = names(random, 337100890L, 10, "Abonn\u00e9");
+      catalog.seatCategoryNames = names(random, 338937235L, 60, "Cat\u00e9gorie");
+      catalog.topicNames = names(random, 107888604L, 30, "Musique");
+      List<Long> areaIds = longKeys(catalog.areaNames);
+      List<Long> audienceIds = longKeys(catalog.audienceSubCategoryNames);
+      List<Long> seatCategoryIds = longKeys(catalog.seatCategoryNames);
+      List<Long> topicIds = longKeys(catalog.topicNames);
+
+      catalog.topicSubTopics = new LinkedHashMap<String, List<Long>>();
+      for (Long topicId : topicIds) {
+        catalog.topicSubTopics.put(topicId.toString(), pick(random, topicIds, 1 + random.nextInt(4)));
+      }
+
+      catalog.events = new LinkedHashMap<String, Catalog.Event>();
+      List<Catalog.Event> events = new ArrayList<Catalog.Event>();
+      for (int i = 0; i < 180; i++) {
+        Catalog.Event event = new Catalog.Event();
+        event.id = 138586341L + i * 7L;
+        event.name = words(random, 2 + random.nextInt(4));
+        event.description = random.nextBoolean() ? null : words(random, 12);
+        event.logo = random.nextBoolean() ? null : "/images/UE0AAAAACEKo6QAAAAZDSVRN";
+        event.subTopicIds = pick(random, topicIds, 2 + random.nextInt(3));
+        event.topicIds = pick(random, topicIds, 1 + random.nextInt(2));
+        catalog.events.put(Long.toString(event.id), event);
+        events.add(event);
+      }
+
+      catalog.performances = new ArrayList<Catalog.Performance>();
+      for (int i = 0; i < 240; i++) {
+        Catalog.Event event = events.get(random.nextInt(events.size()));
+        Catalog.Performance performance = new Catalog.Performance();
+        performance.id = 339887544L + i;
+        performance.eventId = event.id;
+        performance.name = random.nextInt(4) == 0 ? event.name : null;
+        performance.start = 1372705200000L + i * 86400000L;
+        performance.venueCode = "PLEYEL_PLEYEL";
+        performance.prices = new ArrayList<Catalog.Price>();
+        performance.seatCategories = new ArrayList<Catalog.SeatCategory>();
+        for (Long seatCategoryId : pick(random, seatCategoryIds, 2 + random.nextInt(4))) {
+          for (Long audienceId : pick(random, audienceIds, 1 + random.nextInt(2))) {
+            Catalog.Price price = new Catalog.Price();
+            price.amount = 9500 + random.nextInt(100) * 500;
+            price.audienceSubCategoryId = audienceId;
+            price.seatCategoryId = seatCategoryId;
+            performance.prices.add(price);
+          }
+          Catalog.SeatCategory seatCategory = new Catalog.SeatCategory();
+          seatCategory.seatCategoryId = seatCategoryId;
+          seatCategory.areas = new ArrayList<Catalog.Area>();
+          for (Long areaId : pick(random, areaIds, 1 + random.nextInt(6))) {
+            Catalog.Area area = new Catalog.Area();
+            area.areaId = areaId;
+            area.blockIds = new ArrayList<Long>();
+            seatCategory.areas.add(area);
+          }
+          performance.seatCategories.add(seatCategory);
+        }
+        catalog.performances.add(performance);
+      }
+      return catalog;
+    }
+  };
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String[] WORDS = {
+      "zson", "json", "stream", "tree", "reader", "writer", "adapter", "field", "concert",
+      "\u00e9t\u00e9", "caf\u00e9", "na\u00efve", "\u4e00\u4e2a", "\u65e5\u672c\u8a9e",
+      "\u043f\u0440\u0438\u0432\u0435\u0442", "\"quoted\"", "back\\slash", "tab\there",
+      "line\nbreak", "\ud83d\ude00"
+  };
+
+  private final Type type;
+  private String json;
+
+  Corpus(Type type) {
+    this.type = type;
+  }
+
+  /** Returns the type this corpus binds to. */
+  public Type type() {
+    return type;
+  }
+
+  /** Returns a freshly generated object graph for this corpus. */
+  public Object object() {
+    return generate(new Random(42L + ordinal()));
+  }
+
+  /** Returns this corpus as compact JSON. */
+  public synchronized String json() {
+    if (json == null) {
+      json = new Zson().toJson(object(), type);
+    }
+    return json;
+  }
+
+  /** Returns this corpus as UTF-8 encoded JSON. */
+  public byte[] utf8() {
+    return json().getBytes(UTF_8);
+  }
+
+  abstract Object generate(Random random);
+
+  private static Tweet tweet(Random random, int sequence) {
+    Tweet.User user = new Tweet.User();
+    user.id = 1186275104L + random.nextInt(1000000);
+    user.idStr = Long.toString(user.id);
+    user.name = words(random, 2);
+    user.screenName = "user_" + random.nextInt(100000);
+    user.location = random.nextBoolean() ? "" : words(random, 1);
+    user.description = words(random, 8 + random.nextInt(12));
+    user.followersCount = random.nextInt(100000);
+    user.friendsCount = random.nextInt(5000);
+    user.statusesCount = random.nextInt(50000);
+    user.createdAt = "Mon Jan 30 08:14:59 +0000 2013";
+    user.verified = random.nextInt(20) == 0;
+    user.profileImageUrl = "http://pbs.twimg.com/profile_images/" + user.idStr + "/avatar_normal.jpeg";
+
+    Tweet tweet = new Tweet();
+    tweet.id = 505874924095815681L + sequence * 1000L + random.nextInt(1000);
+    tweet.idStr = Long.toString(tweet.id);
+    tweet.createdAt = "Sun Aug 31 00:29:15 +0000 2014";
+    tweet.text = words(random, 6 + random.nextInt(14));
+    tweet.source = "<a href=\"http://twitter.com/download/iphone\" rel=\"nofollow\">Twitter for iPhone</a>";
+    tweet.truncated = false;
+    if (random.nextInt(3) == 0) {
+      tweet.inReplyToStatusId = tweet.id - random.nextInt(100000);
+      tweet.inReplyToScreenName = "user_" + random.nextInt(100000);
+    }
+    tweet.user = user;
+    tweet.entities = new Tweet.Entities();
+    tweet.entities.hashtags = new ArrayList<Tweet.Hashtag>();
+    for (int i = random.nextInt(3); i > 0; i--) {
+      Tweet.Hashtag hashtag = new Tweet.Hashtag();
+      hashtag.text = WORDS[random.nextInt(WORDS.length)];
+      hashtag.indices = indices(random);
+      tweet.entities.hashtags.add(hashtag);
+    }
+    tweet.entities.urls = new ArrayList<Tweet.Url>();
+    for (int i = random.nextInt(2); i > 0; i--) {
+      Tweet.Url url = new Tweet.Url();
+      url.url = "http://t.co/" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+      url.expandedUrl = "http://example.com/articles/" + random.nextInt(1000000);
+      url.displayUrl = "example.com/articles/\u2026";
+      url.indices = indices(random);
+      tweet.entities.urls.add(url);
+    }
+    tweet.entities.userMentions = new ArrayList<Tweet.Mention>();
+    for (int i = random.nextInt(3); i > 0; i--) {
+      Tweet.Mention mention = new Tweet.Mention();
+      mention.id = 1186275104L + random.nextInt(1000000);
+      mention.screenName = "user_" + random.nextInt(100000);
+      mention.name = words(random, 2);
+      mention.indices = indices(random);
+      tweet.entities.userMentions.add(mention);
+    }
+    tweet.retweetCount = random.nextInt(500);
+    tweet.favoriteCount = random.nextInt(1000);
+    tweet.favorited = false;
+    tweet.retweeted = false;
+    tweet.lang = random.nextBoolean() ? "ja" : "en";
+    return tweet;
+  }
+
+  private static int[] indices(Random random) {
+    int start = random.nextInt(120);
+    return new int[] { start, start + 1 + random.nextInt(20) };
+  }
+
+  private static String words(Random random, int count) {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i != 0) result.append(' ');
+      result.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return result.toString();
+  }
+
+  private static Map<String, String> names(Random random, long firstId, int count, String prefix) {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for (int i = 0; i < count; i++) {
+      result.put(Long.toString(firstId + i), prefix + " " + words(random, 1));
+    }
+    return result;
+  }
+
+  private static List<Long> longKeys(Map<String, ?> map) {
+    List<Long> result = new ArrayList<Long>();
+    for (String key : map.keySet()) {
+      result.add(Long.valueOf(key));
+    }
+    return result;
+  }
+
+  private static List<Long> pick(Random random, List<Long> from, int count) {
+    Long[] result = new Long[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = from.get(random.nextInt(from.size()));
+    }
+    return new ArrayList<Long>(Arrays.asList(result));
+  }
+}
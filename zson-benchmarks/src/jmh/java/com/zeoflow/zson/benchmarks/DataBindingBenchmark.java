@@ -0,0 +1,59 @@
+package com.zeoflow.zson.benchmarks;
+
+import com.zeoflow.zson.Zson;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link Zson#toJson} and {@link Zson#fromJson} for object graphs of
+ * increasing size: a single {@link Corpus#TWEET tweet}, a
+ * {@link Corpus#TIMELINE timeline} of them, and the number heavy
+ * {@link Corpus#GEO} and deeply nested {@link Corpus#CATALOG} documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataBindingBenchmark {
+  @Param({"TWEET", "TIMELINE", "GEO", "CATALOG"})
+  Corpus corpus;
+
+  private Zson zson;
+  private Type type;
+  private Object object;
+  private String json;
+  private byte[] utf8;
+
+  @Setup public void setUp() {
+    zson = new Zson();
+    type = corpus.type();
+    object = corpus.object();
+    json = corpus.json();
+    utf8 = corpus.utf8();
+  }
+
+  @Benchmark public Object fromJsonString() {
+    return zson.fromJson(json, type);
+  }
+
+  @Benchmark public Object fromJsonBytes() {
+    return zson.fromJson(utf8, type);
+  }
+
+  @Benchmark public String toJsonString() {
+    return zson.toJson(object, type);
+  }
+
+  @Benchmark public byte[] toJsonBytes() {
+    return zson.toJsonBytes(object, type);
+  }
+}
@@ -0,0 +1,154 @@
+package com.zeoflow.zson.benchmarks;
+
+import com.zeoflow.zson.JsonArray;
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.JsonParser;
+import com.zeoflow.zson.Zson;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonWriter;
+import com.zeoflow.zson.stream.Utf8JsonReader;
+import com.zeoflow.zson.stream.Utf8JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Token throughput of the streaming reader and writer, without any data
+ * binding on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StreamingBenchmark {
+  @Param({"TWEET", "TIMELINE", "GEO", "CATALOG"})
+  Corpus corpus;
+
+  private final Zson zson = new Zson();
+  private String json;
+  private byte[] utf8;
+  private JsonElement tree;
+  private double[] doubles;
+
+  @Setup public void setUp() {
+    json = corpus.json();
+    utf8 = corpus.utf8();
+    tree = JsonParser.parseString(json);
+    JsonArray numbers = new JsonArray();
+    collectNumbers(tree, numbers);
+    doubles = numbers.toDoubleArray();
+  }
+
+  @Benchmark public void readChars(Blackhole blackhole) throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(json));
+    readValue(reader, blackhole);
+    reader.close();
+  }
+
+  @Benchmark public void readUtf8(Blackhole blackhole) throws IOException {
+    JsonReader reader = new Utf8JsonReader(utf8);
+    readValue(reader, blackhole);
+    reader.close();
+  }
+
+  @Benchmark public void skipChars() throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(json));
+    reader.skipValue();
+    reader.close();
+  }
+
+  @Benchmark public void skipUtf8() throws IOException {
+    JsonReader reader = new Utf8JsonReader(utf8);
+    reader.skipValue();
+    reader.close();
+  }
+
+  @Benchmark public String writeChars() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter(out);
+    zson.toJson(tree, writer);
+    writer.close();
+    return out.toString();
+  }
+
+  @Benchmark public byte[] writeUtf8() throws IOException {
+    Utf8JsonWriter writer = new Utf8JsonWriter();
+    zson.toJson(tree, writer);
+    writer.flush();
+    return writer.toByteArray();
+  }
+
+  /** Writes the corpus's numbers as doubles, the way bound double fields are written. */
+  @Benchmark public String writeDoubles() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (double value : doubles) {
+      writer.value(value);
+    }
+    writer.endArray();
+    writer.close();
+    return out.toString();
+  }
+
+  private static void collectNumbers(JsonElement element, JsonArray numbers) {
+    if (element.isJsonObject()) {
+      for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+        collectNumbers(member.getValue(), numbers);
+      }
+    } else if (element.isJsonArray()) {
+      for (JsonElement child : element.getAsJsonArray()) {
+        collectNumbers(child, numbers);
+      }
+    } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
+      numbers.add(element.getAsDouble());
+    }
+  }
+
+  /** Consumes one value and everything nested in it, token by token. */
+  private static void readValue(JsonReader reader, Blackhole blackhole) throws IOException {
+    switch (reader.peek()) {
+    case BEGIN_ARRAY:
+      reader.beginArray();
+      while (reader.hasNext()) {
+        readValue(reader, blackhole);
+      }
+      reader.endArray();
+      break;
+    case BEGIN_OBJECT:
+      reader.beginObject();
+      while (reader.hasNext()) {
+        blackhole.consume(reader.nextName());
+        readValue(reader, blackhole);
+      }
+      reader.endObject();
+      break;
+    case STRING:
+      blackhole.consume(reader.nextString());
+      break;
+    case NUMBER:
+      blackhole.consume(reader.nextDouble());
+      break;
+    case BOOLEAN:
+      blackhole.consume(reader.nextBoolean());
+      break;
+    case NULL:
+      reader.nextNull();
+      break;
+    default:
+      throw new AssertionError(reader.peek());
+    }
+  }
+}
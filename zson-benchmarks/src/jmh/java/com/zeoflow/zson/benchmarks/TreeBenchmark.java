@@ -0,0 +1,97 @@
+package com.zeoflow.zson.benchmarks;
+
+import com.zeoflow.zson.JsonArray;
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.JsonParser;
+import com.zeoflow.zson.Zson;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Building, copying and printing {@link JsonElement} trees. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TreeBenchmark {
+  @Param({"TWEET", "TIMELINE", "GEO", "CATALOG"})
+  Corpus corpus;
+
+  private final Zson zson = new Zson();
+  private String json;
+  private byte[] utf8;
+  private JsonElement tree;
+  private JsonElement frozen;
+
+  @Setup public void setUp() {
+    json = corpus.json();
+    utf8 = corpus.utf8();
+    tree = JsonParser.parseString(json);
+    frozen = tree.freeze();
+  }
+
+  @Benchmark public JsonElement parseString() {
+    return JsonParser.parseString(json);
+  }
+
+  /** Only checks the document; nothing is read. */
+  @Benchmark public JsonElement parseLazily() {
+    return JsonParser.parseLazily(utf8);
+  }
+
+  /** Reads every object and array of a lazy tree, by copying it. */
+  @Benchmark public JsonElement parseLazilyAndCopy() {
+    return JsonParser.parseLazily(utf8).deepCopy();
+  }
+
+  /** Converts every array of numbers in the tree, the way a numeric consumer would. */
+  @Benchmark public double sumNumberArrays() {
+    return sum(tree);
+  }
+
+  @Benchmark public JsonElement deepCopy() {
+    return tree.deepCopy();
+  }
+
+  @Benchmark public JsonElement freeze() {
+    return tree.freeze();
+  }
+
+  /** Frozen trees are shared rather than copied. */
+  @Benchmark public JsonElement deepCopyFrozen() {
+    return frozen.deepCopy();
+  }
+
+  @Benchmark public String toJson() {
+    return zson.toJson(tree);
+  }
+
+  private static double sum(JsonElement element) {
+    double sum = 0;
+    if (element.isJsonObject()) {
+      for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+        sum += sum(member.getValue());
+      }
+    } else if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      try {
+        for (double value : array.toDoubleArray()) {
+          sum += value;
+        }
+      } catch (RuntimeException notNumbers) {
+        for (JsonElement child : array) {
+          sum += sum(child);
+        }
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,53 @@
+package com.zeoflow.zson.benchmarks.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A ticketing catalog of events and performances with nested seating,
+ * pricing and lookup tables.
+ */
+public class Catalog {
+  public Map<String, String> areaNames;
+  public Map<String, String> audienceSubCategoryNames;
+  public Map<String, Event> events;
+  public List<Performance> performances;
+  public Map<String, String> seatCategoryNames;
+  public Map<String, String> topicNames;
+  public Map<String, List<Long>> topicSubTopics;
+
+  public static class Event {
+    public long id;
+    public String name;
+    public String description;
+    public String logo;
+    public List<Long> subTopicIds;
+    public List<Long> topicIds;
+  }
+
+  public static class Performance {
+    public long id;
+    public long eventId;
+    public String name;
+    public List<Price> prices;
+    public List<SeatCategory> seatCategories;
+    public long start;
+    public String venueCode;
+  }
+
+  public static class Price {
+    public int amount;
+    public long audienceSubCategoryId;
+    public long seatCategoryId;
+  }
+
+  public static class SeatCategory {
+    public List<Area> areas;
+    public long seatCategoryId;
+  }
+
+  public static class Area {
+    public long areaId;
+    public List<Long> blockIds;
+  }
+}
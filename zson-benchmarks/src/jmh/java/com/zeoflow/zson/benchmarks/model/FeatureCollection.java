@@ -0,0 +1,22 @@
+package com.zeoflow.zson.benchmarks.model;
+
+import java.util.List;
+import java.util.Map;
+
+/** A GeoJSON feature collection of polygons, dominated by coordinate arrays. */
+public class FeatureCollection {
+  public String type;
+  public List<Feature> features;
+
+  public static class Feature {
+    public String type;
+    public Map<String, String> properties;
+    public Geometry geometry;
+  }
+
+  public static class Geometry {
+    public String type;
+    /** Rings of [longitude, latitude] pairs. */
+    public double[][][] coordinates;
+  }
+}
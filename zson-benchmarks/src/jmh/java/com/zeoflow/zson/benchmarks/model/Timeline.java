@@ -0,0 +1,18 @@
+package com.zeoflow.zson.benchmarks.model;
+
+import com.zeoflow.zson.annotations.SerializedName;
+import java.util.List;
+
+/** A page of a home timeline, shaped like a Twitter API search response. */
+public class Timeline {
+  public List<Tweet> statuses;
+  @SerializedName("search_metadata") public SearchMetadata searchMetadata;
+
+  public static class SearchMetadata {
+    @SerializedName("max_id") public long maxId;
+    @SerializedName("since_id") public long sinceId;
+    public int count;
+    @SerializedName("completed_in") public double completedIn;
+    public String query;
+  }
+}
@@ -0,0 +1,63 @@
+package com.zeoflow.zson.benchmarks.model;
+
+import com.zeoflow.zson.annotations.SerializedName;
+import java.util.List;
+
+/** A status update with its author and entities. */
+public class Tweet {
+  public long id;
+  @SerializedName("id_str") public String idStr;
+  @SerializedName("created_at") public String createdAt;
+  public String text;
+  public String source;
+  public boolean truncated;
+  @SerializedName("in_reply_to_status_id") public Long inReplyToStatusId;
+  @SerializedName("in_reply_to_screen_name") public String inReplyToScreenName;
+  public User user;
+  public Entities entities;
+  @SerializedName("retweet_count") public int retweetCount;
+  @SerializedName("favorite_count") public int favoriteCount;
+  public boolean favorited;
+  public boolean retweeted;
+  public String lang;
+
+  public static class User {
+    public long id;
+    @SerializedName("id_str") public String idStr;
+    public String name;
+    @SerializedName("screen_name") public String screenName;
+    public String location;
+    public String description;
+    @SerializedName("followers_count") public int followersCount;
+    @SerializedName("friends_count") public int friendsCount;
+    @SerializedName("statuses_count") public int statusesCount;
+    @SerializedName("created_at") public String createdAt;
+    public boolean verified;
+    @SerializedName("profile_image_url") public String profileImageUrl;
+  }
+
+  public static class Entities {
+    public List<Hashtag> hashtags;
+    public List<Url> urls;
+    @SerializedName("user_mentions") public List<Mention> userMentions;
+  }
+
+  public static class Hashtag {
+    public String text;
+    public int[] indices;
+  }
+
+  public static class Url {
+    public String url;
+    @SerializedName("expanded_url") public String expandedUrl;
+    @SerializedName("display_url") public String displayUrl;
+    public int[] indices;
+  }
+
+  public static class Mention {
+    public long id;
+    @SerializedName("screen_name") public String screenName;
+    public String name;
+    public int[] indices;
+  }
+}
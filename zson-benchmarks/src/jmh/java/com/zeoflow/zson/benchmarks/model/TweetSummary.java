@@ -0,0 +1,18 @@
+package com.zeoflow.zson.benchmarks.model;
+
+import com.zeoflow.zson.annotations.SerializedName;
+
+/** A view of a {@link Tweet} with only the fields a list item shows. */
+public class TweetSummary {
+  public long id;
+  public String text;
+  public Author user;
+  @SerializedName("retweet_count") public int retweetCount;
+  @SerializedName("favorite_count") public int favoriteCount;
+
+  public static class Author {
+    public String name;
+    @SerializedName("screen_name") public String screenName;
+    public boolean verified;
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.codegen;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Writes the source of the {@code TypeAdapter} for one {@link GeneratedType}.
+ *
+ * <p>The adapter's fields are numbered in the order of {@link GeneratedType#fields}; the same
+ * index identifies a field in {@code GeneratedFieldBindings}, in the {@code switch} that reads
+ * it and in the names of the adapter's members.
+ */
+final class AdapterGenerator {
+  private static final String BINDINGS = "com.zeoflow.zson.internal.bind.GeneratedFieldBindings";
+  private static final String TYPE_ADAPTER = "com.zeoflow.zson.TypeAdapter";
+
+  private final TypeNames typeNames;
+  private final GeneratedType type;
+  private final String typeName;
+  private final StringBuilder out = new StringBuilder();
+
+  AdapterGenerator(TypeNames typeNames, GeneratedType type) {
+    this.typeNames = typeNames;
+    this.type = type;
+    this.typeName = type.element.getQualifiedName().toString();
+  }
+
+  String generate() {
+    List<GeneratedType.Field> fields = type.fields;
+    out.append("// Generated by zson-codegen. Do not edit.\n");
+    if (!type.packageElement.isUnnamed()) {
+      out.append("package ").append(type.packageElement.getQualifiedName()).append(";\n");
+    }
+    out.append('\n');
+    out.append("/**\n");
+    out.append(" * The type adapter of {@link ").append(typeName).append("}.\n");
+    out.append(" */\n");
+    out.append(type.element.getModifiers().contains(javax.lang.model.element.Modifier.PUBLIC)
+        ? "public " : "");
+    out.append("final class ").append(type.adapterName)
+        .append(" extends ").append(TYPE_ADAPTER).append('<').append(typeName).append("> {\n");
+    out.append("  private final ").append(BINDINGS).append(" fields;\n");
+    for (int i = 0; i < fields.size(); i++) {
+      GeneratedType.Field field = fields.get(i);
+      if (!field.accessible) continue;
+      String adapterType = TYPE_ADAPTER + "<" + typeNames.boxedName(field.type) + ">";
+      out.append("  private final ").append(adapterType).append(" adapter").append(i).append(";\n");
+      out.append("  private final ").append(adapterType).append(" writeAdapter").append(i)
+          .append(";\n");
+    }
+    out.append('\n');
+
+    // constructor
+    out.append("  private ").append(type.adapterName).append('(').append(BINDINGS)
+        .append(" fields) {\n");
+    out.append("    this.fields = fields;\n");
+    for (int i = 0; i < fields.size(); i++) {
+      if (!fields.get(i).accessible) continue;
+      out.append("    this.adapter").append(i).append(" = fields.adapter(").append(i).append(");\n");
+      out.append("    this.writeAdapter").append(i).append(" = fields.writeAdapter(").append(i)
+          .append(");\n");
+    }
+    out.append("  }\n\n");
+
+    // factory method
+    out.append("  /**\n");
+    out.append("   * Returns the adapter for {@code zson}, or null if its configuration requires the\n");
+    out.append("   * reflective adapter.\n");
+    out.append("   */\n");
+    out.append("  public static ").append(TYPE_ADAPTER).append('<').append(typeName)
+        .append("> create(com.zeoflow.zson.Zson zson) {\n");
+    out.append("    ").append(BINDINGS).append(" fields = ").append(BINDINGS)
+        .append(".bind(zson, ").append(typeName).append(".class");
+    for (GeneratedType.Field field : fields) {
+      out.append(",\n        ").append(spec(field));
+    }
+    out.append(");\n");
+    out.append("    return fields != null ? new ").append(type.adapterName)
+        .append("(fields) : null;\n");
+    out.append("  }\n\n");
+
+    writeRead(fields);
+    writeWrite(fields);
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private String spec(GeneratedType.Field field) {
+    StringBuilder spec = new StringBuilder();
+    spec.append("new ").append(BINDINGS).append(".Spec(\"").append(field.name).append("\", ")
+        .append(modifiers(field.modifiers)).append(", ")
+        .append(typeNames.typeExpression(field.type)).append(", ")
+        .append(field.accessible).append(')');
+    if (field.serializedName != null) {
+      spec.append(".serializedName(").append(stringLiteral(field.serializedName));
+      for (String alternate : field.alternates) {
+        spec.append(", ").append(stringLiteral(alternate));
+      }
+      spec.append(')');
+    }
+    if (!Double.isNaN(field.since)) {
+      spec.append(".since(").append(doubleLiteral(field.since)).append(')');
+    }
+    if (!Double.isNaN(field.until)) {
+      spec.append(".until(").append(doubleLiteral(field.until)).append(')');
+    }
+    if (field.exposeSerialize != null) {
+      spec.append(".expose(").append(field.exposeSerialize).append(", ")
+          .append(field.exposeDeserialize).append(')');
+    }
+    return spec.toString();
+  }
+
+  private void writeRead(List<GeneratedType.Field> fields) {
+    out.append("  @Override public ").append(typeName)
+        .append(" read(com.zeoflow.zson.stream.JsonReader in) throws java.io.IOException {\n");
+    out.append("    if (in.peek() == com.zeoflow.zson.stream.JsonToken.NULL) {\n");
+    out.append("      in.nextNull();\n");
+    out.append("      return null;\n");
+    out.append("    }\n\n");
+    out.append("    ").append(typeName).append(" instance = new ").append(typeName).append("();\n\n");
+    out.append("    try {\n");
+    out.append("      in.beginObject();\n");
+    out.append("      while (in.hasNext()) {\n");
+    out.append("        switch (fields.selectField(in)) {\n");
+    for (int i = 0; i < fields.size(); i++) {
+      GeneratedType.Field field = fields.get(i);
+      if (!field.accessible || Modifier.isFinal(field.modifiers)) continue;
+      boolean primitive = field.type.getKind().isPrimitive();
+      out.append("          case ").append(i).append(": {\n");
+      out.append("            ").append(typeNames.boxedName(field.type))
+          .append(" fieldValue = adapter").append(i).append(".read(in);\n");
+      out.append("            if (fieldValue != null")
+          .append(primitive ? "" : " || fields.deserializeNulls()").append(") {\n");
+      out.append("              ").append(access(field, "instance")).append(" = fieldValue;\n");
+      out.append("            }\n");
+      out.append("            break;\n");
+      out.append("          }\n");
+    }
+    out.append("          default:\n");
+    out.append("            in.skipValue();\n");
+    out.append("        }\n");
+    out.append("      }\n");
+    out.append("    } catch (IllegalStateException e) {\n");
+    out.append("      throw new com.zeoflow.zson.JsonSyntaxException(e);\n");
+    out.append("    }\n");
+    out.append("    in.endObject();\n");
+    out.append("    return instance;\n");
+    out.append("  }\n\n");
+  }
+
+  private void writeWrite(List<GeneratedType.Field> fields) {
+    out.append("  @Override public void write(com.zeoflow.zson.stream.JsonWriter out, ")
+        .append(typeName).append(" value) throws java.io.IOException {\n");
+    out.append("    if (value == null) {\n");
+    out.append("      out.nullValue();\n");
+    out.append("      return;\n");
+    out.append("    }\n\n");
+    out.append("    out.beginObject();\n");
+    for (int i = 0; i < fields.size(); i++) {
+      GeneratedType.Field field = fields.get(i);
+      if (!field.accessible) continue;
+      boolean primitive = field.type.getKind().isPrimitive();
+      out.append("    if (fields.serializedName(").append(i).append(") != null) {\n");
+      out.append("      ").append(typeNames.name(field.type)).append(" fieldValue = ")
+          .append(access(field, "value")).append(";\n");
+      String indent = "      ";
+      if (!primitive) {
+        // like the reflective adapter, avoid recursion for example for Throwable.cause
+        out.append(isObject(field.type) ? "      if (fieldValue != value) {\n"
+            : "      if ((Object) fieldValue != value) {\n");
+        indent = "        ";
+      }
+      out.append(indent).append("out.name(fields.serializedName(").append(i).append("));\n");
+      out.append(indent).append("writeAdapter").append(i).append(".write(out, fieldValue);\n");
+      if (!primitive) {
+        out.append("      }\n");
+      }
+      out.append("    }\n");
+    }
+    out.append("    out.endObject();\n");
+    out.append("  }\n");
+  }
+
+  private static boolean isObject(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+            .contentEquals("java.lang.Object");
+  }
+
+  /** Returns an expression that reads or assigns {@code field} of {@code instance}. */
+  private String access(GeneratedType.Field field, String instance) {
+    if (Modifier.isStatic(field.modifiers)) {
+      return ((TypeElement) field.declaringType.asElement()).getQualifiedName() + "." + field.name;
+    }
+    if (field.declaringType.asElement().equals(type.element)) {
+      return instance + "." + field.name;
+    }
+    // a cast selects the superclass field even if a subclass hides it
+    return "((" + typeNames.name(field.declaringType) + ") " + instance + ")." + field.name;
+  }
+
+  private static String modifiers(int modifiers) {
+    if (modifiers == 0) {
+      return "0";
+    }
+    StringBuilder result = new StringBuilder();
+    String[] names = {"PUBLIC", "PRIVATE", "PROTECTED", "STATIC", "FINAL", "VOLATILE", "TRANSIENT"};
+    int[] values = {Modifier.PUBLIC, Modifier.PRIVATE, Modifier.PROTECTED, Modifier.STATIC,
+        Modifier.FINAL, Modifier.VOLATILE, Modifier.TRANSIENT};
+    for (int i = 0; i < names.length; i++) {
+      if ((modifiers & values[i]) != 0) {
+        if (result.length() > 0) result.append(" | ");
+        result.append("java.lang.reflect.Modifier.").append(names[i]);
+      }
+    }
+    return result.toString();
+  }
+
+  private static String doubleLiteral(double value) {
+    if (Double.isInfinite(value)) {
+      return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+    }
+    return Double.toString(value);
+  }
+
+  private static String stringLiteral(String value) {
+    StringBuilder result = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"': result.append("\\\""); break;
+        case '\\': result.append("\\\\"); break;
+        case '\n': result.append("\\n"); break;
+        case '\r': result.append("\\r"); break;
+        case '\t': result.append("\\t"); break;
+        default:
+          if (c < 0x20 || c > 0x7e) {
+            result.append(String.format("\\u%04x", (int) c));
+          } else {
+            result.append(c);
+          }
+      }
+    }
+    return result.append('"').toString();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.codegen;
+
+import java.util.List;
+
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A class annotated with {@code ZsonGenerated} and the fields its adapter binds.
+ */
+final class GeneratedType {
+  final TypeElement element;
+  final PackageElement packageElement;
+  final String adapterName;
+  /** The fields in the order the reflective adapter visits them: subclass first. */
+  final List<Field> fields;
+
+  GeneratedType(TypeElement element, PackageElement packageElement, String adapterName,
+      List<Field> fields) {
+    this.element = element;
+    this.packageElement = packageElement;
+    this.adapterName = adapterName;
+    this.fields = fields;
+  }
+
+  String qualifiedAdapterName() {
+    return packageElement.isUnnamed()
+        ? adapterName
+        : packageElement.getQualifiedName() + "." + adapterName;
+  }
+
+  /**
+   * A field of the annotated class or one of its superclasses.
+   */
+  static final class Field {
+    final String name;
+    /** The class declaring the field, as a supertype of the annotated class. */
+    final DeclaredType declaringType;
+    /** The field's type as seen from the annotated class. */
+    final TypeMirror type;
+    /** The field's {@link java.lang.reflect.Modifier} bits. */
+    final int modifiers;
+    /** True if the generated adapter can read the field, and write it unless it is final. */
+    final boolean accessible;
+    final String serializedName;
+    final String[] alternates;
+    /** The values of the version annotations, or {@code NaN} if they're absent. */
+    final double since;
+    final double until;
+    /** The values of the {@code Expose} annotation, or null if it is absent. */
+    final Boolean exposeSerialize;
+    final Boolean exposeDeserialize;
+
+    Field(String name, DeclaredType declaringType, TypeMirror type, int modifiers,
+        boolean accessible, String serializedName, String[] alternates, double since,
+        double until, Boolean exposeSerialize, Boolean exposeDeserialize) {
+      this.name = name;
+      this.declaringType = declaringType;
+      this.type = type;
+      this.modifiers = modifiers;
+      this.accessible = accessible;
+      this.serializedName = serializedName;
+      this.alternates = alternates;
+      this.since = since;
+      this.until = until;
+      this.exposeSerialize = exposeSerialize;
+      this.exposeDeserialize = exposeDeserialize;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.codegen;
+
+import java.util.List;
+
+/**
+ * Writes the source of the {@code TypeAdapterFactory} that creates the adapters generated for
+ * one compilation.
+ */
+final class RegistryGenerator {
+  private final String packageName;
+  private final String simpleName;
+  private final List<GeneratedType> types;
+
+  RegistryGenerator(String qualifiedName, List<GeneratedType> types) {
+    int lastDot = qualifiedName.lastIndexOf('.');
+    this.packageName = lastDot != -1 ? qualifiedName.substring(0, lastDot) : "";
+    this.simpleName = qualifiedName.substring(lastDot + 1);
+    this.types = types;
+  }
+
+  String generate() {
+    StringBuilder out = new StringBuilder();
+    out.append("// Generated by zson-codegen. Do not edit.\n");
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n");
+    }
+    out.append('\n');
+    out.append("/**\n");
+    out.append(" * Creates the type adapters generated for classes annotated with\n");
+    out.append(" * {@link com.zeoflow.zson.annotations.ZsonGenerated}. Register {@link #FACTORY}\n");
+    out.append(" * with {@link com.zeoflow.zson.ZsonBuilder#registerTypeAdapterFactory}.\n");
+    out.append(" */\n");
+    out.append("public final class ").append(simpleName)
+        .append(" implements com.zeoflow.zson.TypeAdapterFactory {\n");
+    out.append("  public static final com.zeoflow.zson.TypeAdapterFactory FACTORY = new ")
+        .append(simpleName).append("();\n\n");
+    out.append("  private ").append(simpleName).append("() {\n");
+    out.append("  }\n\n");
+    out.append("  @SuppressWarnings(\"unchecked\") // the adapter was generated for the raw type\n");
+    out.append("  @Override public <T> com.zeoflow.zson.TypeAdapter<T> create(\n");
+    out.append("      com.zeoflow.zson.Zson zson, com.zeoflow.zson.reflect.TypeToken<T> type) {\n");
+    out.append("    Class<? super T> rawType = type.getRawType();\n");
+    for (GeneratedType type : types) {
+      out.append("    if (rawType == ").append(type.element.getQualifiedName()).append(".class) {\n");
+      out.append("      return (com.zeoflow.zson.TypeAdapter<T>) ")
+          .append(type.qualifiedAdapterName()).append(".create(zson);\n");
+      out.append("    }\n");
+    }
+    out.append("    return null;\n");
+    out.append("  }\n");
+    out.append("}\n");
+    return out.toString();
+  }
+}
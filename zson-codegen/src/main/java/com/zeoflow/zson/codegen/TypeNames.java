@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.codegen;
+
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Renders types as Java source, both as declarations and as expressions that
+ * evaluate to the equivalent {@link java.lang.reflect.Type} at runtime.
+ */
+final class TypeNames {
+  private static final String ZSON_TYPES = "com.zeoflow.zson.internal.$Zson$Types";
+
+  private final Types types;
+  private final Elements elements;
+
+  TypeNames(Types types, Elements elements) {
+    this.types = types;
+    this.elements = elements;
+  }
+
+  /**
+   * Returns true if {@code type} can be named from source in {@code pkg}: it
+   * has no type variables and every class it mentions is accessible there.
+   */
+  boolean isNameable(TypeMirror type, PackageElement pkg) {
+    switch (type.getKind()) {
+      case BOOLEAN: case BYTE: case SHORT: case CHAR:
+      case INT: case LONG: case FLOAT: case DOUBLE:
+        return true;
+      case ARRAY:
+        return isNameable(((ArrayType) type).getComponentType(), pkg);
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        TypeMirror bound = wildcard.getExtendsBound() != null
+            ? wildcard.getExtendsBound()
+            : wildcard.getSuperBound();
+        return bound == null || isNameable(bound, pkg);
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        if (!isAccessible((TypeElement) declared.asElement(), pkg)) {
+          return false;
+        }
+        for (TypeMirror argument : declared.getTypeArguments()) {
+          if (!isNameable(argument, pkg)) {
+            return false;
+          }
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** Returns true if {@code element} and its enclosing classes can be referenced from {@code pkg}. */
+  boolean isAccessible(TypeElement element, PackageElement pkg) {
+    for (Element e = element; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+      if (!(e instanceof TypeElement)) {
+        return false; // a local or anonymous class
+      }
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+      if (!e.getModifiers().contains(Modifier.PUBLIC) && !elements.getPackageOf(e).equals(pkg)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the source name of {@code type}, boxing it if it is primitive. */
+  String boxedName(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+    }
+    return name(type);
+  }
+
+  /** Returns the source name of {@code type}, without any type annotations. */
+  String name(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return name(((ArrayType) type).getComponentType()) + "[]";
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getExtendsBound() != null) {
+          return "? extends " + name(wildcard.getExtendsBound());
+        }
+        if (wildcard.getSuperBound() != null) {
+          return "? super " + name(wildcard.getSuperBound());
+        }
+        return "?";
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        StringBuilder result = new StringBuilder(rawName(declared));
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        if (!arguments.isEmpty()) {
+          result.append('<');
+          for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) result.append(", ");
+            result.append(name(arguments.get(i)));
+          }
+          result.append('>');
+        }
+        return result.toString();
+      default:
+        return types.getPrimitiveType(type.getKind()).toString();
+    }
+  }
+
+  /**
+   * Returns an expression for the {@link java.lang.reflect.Type} reflection
+   * would report for a field of this type: a class literal for primitives and
+   * non-generic types, or one of {@code $Zson$Types}' implementations.
+   */
+  String typeExpression(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        TypeMirror component = ((ArrayType) type).getComponentType();
+        if (isGeneric(component)) {
+          return ZSON_TYPES + ".arrayOf(" + typeExpression(component) + ")";
+        }
+        return name(type) + ".class";
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getSuperBound() != null) {
+          return ZSON_TYPES + ".supertypeOf(" + typeExpression(wildcard.getSuperBound()) + ")";
+        }
+        TypeMirror bound = wildcard.getExtendsBound();
+        return ZSON_TYPES + ".subtypeOf("
+            + (bound != null ? typeExpression(bound) : "java.lang.Object.class") + ")";
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        if (!isGeneric(declared)) {
+          return rawName(declared) + ".class";
+        }
+        TypeElement element = (TypeElement) declared.asElement();
+        StringBuilder result = new StringBuilder(ZSON_TYPES + ".newParameterizedTypeWithOwner(");
+        result.append(ownerExpression(declared, element)).append(", ");
+        result.append(rawName(declared)).append(".class");
+        for (TypeMirror argument : declared.getTypeArguments()) {
+          result.append(", ").append(typeExpression(argument));
+        }
+        return result.append(')').toString();
+      default:
+        return name(type) + ".class";
+    }
+  }
+
+  /** Returns the owner of a parameterized type the way reflection reports it. */
+  private String ownerExpression(DeclaredType declared, TypeElement element) {
+    if (element.getNestingKind() != NestingKind.MEMBER) {
+      return "null";
+    }
+    TypeMirror enclosingType = declared.getEnclosingType();
+    if (enclosingType.getKind() == TypeKind.DECLARED) {
+      return typeExpression(enclosingType);
+    }
+    return ((TypeElement) element.getEnclosingElement()).getQualifiedName() + ".class";
+  }
+
+  /** Returns true if reflection reports {@code type} as something other than a class. */
+  private boolean isGeneric(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return isGeneric(((ArrayType) type).getComponentType());
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        return !declared.getTypeArguments().isEmpty()
+            || declared.getEnclosingType().getKind() == TypeKind.DECLARED
+                && isGeneric(declared.getEnclosingType());
+      default:
+        return type.getKind() == TypeKind.WILDCARD;
+    }
+  }
+
+  private String rawName(DeclaredType declared) {
+    return ((TypeElement) declared.asElement()).getQualifiedName().toString();
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.codegen;
+
+import com.zeoflow.zson.annotations.Expose;
+import com.zeoflow.zson.annotations.JsonAdapter;
+import com.zeoflow.zson.annotations.SerializedName;
+import com.zeoflow.zson.annotations.Since;
+import com.zeoflow.zson.annotations.Until;
+import com.zeoflow.zson.annotations.ZsonGenerated;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code TypeAdapter} for every class annotated with {@link ZsonGenerated}, and one
+ * {@code TypeAdapterFactory} that creates all of them.
+ *
+ * <p>The adapters bind the same fields, in the same order, as the reflective adapter would; the
+ * decisions that depend on the {@code Zson} configuration are made at runtime by
+ * {@code GeneratedFieldBindings}.
+ */
+public final class ZsonProcessor extends AbstractProcessor {
+  /** The processor option that sets the fully qualified name of the generated factory. */
+  static final String OPTION_REGISTRY = "zson.registry";
+  static final String DEFAULT_REGISTRY_NAME = "ZsonGeneratedAdapters";
+
+  private Types types;
+  private Elements elements;
+  private Messager messager;
+  private TypeNames typeNames;
+
+  /** Adapters generated so far that still need to be added to the factory. */
+  private final List<GeneratedType> generated = new ArrayList<GeneratedType>();
+  private boolean registryWritten;
+
+  @Override public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.types = processingEnv.getTypeUtils();
+    this.elements = processingEnv.getElementUtils();
+    this.messager = processingEnv.getMessager();
+    this.typeNames = new TypeNames(types, elements);
+  }
+
+  @Override public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(ZsonGenerated.class.getCanonicalName());
+  }
+
+  @Override public Set<String> getSupportedOptions() {
+    return Collections.singleton(OPTION_REGISTRY);
+  }
+
+  @Override public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    boolean found = false;
+    for (Element element : roundEnv.getElementsAnnotatedWith(ZsonGenerated.class)) {
+      found = true;
+      GeneratedType type = bind(element);
+      if (type == null) {
+        continue;
+      }
+      try {
+        writeSource(type.qualifiedAdapterName(), new AdapterGenerator(typeNames, type).generate(),
+            type.element);
+        generated.add(type);
+      } catch (IOException e) {
+        error("Unable to write " + type.qualifiedAdapterName() + ": " + e.getMessage(), element);
+      }
+    }
+
+    // The factory is written once every annotated class has been seen, which is the
+    // first round that doesn't find any more of them.
+    if ((!found || roundEnv.processingOver()) && !generated.isEmpty()) {
+      if (registryWritten) {
+        error("@ZsonGenerated classes created in a later processing round can't be added to "
+            + registryName(), generated.get(0).element);
+      } else {
+        writeRegistry();
+      }
+      generated.clear();
+    }
+    return true;
+  }
+
+  /**
+   * Collects the fields of an annotated class. Returns null and reports the problem if no
+   * adapter can be generated for it.
+   */
+  private GeneratedType bind(Element element) {
+    if (element.getKind() != ElementKind.CLASS) {
+      error("@ZsonGenerated can only be applied to classes", element);
+      return null;
+    }
+    TypeElement type = (TypeElement) element;
+    PackageElement pkg = elements.getPackageOf(type);
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      error("@ZsonGenerated classes must not be abstract", type);
+      return null;
+    }
+    if (type.getNestingKind() == NestingKind.MEMBER
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      error("@ZsonGenerated classes must not be inner classes", type);
+      return null;
+    }
+    if (!typeNames.isAccessible(type, pkg)) {
+      error("@ZsonGenerated classes must not be private", type);
+      return null;
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      error("@ZsonGenerated classes must not be generic", type);
+      return null;
+    }
+    if (!hasNoArgsConstructor(type)) {
+      error("@ZsonGenerated classes must have a non-private no-args constructor", type);
+      return null;
+    }
+    if (type.getAnnotation(JsonAdapter.class) != null) {
+      // The generated factory would take precedence over the class's own adapter.
+      warning("@ZsonGenerated is ignored on classes annotated with @JsonAdapter", type);
+      return null;
+    }
+
+    List<GeneratedType.Field> fields = new ArrayList<GeneratedType.Field>();
+    DeclaredType declaredType = (DeclaredType) type.asType();
+    for (DeclaredType current = declaredType; current != null; current = superclass(current)) {
+      for (VariableElement field : fieldsIn((TypeElement) current.asElement())) {
+        if (field.getAnnotation(JsonAdapter.class) != null) {
+          warning("@ZsonGenerated is ignored on classes with @JsonAdapter fields", field);
+          return null;
+        }
+        TypeMirror fieldType = types.asMemberOf(declaredType, field);
+        boolean accessible = isAccessible(field, pkg);
+        if (!typeNames.isNameable(fieldType, pkg)) {
+          if (accessible) {
+            error("The type of " + field.getSimpleName()
+                + " can't be referenced from the generated adapter", field);
+            return null;
+          }
+          // Inaccessible fields are only described to decide whether they are bound; if one
+          // is, the generated adapter gives way to reflection.
+          fieldType = types.erasure(fieldType);
+          if (!typeNames.isNameable(fieldType, pkg)) {
+            fieldType = elements.getTypeElement("java.lang.Object").asType();
+          }
+        }
+        fields.add(field(field, current, fieldType, accessible));
+      }
+    }
+
+    String adapterName = adapterName(type);
+    return new GeneratedType(type, pkg, adapterName, fields);
+  }
+
+  private GeneratedType.Field field(VariableElement field, DeclaredType declaringType,
+      TypeMirror type, boolean accessible) {
+    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+    Since since = field.getAnnotation(Since.class);
+    Until until = field.getAnnotation(Until.class);
+    Expose expose = field.getAnnotation(Expose.class);
+    return new GeneratedType.Field(
+        field.getSimpleName().toString(),
+        declaringType,
+        type,
+        modifiers(field.getModifiers()),
+        accessible,
+        serializedName != null ? serializedName.value() : null,
+        serializedName != null ? serializedName.alternate() : new String[0],
+        since != null ? since.value() : Double.NaN,
+        until != null ? until.value() : Double.NaN,
+        expose != null ? expose.serialize() : null,
+        expose != null ? expose.deserialize() : null);
+  }
+
+  private List<VariableElement> fieldsIn(TypeElement type) {
+    List<VariableElement> result = new ArrayList<VariableElement>();
+    for (Element enclosed : type.getEnclosedElements()) {
+      if (enclosed.getKind() == ElementKind.FIELD) {
+        result.add((VariableElement) enclosed);
+      }
+    }
+    return result;
+  }
+
+  /** Returns the superclass of {@code type}, or null if it is {@code Object}. */
+  private DeclaredType superclass(DeclaredType type) {
+    for (TypeMirror supertype : types.directSupertypes(type)) {
+      TypeElement element = (TypeElement) types.asElement(supertype);
+      if (element.getKind() == ElementKind.CLASS) {
+        return element.getQualifiedName().contentEquals("java.lang.Object")
+            ? null
+            : (DeclaredType) supertype;
+      }
+    }
+    return null;
+  }
+
+  private boolean hasNoArgsConstructor(TypeElement type) {
+    for (Element enclosed : type.getEnclosedElements()) {
+      if (enclosed.getKind() == ElementKind.CONSTRUCTOR
+          && ((ExecutableElement) enclosed).getParameters().isEmpty()
+          && !enclosed.getModifiers().contains(Modifier.PRIVATE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns true if the generated adapter, which lives in {@code pkg}, can access {@code field}. */
+  private boolean isAccessible(VariableElement field, PackageElement pkg) {
+    Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+    if (!typeNames.isAccessible(declaringType, pkg)) {
+      return false;
+    }
+    return modifiers.contains(Modifier.PUBLIC) || elements.getPackageOf(declaringType).equals(pkg);
+  }
+
+  private static int modifiers(Set<Modifier> modifiers) {
+    int result = 0;
+    for (Modifier modifier : modifiers) {
+      switch (modifier) {
+        case PUBLIC: result |= java.lang.reflect.Modifier.PUBLIC; break;
+        case PROTECTED: result |= java.lang.reflect.Modifier.PROTECTED; break;
+        case PRIVATE: result |= java.lang.reflect.Modifier.PRIVATE; break;
+        case STATIC: result |= java.lang.reflect.Modifier.STATIC; break;
+        case FINAL: result |= java.lang.reflect.Modifier.FINAL; break;
+        case TRANSIENT: result |= java.lang.reflect.Modifier.TRANSIENT; break;
+        case VOLATILE: result |= java.lang.reflect.Modifier.VOLATILE; break;
+        default: break;
+      }
+    }
+    return result;
+  }
+
+  /** Returns {@code Outer_Inner_ZsonTypeAdapter} for {@code Outer.Inner}. */
+  private static String adapterName(TypeElement type) {
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+    for (Element e = type.getEnclosingElement(); e instanceof TypeElement;
+        e = e.getEnclosingElement()) {
+      name.insert(0, e.getSimpleName() + "_");
+    }
+    return name.append("_ZsonTypeAdapter").toString();
+  }
+
+  private String registryName() {
+    String option = processingEnv.getOptions().get(OPTION_REGISTRY);
+    if (option != null) {
+      return option;
+    }
+    PackageElement pkg = generated.get(0).packageElement;
+    return pkg.isUnnamed()
+        ? DEFAULT_REGISTRY_NAME
+        : pkg.getQualifiedName() + "." + DEFAULT_REGISTRY_NAME;
+  }
+
+  private void writeRegistry() {
+    Collections.sort(generated, new Comparator<GeneratedType>() {
+      @Override public int compare(GeneratedType a, GeneratedType b) {
+        return a.element.getQualifiedName().toString()
+            .compareTo(b.element.getQualifiedName().toString());
+      }
+    });
+    String name = registryName();
+    int lastDot = name.lastIndexOf('.');
+    String packageName = lastDot != -1 ? name.substring(0, lastDot) : "";
+
+    Set<Element> originatingElements = new LinkedHashSet<Element>();
+    boolean valid = true;
+    for (GeneratedType type : generated) {
+      originatingElements.add(type.element);
+      boolean samePackage = type.packageElement.getQualifiedName().contentEquals(packageName);
+      if (!samePackage && !type.element.getModifiers().contains(Modifier.PUBLIC)) {
+        error("@ZsonGenerated classes must be public to be registered in " + name,
+            type.element);
+        valid = false;
+      }
+    }
+    registryWritten = true;
+    if (!valid) {
+      return;
+    }
+    try {
+      writeSource(name, new RegistryGenerator(name, generated).generate(),
+          originatingElements.toArray(new Element[0]));
+    } catch (IOException e) {
+      error("Unable to write " + name + ": " + e.getMessage(), generated.get(0).element);
+    }
+  }
+
+  private void writeSource(String name, String source, Element... originatingElements)
+      throws IOException {
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(name, originatingElements);
+    Writer writer = file.openWriter();
+    try {
+      writer.write(source);
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void error(String message, Element element) {
+    messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private void warning(String message, Element element) {
+    messager.printMessage(Diagnostic.Kind.WARNING, message, element);
+  }
+}
@@ -27,6 +27,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
+import com.zeoflow.zson.internal.DateFormatPool;
 import com.zeoflow.zson.internal.JavaVersion;
 import com.zeoflow.zson.internal.PreJava9DateFormatProvider;
 import com.zeoflow.zson.internal.bind.util.ISO8601Utils;
@@ -51,35 +52,35 @@ final class DefaultDateTypeAdapter extends TypeAdapter<Date> {
    * List of 1 or more different date formats used for de-serialization attempts.
    * The first of them is used for serialization as well.
    */
-  private final List<DateFormat> dateFormats = new ArrayList<DateFormat>();
+  private final List<DateFormatPool> dateFormats = new ArrayList<DateFormatPool>();
 
   DefaultDateTypeAdapter(Class<? extends Date> dateType) {
     this.dateType = verifyDateType(dateType);
-    dateFormats.add(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US));
+    dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)));
     if (!Locale.getDefault().equals(Locale.US)) {
-      dateFormats.add(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT));
+      dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT)));
     }
     if (JavaVersion.isJava9OrLater()) {
-      dateFormats.add(PreJava9DateFormatProvider.getUSDateTimeFormat(DateFormat.DEFAULT, DateFormat.DEFAULT));
+      dateFormats.add(new DateFormatPool(PreJava9DateFormatProvider.getUSDateTimeFormat(DateFormat.DEFAULT, DateFormat.DEFAULT)));
     }
   }
 
   DefaultDateTypeAdapter(Class<? extends Date> dateType, String datePattern) {
     this.dateType = verifyDateType(dateType);
-    dateFormats.add(new SimpleDateFormat(datePattern, Locale.US));
+    dateFormats.add(new DateFormatPool(new SimpleDateFormat(datePattern, Locale.US)));
     if (!Locale.getDefault().equals(Locale.US)) {
-      dateFormats.add(new SimpleDateFormat(datePattern));
+      dateFormats.add(new DateFormatPool(new SimpleDateFormat(datePattern)));
     }
   }
 
   DefaultDateTypeAdapter(Class<? extends Date> dateType, int style) {
     this.dateType = verifyDateType(dateType);
-    dateFormats.add(DateFormat.getDateInstance(style, Locale.US));
+    dateFormats.add(new DateFormatPool(DateFormat.getDateInstance(style, Locale.US)));
     if (!Locale.getDefault().equals(Locale.US)) {
-      dateFormats.add(DateFormat.getDateInstance(style));
+      dateFormats.add(new DateFormatPool(DateFormat.getDateInstance(style)));
     }
     if (JavaVersion.isJava9OrLater()) {
-      dateFormats.add(PreJava9DateFormatProvider.getUSDateFormat(style));
+      dateFormats.add(new DateFormatPool(PreJava9DateFormatProvider.getUSDateFormat(style)));
     }
   }
 
@@ -89,12 +90,12 @@ final class DefaultDateTypeAdapter extends TypeAdapter<Date> {
 
   public DefaultDateTypeAdapter(Class<? extends Date> dateType, int dateStyle, int timeStyle) {
     this.dateType = verifyDateType(dateType);
-    dateFormats.add(DateFormat.getDateTimeInstance(dateStyle, timeStyle, Locale.US));
+    dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(dateStyle, timeStyle, Locale.US)));
     if (!Locale.getDefault().equals(Locale.US)) {
-      dateFormats.add(DateFormat.getDateTimeInstance(dateStyle, timeStyle));
+      dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(dateStyle, timeStyle)));
     }
     if (JavaVersion.isJava9OrLater()) {
-      dateFormats.add(PreJava9DateFormatProvider.getUSDateTimeFormat(dateStyle, timeStyle));
+      dateFormats.add(new DateFormatPool(PreJava9DateFormatProvider.getUSDateTimeFormat(dateStyle, timeStyle)));
     }
   }
 
@@ -105,18 +106,15 @@ final class DefaultDateTypeAdapter extends TypeAdapter<Date> {
     return dateType;
   }
 
-  // These methods need to be synchronized since JDK DateFormat classes are not thread-safe
-  // See issue 162
+  // JDK DateFormat classes are not thread-safe (see issue 162), so each call borrows its own copy
   @Override
   public void write(JsonWriter out, Date value) throws IOException {
     if (value == null) {
       out.nullValue();
       return;
     }
-    synchronized(dateFormats) {
-      String dateFormatAsString = dateFormats.get(0).format(value);
-      out.value(dateFormatAsString);
-    }
+    String dateFormatAsString = dateFormats.get(0).format(value);
+    out.value(dateFormatAsString);
   }
 
   @Override
@@ -139,27 +137,20 @@ final class DefaultDateTypeAdapter extends TypeAdapter<Date> {
   }
 
   private Date deserializeToDate(String s) {
-    synchronized (dateFormats) {
-      for (DateFormat dateFormat : dateFormats) {
-        try {
-          return dateFormat.parse(s);
-        } catch (ParseException ignored) {}
-      }
+    for (DateFormatPool dateFormat : dateFormats) {
       try {
-        return ISO8601Utils.parse(s, new ParsePosition(0));
-      } catch (ParseException e) {
-        throw new JsonSyntaxException(s, e);
-      }
+        return dateFormat.parse(s);
+      } catch (ParseException ignored) {}
+    }
+    try {
+      return ISO8601Utils.parse(s, new ParsePosition(0));
+    } catch (ParseException e) {
+      throw new JsonSyntaxException(s, e);
     }
   }
 
   @Override
   public String toString() {
-    DateFormat defaultFormat = dateFormats.get(0);
-    if (defaultFormat instanceof SimpleDateFormat) {
-      return SIMPLE_NAME + '(' + ((SimpleDateFormat) defaultFormat).toPattern() + ')';
-    } else {
-      return SIMPLE_NAME + '(' + defaultFormat.getClass().getSimpleName() + ')';
-    }
+    return SIMPLE_NAME + '(' + dateFormats.get(0) + ')';
   }
 }
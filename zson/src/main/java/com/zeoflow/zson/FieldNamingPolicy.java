@@ -35,8 +35,8 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * unchanged.
    */
   IDENTITY() {
-    @Override public String translateName(Field f) {
-      return f.getName();
+    @Override public String translateName(String name) {
+      return name;
     }
   },
 
@@ -51,8 +51,8 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * </ul>
    */
   UPPER_CAMEL_CASE() {
-    @Override public String translateName(Field f) {
-      return upperCaseFirstLetter(f.getName());
+    @Override public String translateName(String name) {
+      return upperCaseFirstLetter(name);
     }
   },
 
@@ -70,8 +70,8 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * @since 1.4
    */
   UPPER_CAMEL_CASE_WITH_SPACES() {
-    @Override public String translateName(Field f) {
-      return upperCaseFirstLetter(separateCamelCase(f.getName(), " "));
+    @Override public String translateName(String name) {
+      return upperCaseFirstLetter(separateCamelCase(name, " "));
     }
   },
 
@@ -88,8 +88,8 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * </ul>
    */
   LOWER_CASE_WITH_UNDERSCORES() {
-    @Override public String translateName(Field f) {
-      return separateCamelCase(f.getName(), "_").toLowerCase(Locale.ENGLISH);
+    @Override public String translateName(String name) {
+      return separateCamelCase(name, "_").toLowerCase(Locale.ENGLISH);
     }
   },
 
@@ -111,8 +111,8 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * @since 1.4
    */
   LOWER_CASE_WITH_DASHES() {
-    @Override public String translateName(Field f) {
-      return separateCamelCase(f.getName(), "-").toLowerCase(Locale.ENGLISH);
+    @Override public String translateName(String name) {
+      return separateCamelCase(name, "-").toLowerCase(Locale.ENGLISH);
     }
   },
 
@@ -134,11 +134,24 @@ public enum FieldNamingPolicy implements FieldNamingStrategy {
    * @since 2.8
    */
   LOWER_CASE_WITH_DOTS() {
-    @Override public String translateName(Field f) {
-      return separateCamelCase(f.getName(), ".").toLowerCase(Locale.ENGLISH);
+    @Override public String translateName(String name) {
+      return separateCamelCase(name, ".").toLowerCase(Locale.ENGLISH);
     }
   };
 
+  @Override public String translateName(Field f) {
+    return translateName(f.getName());
+  }
+
+  /**
+   * Translates a Java field name into its JSON form. This is the name-based equivalent of
+   * {@link #translateName(Field)}, for callers that don't have the {@link Field} at hand.
+   *
+   * @param name the Java name of the field
+   * @return the translated field name.
+   */
+  public abstract String translateName(String name);
+
   /**
    * Converts the field name that uses camel-case define word separation into
    * separate words that are separated by the provided {@code separatorString}.
@@ -16,43 +16,216 @@
 
 package com.zeoflow.zson;
 
+import com.zeoflow.zson.stream.JsonReader;
+
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * A class representing an array type in Json. An array is a list of {@link JsonElement}s each of
  * which can be of a different type. This is an ordered list, meaning that the order in which
  * elements are added is preserved.
  *
+ * <p>An array whose elements are all booleans, or all numbers as parsed from JSON text, holds
+ * them as primitives. Its elements are created when they are accessed, so they are equal to,
+ * but not the same objects as, the elements that were added.
+ *
+ * <p>A {@linkplain #freeze() frozen} array can not be changed. Instead, {@link #with} and {@link
+ * #without} return changed copies that share their unchanged elements with the original.
+ *
  * @author Inderjeet Singh
  * @author Joel Leitch
  */
 public final class JsonArray extends JsonElement implements Iterable<JsonElement> {
-  private final List<JsonElement> elements;
+  private final Elements elements;
+  /** True if neither this array nor its elements can be changed. See {@link #freeze()}. */
+  private final boolean frozen;
+  /**
+   * The document {@link #elements} are read from when first needed, or null once they have
+   * been read. See {@link JsonParser#parseLazily(byte[])}.
+   */
+  private volatile LazyJsonSource source;
+  /** The offset of this array's opening bracket in {@link #source}. */
+  private int start;
 
   /**
    * Creates an empty JsonArray.
    */
   public JsonArray() {
-    elements = new ArrayList<JsonElement>();
+    elements = new Elements(new ArrayList<JsonElement>());
+    frozen = false;
   }
   
   public JsonArray(int capacity) {
-    elements = new ArrayList<JsonElement>(capacity);
+    elements = new Elements(new ArrayList<JsonElement>(capacity));
+    frozen = false;
+  }
+
+  JsonArray(LazyJsonSource source, int start) {
+    this.elements = new Elements(new ArrayList<JsonElement>());
+    this.frozen = false;
+    this.start = start;
+    this.source = source;
+  }
+
+  /** Creates a frozen array of {@code elements}, which must all be frozen. */
+  private JsonArray(List<JsonElement> elements) {
+    this.elements = new Elements(elements);
+    this.frozen = true;
+  }
+
+  private Elements elements() {
+    if (source != null) {
+      readElements();
+    }
+    return elements;
+  }
+
+  private Elements mutableElements() {
+    if (frozen) {
+      throw new UnsupportedOperationException("JsonArray is frozen");
+    }
+    return elements();
+  }
+
+  private synchronized void readElements() {
+    LazyJsonSource source = this.source;
+    if (source == null) {
+      return; // another thread read them first
+    }
+    try {
+      JsonReader reader = source.open(start);
+      reader.beginArray();
+      while (reader.hasNext()) {
+        elements.add(source.read(reader));
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      elements.list = new ArrayList<JsonElement>();
+      throw new JsonSyntaxException(e);
+    } catch (NumberFormatException e) {
+      elements.list = new ArrayList<JsonElement>();
+      throw new JsonSyntaxException(e);
+    }
+    this.source = null;
+  }
+
+  /**
+   * The elements of an array, packed into primitive arrays while they are all booleans or all
+   * parsed numbers (see {@link PackedPrimitives}), and unpacked in place once one isn't. Because
+   * the array keeps this one list throughout, its iterators see every change made to it.
+   */
+  private static final class Elements extends AbstractList<JsonElement> implements RandomAccess {
+    /** Either a {@link PackedPrimitives} or an {@link ArrayList}. */
+    List<JsonElement> list;
+
+    Elements(List<JsonElement> list) {
+      this.list = list;
+    }
+
+    /** Returns the packed elements, or null if they aren't packed. */
+    PackedPrimitives packed() {
+      return list instanceof PackedPrimitives ? (PackedPrimitives) list : null;
+    }
+
+    /** Returns a list of the same elements, packed if these are. */
+    List<JsonElement> copy() {
+      return list instanceof PackedPrimitives
+          ? ((PackedPrimitives) list).copy()
+          : new ArrayList<JsonElement>(list);
+    }
+
+    @Override public JsonElement get(int index) {
+      return list.get(index);
+    }
+
+    @Override public int size() {
+      return list.size();
+    }
+
+    @Override public boolean add(JsonElement element) {
+      if (list instanceof PackedPrimitives) {
+        if (!((PackedPrimitives) list).offer(element)) {
+          list = new ArrayList<JsonElement>(list);
+          list.add(element);
+        }
+      } else if (list.isEmpty()) {
+        PackedPrimitives packed = PackedPrimitives.of(element);
+        if (packed != null) {
+          list = packed;
+        } else {
+          list.add(element);
+        }
+      } else {
+        list.add(element);
+      }
+      modCount++;
+      return true;
+    }
+
+    @Override public void add(int index, JsonElement element) {
+      if (index == list.size()) {
+        add(element);
+        return;
+      }
+      if (list instanceof PackedPrimitives) {
+        list = new ArrayList<JsonElement>(list);
+      }
+      list.add(index, element);
+      modCount++;
+    }
+
+    @Override public JsonElement set(int index, JsonElement element) {
+      if (list instanceof PackedPrimitives && !((PackedPrimitives) list).accepts(element)) {
+        list = new ArrayList<JsonElement>(list);
+      }
+      return list.set(index, element);
+    }
+
+    @Override public JsonElement remove(int index) {
+      JsonElement result = list.remove(index);
+      modCount++;
+      return result;
+    }
+
+    @Override public boolean remove(Object element) {
+      if (!list.remove(element)) {
+        return false;
+      }
+      modCount++;
+      return true;
+    }
+
+    @Override public boolean contains(Object element) {
+      return list.contains(element);
+    }
   }
 
   /**
-   * Creates a deep copy of this element and all its children
+   * Creates a deep copy of this element and all its children. A frozen array can not change,
+   * so it is returned as is.
    * @since 2.8.2
    */
   @Override
   public JsonArray deepCopy() {
-    if (!elements.isEmpty()) {
-      JsonArray result = new JsonArray(elements.size());
-      for (JsonElement element : elements) {
+    if (frozen) {
+      return this;
+    }
+    if (elements().packed() != null) {
+      JsonArray result = new JsonArray();
+      result.elements.list = elements.copy();
+      return result;
+    }
+    if (!elements().isEmpty()) {
+      JsonArray result = new JsonArray(elements().size());
+      for (JsonElement element : elements()) {
         result.add(element.deepCopy());
       }
       return result;
@@ -60,61 +233,133 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
     return new JsonArray();
   }
 
+  /**
+   * Returns a frozen copy of this array, freezing its elements. Elements that are already frozen
+   * are shared rather than copied, and a frozen array returns itself.
+   */
+  @Override
+  public JsonArray freeze() {
+    if (frozen) {
+      return this;
+    }
+    Elements elements = elements();
+    if (elements.packed() != null) {
+      return new JsonArray(elements.copy());
+    }
+    List<JsonElement> result = new ArrayList<JsonElement>(elements.size());
+    for (JsonElement element : elements) {
+      result.add(element.freeze());
+    }
+    return new JsonArray(result);
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Returns a frozen array with the elements of this one, except that the element at {@code
+   * index} is {@code element}. This array is unchanged, and its other elements are shared with
+   * the result rather than copied. If this array is not frozen it is {@linkplain #freeze()
+   * frozen} first.
+   *
+   * @param index index of the element to replace.
+   * @param element the new element, which is frozen if needed.
+   * @return the changed array.
+   * @throws IndexOutOfBoundsException if the specified index is outside the array bounds
+   */
+  public JsonArray with(int index, JsonElement element) {
+    JsonArray base = freeze();
+    element = element == null ? JsonNull.INSTANCE : element.freeze();
+    PackedPrimitives packed = base.elements.packed();
+    List<JsonElement> result = packed != null && !packed.accepts(element)
+        ? new ArrayList<JsonElement>(packed)
+        : base.elements.copy();
+    result.set(index, element);
+    return new JsonArray(result);
+  }
+
+  /**
+   * Returns a frozen array with the elements of this one, except the element at {@code index}.
+   * This array is unchanged, and its other elements are shared with the result rather than
+   * copied. If this array is not frozen it is {@linkplain #freeze() frozen} first.
+   *
+   * @param index index of the element to leave out.
+   * @return the changed array.
+   * @throws IndexOutOfBoundsException if the specified index is outside the array bounds
+   */
+  public JsonArray without(int index) {
+    List<JsonElement> result = freeze().elements.copy();
+    result.remove(index);
+    return new JsonArray(result);
+  }
+
   /**
    * Adds the specified boolean to self.
    *
    * @param bool the boolean that needs to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void add(Boolean bool) {
-    elements.add(bool == null ? JsonNull.INSTANCE : new JsonPrimitive(bool));
+    mutableElements().add(bool == null ? JsonNull.INSTANCE : new JsonPrimitive(bool));
   }
 
   /**
    * Adds the specified character to self.
    *
    * @param character the character that needs to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void add(Character character) {
-    elements.add(character == null ? JsonNull.INSTANCE : new JsonPrimitive(character));
+    mutableElements().add(character == null ? JsonNull.INSTANCE : new JsonPrimitive(character));
   }
 
   /**
    * Adds the specified number to self.
    *
    * @param number the number that needs to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void add(Number number) {
-    elements.add(number == null ? JsonNull.INSTANCE : new JsonPrimitive(number));
+    mutableElements().add(number == null ? JsonNull.INSTANCE : new JsonPrimitive(number));
   }
 
   /**
    * Adds the specified string to self.
    *
    * @param string the string that needs to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void add(String string) {
-    elements.add(string == null ? JsonNull.INSTANCE : new JsonPrimitive(string));
+    mutableElements().add(string == null ? JsonNull.INSTANCE : new JsonPrimitive(string));
   }
 
   /**
    * Adds the specified element to self.
    *
    * @param element the element that needs to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void add(JsonElement element) {
     if (element == null) {
       element = JsonNull.INSTANCE;
     }
-    elements.add(element);
+    mutableElements().add(element);
   }
 
   /**
    * Adds all the elements of the specified array to self.
    *
    * @param array the array whose elements need to be added to the array.
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public void addAll(JsonArray array) {
-    elements.addAll(array.elements);
+    List<JsonElement> added = array.elements();
+    Elements elements = mutableElements();
+    for (int i = 0, size = added.size(); i < size; i++) {
+      elements.add(added.get(i));
+    }
   }
 
   /**
@@ -124,9 +369,10 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @param element element to be stored at the specified position
    * @return the element previously at the specified position
    * @throws IndexOutOfBoundsException if the specified index is outside the array bounds
+   * @throws UnsupportedOperationException if this array is frozen.
    */
   public JsonElement set(int index, JsonElement element) {
-    return elements.set(index, element);
+    return mutableElements().set(index, element);
   }
 
   /**
@@ -134,10 +380,11 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * If the array does not contain the element, it is unchanged.
    * @param element element to be removed from this array, if present
    * @return true if this array contained the specified element, false otherwise
+   * @throws UnsupportedOperationException if this array is frozen.
    * @since 2.3
    */
   public boolean remove(JsonElement element) {
-    return elements.remove(element);
+    return mutableElements().remove(element);
   }
 
   /**
@@ -147,10 +394,11 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @param index index the index of the element to be removed
    * @return the element previously at the specified position
    * @throws IndexOutOfBoundsException if the specified index is outside the array bounds
+   * @throws UnsupportedOperationException if this array is frozen.
    * @since 2.3
    */
   public JsonElement remove(int index) {
-    return elements.remove(index);
+    return mutableElements().remove(index);
   }
 
   /**
@@ -160,7 +408,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @since 2.3
    */
   public boolean contains(JsonElement element) {
-    return elements.contains(element);
+    return elements().contains(element);
   }
 
   /**
@@ -169,17 +417,71 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * @return the number of elements in the array.
    */
   public int size() {
-    return elements.size();
+    return elements().size();
   }
 
   /**
    * Returns an iterator to navigate the elements of the array. Since the array is an ordered list,
-   * the iterator navigates the elements in the order they were inserted.
+   * the iterator navigates the elements in the order they were inserted. It can not remove
+   * elements if this array is frozen.
    *
    * @return an iterator to navigate the elements of the array.
    */
   public Iterator<JsonElement> iterator() {
-    return elements.iterator();
+    if (frozen) {
+      return Collections.unmodifiableList(elements).iterator();
+    }
+    return elements().iterator();
+  }
+
+  /**
+   * Returns the elements of this array as doubles, converted like {@link
+   * JsonElement#getAsDouble()}. This is much cheaper than converting each element for arrays
+   * that were parsed from numbers only, which are held as primitives.
+   *
+   * @return the elements of this array as doubles.
+   * @throws ClassCastException if an element is not a valid double value.
+   * @throws IllegalStateException if an element is an array of more or less than one element.
+   */
+  public double[] toDoubleArray() {
+    Elements elements = elements();
+    double[] result = new double[elements.size()];
+    PackedPrimitives packed = elements.packed();
+    if (packed != null) {
+      for (int i = 0; i < result.length; i++) {
+        result[i] = packed.getAsDouble(i);
+      }
+    } else {
+      for (int i = 0; i < result.length; i++) {
+        result[i] = elements.get(i).getAsDouble();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the elements of this array as longs, converted like {@link
+   * JsonElement#getAsLong()}. This is much cheaper than converting each element for arrays
+   * that were parsed from numbers only, which are held as primitives.
+   *
+   * @return the elements of this array as longs.
+   * @throws ClassCastException if an element is not a valid long value.
+   * @throws IllegalStateException if an element is an array of more or less than one element.
+   */
+  public long[] toLongArray() {
+    Elements elements = elements();
+    long[] result = new long[elements.size()];
+    PackedPrimitives packed = elements.packed();
+    if (packed != null) {
+      for (int i = 0; i < result.length; i++) {
+        result[i] = packed.getAsLong(i);
+      }
+    } else {
+      for (int i = 0; i < result.length; i++) {
+        result[i] = elements.get(i).getAsLong();
+      }
+    }
+    return result;
   }
 
   /**
@@ -191,7 +493,7 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    * {@link #size()} of the array.
    */
   public JsonElement get(int i) {
-    return elements.get(i);
+    return elements().get(i);
   }
 
   /**
@@ -204,8 +506,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public Number getAsNumber() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsNumber();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsNumber();
     }
     throw new IllegalStateException();
   }
@@ -220,8 +522,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public String getAsString() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsString();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsString();
     }
     throw new IllegalStateException();
   }
@@ -236,8 +538,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public double getAsDouble() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsDouble();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsDouble();
     }
     throw new IllegalStateException();
   }
@@ -253,8 +555,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public BigDecimal getAsBigDecimal() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsBigDecimal();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsBigDecimal();
     }
     throw new IllegalStateException();
   }
@@ -270,8 +572,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public BigInteger getAsBigInteger() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsBigInteger();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsBigInteger();
     }
     throw new IllegalStateException();
   }
@@ -286,8 +588,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public float getAsFloat() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsFloat();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsFloat();
     }
     throw new IllegalStateException();
   }
@@ -302,8 +604,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public long getAsLong() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsLong();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsLong();
     }
     throw new IllegalStateException();
   }
@@ -318,24 +620,24 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public int getAsInt() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsInt();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsInt();
     }
     throw new IllegalStateException();
   }
 
   @Override
   public byte getAsByte() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsByte();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsByte();
     }
     throw new IllegalStateException();
   }
 
   @Override
   public char getAsCharacter() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsCharacter();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsCharacter();
     }
     throw new IllegalStateException();
   }
@@ -350,8 +652,8 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public short getAsShort() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsShort();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsShort();
     }
     throw new IllegalStateException();
   }
@@ -366,19 +668,19 @@ public final class JsonArray extends JsonElement implements Iterable<JsonElement
    */
   @Override
   public boolean getAsBoolean() {
-    if (elements.size() == 1) {
-      return elements.get(0).getAsBoolean();
+    if (elements().size() == 1) {
+      return elements().get(0).getAsBoolean();
     }
     throw new IllegalStateException();
   }
 
   @Override
   public boolean equals(Object o) {
-    return (o == this) || (o instanceof JsonArray && ((JsonArray) o).elements.equals(elements));
+    return (o == this) || (o instanceof JsonArray && ((JsonArray) o).elements().equals(elements()));
   }
 
   @Override
   public int hashCode() {
-    return elements.hashCode();
+    return elements().hashCode();
   }
 }
@@ -39,6 +39,28 @@ public abstract class JsonElement {
    */
   public abstract JsonElement deepCopy();
 
+  /**
+   * Returns a frozen copy of this element: one that, like all its children, can not be changed.
+   * Frozen elements are copied by {@link #deepCopy()} in constant time, as they are returned as
+   * is, and may be shared between threads without copying. Primitives and nulls can not be
+   * changed, so they are returned as is.
+   *
+   * @return a frozen element equal to this one.
+   * @see JsonObject#with(String, JsonElement)
+   * @see JsonArray#with(int, JsonElement)
+   */
+  public JsonElement freeze() {
+    return this;
+  }
+
+  /**
+   * Returns true if neither this element nor its children can be changed. This is the case for
+   * primitives, nulls and {@linkplain #freeze() frozen} objects and arrays.
+   */
+  public boolean isFrozen() {
+    return true;
+  }
+
   /**
    * provides check for verifying if this element is an array or not.
    *
@@ -16,8 +16,11 @@
 
 package com.zeoflow.zson;
 
-import com.zeoflow.zson.internal.LinkedTreeMap;
+import com.zeoflow.zson.internal.LinkedArrayMap;
+import com.zeoflow.zson.stream.JsonReader;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -26,26 +29,160 @@ import java.util.Set;
  * are strings, and values are any other type of {@link JsonElement}. This allows for a creating a
  * tree of JsonElements. The member elements of this object are maintained in order they were added.
  *
+ * <p>A {@linkplain #freeze() frozen} object can not be changed. Instead, {@link #with} and {@link
+ * #without} return changed copies that share their unchanged members with the original.
+ *
  * @author Inderjeet Singh
  * @author Joel Leitch
  */
 public final class JsonObject extends JsonElement {
-  private final LinkedTreeMap<String, JsonElement> members =
-      new LinkedTreeMap<String, JsonElement>();
+  private final LinkedArrayMap<String, JsonElement> members;
+  /** True if neither this object nor its members can be changed. See {@link #freeze()}. */
+  private final boolean frozen;
+  /**
+   * The document {@link #members} are read from when first needed, or null once they have
+   * been read. See {@link JsonParser#parseLazily(byte[])}.
+   */
+  private volatile LazyJsonSource source;
+  /** The offset of this object's opening brace in {@link #source}. */
+  private int start;
+
+  /**
+   * Creates an empty object.
+   */
+  public JsonObject() {
+    members = new LinkedArrayMap<String, JsonElement>();
+    frozen = false;
+  }
+
+  JsonObject(LazyJsonSource source, int start) {
+    this.members = new LinkedArrayMap<String, JsonElement>();
+    this.frozen = false;
+    this.start = start;
+    this.source = source;
+  }
+
+  /** Creates a frozen object of {@code members}, which must all be frozen. */
+  private JsonObject(LinkedArrayMap<String, JsonElement> members) {
+    this.members = members;
+    this.frozen = true;
+  }
+
+  private LinkedArrayMap<String, JsonElement> members() {
+    if (source != null) {
+      readMembers();
+    }
+    return members;
+  }
+
+  private LinkedArrayMap<String, JsonElement> mutableMembers() {
+    if (frozen) {
+      throw new UnsupportedOperationException("JsonObject is frozen");
+    }
+    return members();
+  }
+
+  private synchronized void readMembers() {
+    LazyJsonSource source = this.source;
+    if (source == null) {
+      return; // another thread read them first
+    }
+    try {
+      JsonReader reader = source.open(start);
+      reader.beginObject();
+      while (reader.hasNext()) {
+        members.put(reader.nextName(), source.read(reader));
+      }
+      reader.endObject();
+    } catch (IOException e) {
+      members.clear();
+      throw new JsonSyntaxException(e);
+    } catch (NumberFormatException e) {
+      members.clear();
+      throw new JsonSyntaxException(e);
+    }
+    this.source = null;
+  }
 
   /**
-   * Creates a deep copy of this element and all its children
+   * Creates a deep copy of this element and all its children. A frozen object can not change,
+   * so it is returned as is.
    * @since 2.8.2
    */
   @Override
   public JsonObject deepCopy() {
+    if (frozen) {
+      return this;
+    }
     JsonObject result = new JsonObject();
-    for (Map.Entry<String, JsonElement> entry : members.entrySet()) {
+    for (Map.Entry<String, JsonElement> entry : members().entrySet()) {
       result.add(entry.getKey(), entry.getValue().deepCopy());
     }
     return result;
   }
 
+  /**
+   * Returns a frozen copy of this object, freezing its members. Members that are already frozen
+   * are shared rather than copied, and a frozen object returns itself.
+   */
+  @Override
+  public JsonObject freeze() {
+    if (frozen) {
+      return this;
+    }
+    LinkedArrayMap<String, JsonElement> result = new LinkedArrayMap<String, JsonElement>();
+    for (Map.Entry<String, JsonElement> entry : members().entrySet()) {
+      result.put(entry.getKey(), entry.getValue().freeze());
+    }
+    return new JsonObject(result);
+  }
+
+  @Override
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Returns a frozen object with the members of this one, except that {@code property} is
+   * {@code value}. An existing member keeps its position; a new one is added last. This object
+   * is unchanged, and its other members are shared with the result rather than copied. If this
+   * object is not frozen it is {@linkplain #freeze() frozen} first.
+   *
+   * @param property name of the member.
+   * @param value the member's new value, which is frozen if needed.
+   * @return the changed object.
+   */
+  public JsonObject with(String property, JsonElement value) {
+    JsonObject base = freeze();
+    value = value == null ? JsonNull.INSTANCE : value.freeze();
+    if (base.members.get(property) == value) {
+      return base;
+    }
+    LinkedArrayMap<String, JsonElement> result = new LinkedArrayMap<String, JsonElement>();
+    result.putAll(base.members);
+    result.put(property, value);
+    return new JsonObject(result);
+  }
+
+  /**
+   * Returns a frozen object with the members of this one, except {@code property}. This object
+   * is unchanged, and its other members are shared with the result rather than copied. If this
+   * object is not frozen it is {@linkplain #freeze() frozen} first.
+   *
+   * @param property name of the member to leave out.
+   * @return the changed object.
+   */
+  public JsonObject without(String property) {
+    JsonObject base = freeze();
+    if (!base.members.containsKey(property)) {
+      return base;
+    }
+    LinkedArrayMap<String, JsonElement> result = new LinkedArrayMap<String, JsonElement>();
+    result.putAll(base.members);
+    result.remove(property);
+    return new JsonObject(result);
+  }
+
   /**
    * Adds a member, which is a name-value pair, to self. The name must be a String, but the value
    * can be an arbitrary JsonElement, thereby allowing you to build a full tree of JsonElements
@@ -53,9 +190,10 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member.
    * @param value the member object.
+   * @throws UnsupportedOperationException if this object is frozen.
    */
   public void add(String property, JsonElement value) {
-    members.put(property, value == null ? JsonNull.INSTANCE : value);
+    mutableMembers().put(property, value == null ? JsonNull.INSTANCE : value);
   }
 
   /**
@@ -63,10 +201,11 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member that should be removed.
    * @return the {@link JsonElement} object that is being removed.
+   * @throws UnsupportedOperationException if this object is frozen.
    * @since 1.3
    */
   public JsonElement remove(String property) {
-    return members.remove(property);
+    return mutableMembers().remove(property);
   }
 
   /**
@@ -75,6 +214,7 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member.
    * @param value the string value associated with the member.
+   * @throws UnsupportedOperationException if this object is frozen.
    */
   public void addProperty(String property, String value) {
     add(property, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
@@ -86,6 +226,7 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member.
    * @param value the number value associated with the member.
+   * @throws UnsupportedOperationException if this object is frozen.
    */
   public void addProperty(String property, Number value) {
     add(property, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
@@ -97,6 +238,7 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member.
    * @param value the number value associated with the member.
+   * @throws UnsupportedOperationException if this object is frozen.
    */
   public void addProperty(String property, Boolean value) {
     add(property, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
@@ -108,6 +250,7 @@ public final class JsonObject extends JsonElement {
    *
    * @param property name of the member.
    * @param value the number value associated with the member.
+   * @throws UnsupportedOperationException if this object is frozen.
    */
   public void addProperty(String property, Character value) {
     add(property, value == null ? JsonNull.INSTANCE : new JsonPrimitive(value));
@@ -115,22 +258,28 @@ public final class JsonObject extends JsonElement {
 
   /**
    * Returns a set of members of this object. The set is ordered, and the order is in which the
-   * elements were added.
+   * elements were added. The set can not be changed if this object is frozen.
    *
    * @return a set of members of this object.
    */
   public Set<Map.Entry<String, JsonElement>> entrySet() {
-    return members.entrySet();
+    if (frozen) {
+      return Collections.unmodifiableMap(members).entrySet();
+    }
+    return members().entrySet();
   }
 
   /**
-   * Returns a set of members key values.
+   * Returns a set of members key values. The set can not be changed if this object is frozen.
    *
    * @return a set of member keys as Strings
    * @since 2.8.1
    */
   public Set<String> keySet() {
-    return members.keySet();
+    if (frozen) {
+      return Collections.unmodifiableSet(members.keySet());
+    }
+    return members().keySet();
   }
 
   /**
@@ -139,7 +288,7 @@ public final class JsonObject extends JsonElement {
    * @return the number of key/value pairs in the object.
    */
   public int size() {
-    return members.size();
+    return members().size();
   }
 
   /**
@@ -149,7 +298,7 @@ public final class JsonObject extends JsonElement {
    * @return true if there is a member with the specified name, false otherwise.
    */
   public boolean has(String memberName) {
-    return members.containsKey(memberName);
+    return members().containsKey(memberName);
   }
 
   /**
@@ -159,7 +308,7 @@ public final class JsonObject extends JsonElement {
    * @return the member matching the name. Null if no such member exists.
    */
   public JsonElement get(String memberName) {
-    return members.get(memberName);
+    return members().get(memberName);
   }
 
   /**
@@ -169,7 +318,7 @@ public final class JsonObject extends JsonElement {
    * @return the JsonPrimitive corresponding to the specified member.
    */
   public JsonPrimitive getAsJsonPrimitive(String memberName) {
-    return (JsonPrimitive) members.get(memberName);
+    return (JsonPrimitive) members().get(memberName);
   }
 
   /**
@@ -179,7 +328,7 @@ public final class JsonObject extends JsonElement {
    * @return the JsonArray corresponding to the specified member.
    */
   public JsonArray getAsJsonArray(String memberName) {
-    return (JsonArray) members.get(memberName);
+    return (JsonArray) members().get(memberName);
   }
 
   /**
@@ -189,17 +338,17 @@ public final class JsonObject extends JsonElement {
    * @return the JsonObject corresponding to the specified member.
    */
   public JsonObject getAsJsonObject(String memberName) {
-    return (JsonObject) members.get(memberName);
+    return (JsonObject) members().get(memberName);
   }
 
   @Override
   public boolean equals(Object o) {
     return (o == this) || (o instanceof JsonObject
-        && ((JsonObject) o).members.equals(members));
+        && ((JsonObject) o).members().equals(members()));
   }
 
   @Override
   public int hashCode() {
-    return members.hashCode();
+    return members().hashCode();
   }
 }
@@ -18,6 +18,7 @@ package com.zeoflow.zson;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.Charset;
 
 import com.zeoflow.zson.internal.Streams;
 import com.zeoflow.zson.stream.JsonReader;
@@ -32,6 +33,8 @@ import com.zeoflow.zson.stream.MalformedJsonException;
  * @since 1.3
  */
 public final class JsonParser {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
   /** @deprecated No need to instantiate this class, use the static methods instead. */
   @Deprecated
   public JsonParser() {}
@@ -47,6 +50,39 @@ public final class JsonParser {
     return parseReader(new StringReader(json));
   }
 
+  /**
+   * Parses the specified JSON string into a parse tree whose objects and arrays read their
+   * members on first access. See {@link #parseLazily(byte[])}.
+   *
+   * @param json JSON text
+   * @return a lazily read parse tree of {@link JsonElement}s corresponding to the specified JSON
+   * @throws JsonParseException if the specified text is not valid JSON
+   */
+  public static JsonElement parseLazily(String json) throws JsonSyntaxException {
+    return parseLazily(json.getBytes(UTF_8));
+  }
+
+  /**
+   * Parses the specified UTF-8 encoded JSON into a parse tree whose objects and arrays read
+   * their members on first access. The document is checked to be well-formed up front, but
+   * rather than building a node for every value, each object and array only records where it
+   * starts in {@code json}. Its members are read when it is first queried, and any objects and
+   * arrays among them are lazy in turn, so only the parts of the document that are used are
+   * built. This is much cheaper than {@link #parseString} when only a fraction of a document
+   * is used, and costs an extra pass over each object and array that is.
+   *
+   * <p>The tree retains {@code json} until all its objects and arrays have been read, so the
+   * array must not be modified. Reading members is synchronized, so a lazily read tree may be
+   * shared between threads like any other tree that isn't modified.
+   *
+   * @param json UTF-8 encoded JSON text
+   * @return a lazily read parse tree of {@link JsonElement}s corresponding to the specified JSON
+   * @throws JsonParseException if the specified text is not valid JSON
+   */
+  public static JsonElement parseLazily(byte[] json) throws JsonSyntaxException {
+    return LazyJsonSource.parse(json);
+  }
+
   /**
    * Parses the specified JSON string into a parse tree
    *
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson;
+
+import com.zeoflow.zson.internal.JsonReaderInternalAccess;
+import com.zeoflow.zson.internal.bind.TypeAdapters;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.Utf8JsonReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The UTF-8 encoded document of a lazily parsed tree. Objects and arrays in the tree only
+ * record the offset of their opening bracket and read their members from here when first
+ * accessed; their nested objects and arrays are lazy in turn.
+ */
+final class LazyJsonSource {
+  private final byte[] json;
+
+  private LazyJsonSource(byte[] json) {
+    this.json = json;
+  }
+
+  /**
+   * Returns the lazy tree of {@code json}. The document is checked to be well-formed up
+   * front, so reading members later doesn't fail.
+   */
+  static JsonElement parse(byte[] json) throws JsonSyntaxException {
+    LazyJsonSource source = new LazyJsonSource(json);
+    JsonReader reader = source.open(0);
+    try {
+      try {
+        reader.peek();
+      } catch (EOFException e) {
+        return JsonNull.INSTANCE; // an empty document is null, as for JsonParser.parseString
+      }
+      JsonElement element = source.read(reader);
+      if (!element.isJsonNull() && reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+      return element;
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e); // the document is in memory, so it's malformed
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  /** Returns a reader positioned at the value that starts at {@code offset}. */
+  JsonReader open(int offset) {
+    JsonReader reader = new Utf8JsonReader(json, offset, json.length - offset);
+    reader.setLenient(true);
+    return reader;
+  }
+
+  /**
+   * Reads the value at the reader's position. Objects and arrays are skipped and returned
+   * unread.
+   */
+  JsonElement read(JsonReader reader) throws IOException {
+    JsonToken token = reader.peek();
+    if (token != JsonToken.BEGIN_OBJECT && token != JsonToken.BEGIN_ARRAY) {
+      return TypeAdapters.JSON_ELEMENT.read(reader);
+    }
+    int start = JsonReaderInternalAccess.INSTANCE.position(reader) - 1;
+    reader.skipValue();
+    return token == JsonToken.BEGIN_OBJECT
+        ? new JsonObject(this, start)
+        : new JsonArray(this, start);
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson;
+
+import com.zeoflow.zson.internal.LazilyParsedNumber;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The elements of a {@link JsonArray} that holds only booleans, or only numbers as the parser
+ * produces them, packed into primitive arrays. Elements are handed out as new {@link
+ * JsonPrimitive} views equal to the ones that were added, so a packed array of numbers costs
+ * about 9 bytes per element rather than a primitive, a number and a string each.
+ *
+ * <p>A number is packed as its digits without the decimal point, and the number of digits
+ * after it, so that its view has exactly the text it was parsed from. Numbers with exponents,
+ * negative zeros or more than {@link #MAX_DIGITS} digits aren't packed.
+ */
+final class PackedPrimitives extends AbstractList<JsonElement> implements RandomAccess {
+  private static final JsonPrimitive TRUE = new JsonPrimitive(true);
+  private static final JsonPrimitive FALSE = new JsonPrimitive(false);
+
+  /** The most digits a packed number has, so that they always fit a long. */
+  private static final int MAX_DIGITS = 18;
+
+  /** The powers of ten that doubles represent exactly. */
+  private static final double[] DOUBLE_POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final boolean booleans;
+  private int size;
+  /** For numbers, the digits of each; for booleans, one bit each. */
+  private long[] values;
+  /** The digits after each number's decimal point, or null while all numbers are integers. */
+  private byte[] scales;
+
+  private PackedPrimitives(boolean booleans) {
+    this.booleans = booleans;
+    this.values = new long[booleans ? 1 : 8];
+  }
+
+  private PackedPrimitives(PackedPrimitives copied) {
+    this.booleans = copied.booleans;
+    this.size = copied.size;
+    this.values = copied.values.clone();
+    this.scales = copied.scales != null ? copied.scales.clone() : null;
+  }
+
+  /** Returns a list holding only {@code element}, or null if it can't be packed. */
+  static PackedPrimitives of(JsonElement element) {
+    if (!(element instanceof JsonPrimitive)) {
+      return null;
+    }
+    PackedPrimitives result = new PackedPrimitives(((JsonPrimitive) element).isBoolean());
+    return result.offer(element) ? result : null;
+  }
+
+  PackedPrimitives copy() {
+    return new PackedPrimitives(this);
+  }
+
+  /** Returns true if {@code element} can be packed with this list's elements. */
+  boolean accepts(JsonElement element) {
+    if (!(element instanceof JsonPrimitive)) {
+      return false;
+    }
+    JsonPrimitive primitive = (JsonPrimitive) element;
+    if (booleans) {
+      return primitive.isBoolean();
+    }
+    return primitive.isNumber() && primitive.getAsNumber() instanceof LazilyParsedNumber
+        && scaleOf(primitive.getAsString()) != -1;
+  }
+
+  /** Appends {@code element} and returns true, or returns false if it can't be packed. */
+  boolean offer(JsonElement element) {
+    if (!accepts(element)) {
+      return false;
+    }
+    JsonPrimitive primitive = (JsonPrimitive) element;
+    if (booleans) {
+      if ((size >> 6) == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      setBit(size, primitive.getAsBoolean());
+    } else {
+      String text = primitive.getAsString();
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+        if (scales != null) {
+          scales = Arrays.copyOf(scales, size * 2);
+        }
+      }
+      setNumber(size, text);
+    }
+    size++;
+    modCount++;
+    return true;
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  @Override public JsonElement get(int index) {
+    checkIndex(index);
+    if (booleans) {
+      return bit(index) ? TRUE : FALSE;
+    }
+    return new JsonPrimitive(new LazilyParsedNumber(text(index)));
+  }
+
+  /** Replaces the element at {@code index}, which must be {@link #accepts accepted}. */
+  @Override public JsonElement set(int index, JsonElement element) {
+    JsonElement result = get(index);
+    if (!accepts(element)) {
+      throw new IllegalArgumentException("Can't pack " + element);
+    }
+    if (booleans) {
+      setBit(index, element.getAsBoolean());
+    } else {
+      setNumber(index, element.getAsString());
+    }
+    return result;
+  }
+
+  @Override public JsonElement remove(int index) {
+    JsonElement result = get(index);
+    if (booleans) {
+      for (int i = index; i < size - 1; i++) {
+        setBit(i, bit(i + 1));
+      }
+      setBit(size - 1, false);
+    } else {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      if (scales != null) {
+        System.arraycopy(scales, index + 1, scales, index, size - index - 1);
+      }
+    }
+    size--;
+    modCount++;
+    return result;
+  }
+
+  /** Returns the element at {@code index} as a double, like {@link JsonElement#getAsDouble}. */
+  double getAsDouble(int index) {
+    checkIndex(index);
+    if (booleans) {
+      return get(index).getAsDouble();
+    }
+    long digits = values[index];
+    int scale = scale(index);
+    if (scale == 0) {
+      return digits;
+    }
+    if (scale < DOUBLE_POWERS_OF_TEN.length && Math.abs(digits) <= 1L << 53) {
+      // both operands are exact, so the quotient is correctly rounded
+      return digits / DOUBLE_POWERS_OF_TEN[scale];
+    }
+    return Double.parseDouble(text(index));
+  }
+
+  /** Returns the element at {@code index} as a long, like {@link JsonElement#getAsLong}. */
+  long getAsLong(int index) {
+    checkIndex(index);
+    if (booleans) {
+      return get(index).getAsLong();
+    }
+    long result = values[index];
+    for (int i = scale(index); i > 0; i--) {
+      result /= 10; // truncates toward zero, like BigDecimal.longValue()
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of digits after the decimal point of {@code text}, or -1 if it can't be
+   * packed.
+   */
+  private static int scaleOf(String text) {
+    int length = text.length();
+    int i = text.startsWith("-") ? 1 : 0;
+    if (i == length || (text.charAt(i) == '0' && i + 1 < length && text.charAt(i + 1) != '.')) {
+      return -1; // empty or with leading zeros
+    }
+    int digits = 0;
+    int scale = -1;
+    boolean zero = true;
+    for (int start = i; i < length; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (++digits > MAX_DIGITS) {
+          return -1;
+        }
+        zero &= c == '0';
+        if (scale != -1) {
+          scale++;
+        }
+      } else if (c != '.' || scale != -1 || i == start || i == length - 1) {
+        return -1;
+      } else {
+        scale = 0;
+      }
+    }
+    if (zero && text.startsWith("-")) {
+      return -1; // the digits can't carry the sign of a negative zero
+    }
+    return scale == -1 ? 0 : scale;
+  }
+
+  private void setNumber(int index, String text) {
+    int scale = scaleOf(text);
+    long digits = 0;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits = digits * 10 + (c - '0');
+      }
+    }
+    values[index] = text.startsWith("-") ? -digits : digits;
+    if (scale != 0 && scales == null) {
+      scales = new byte[values.length];
+    }
+    if (scales != null) {
+      scales[index] = (byte) scale;
+    }
+  }
+
+  private int scale(int index) {
+    return scales != null ? scales[index] : 0;
+  }
+
+  /** Returns the text the number at {@code index} was parsed from. */
+  private String text(int index) {
+    long digits = values[index];
+    int scale = scale(index);
+    if (scale == 0) {
+      return Long.toString(digits);
+    }
+    String unscaled = Long.toString(Math.abs(digits));
+    StringBuilder result = new StringBuilder(unscaled.length() + 3);
+    if (digits < 0) {
+      result.append('-');
+    }
+    for (int i = unscaled.length(); i <= scale; i++) {
+      result.append('0');
+    }
+    result.append(unscaled);
+    result.insert(result.length() - scale, '.');
+    return result.toString();
+  }
+
+  private boolean bit(int index) {
+    return (values[index >> 6] & (1L << index)) != 0;
+  }
+
+  private void setBit(int index, boolean value) {
+    if (value) {
+      values[index >> 6] |= 1L << index;
+    } else {
+      values[index >> 6] &= ~(1L << index);
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
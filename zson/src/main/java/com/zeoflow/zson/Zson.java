@@ -22,14 +22,17 @@ import com.zeoflow.zson.internal.ConstructorConstructor;
 import com.zeoflow.zson.internal.Excluder;
 import com.zeoflow.zson.internal.Primitives;
 import com.zeoflow.zson.internal.Streams;
+import com.zeoflow.zson.internal.ZsonInternalAccess;
 import com.zeoflow.zson.internal.bind.ArrayTypeAdapter;
 import com.zeoflow.zson.internal.bind.CollectionTypeAdapterFactory;
 import com.zeoflow.zson.internal.bind.DateTypeAdapter;
+import com.zeoflow.zson.internal.bind.JavaTimeTypeAdapters;
 import com.zeoflow.zson.internal.bind.JsonAdapterAnnotationTypeAdapterFactory;
 import com.zeoflow.zson.internal.bind.JsonTreeReader;
 import com.zeoflow.zson.internal.bind.JsonTreeWriter;
 import com.zeoflow.zson.internal.bind.MapTypeAdapterFactory;
 import com.zeoflow.zson.internal.bind.ObjectTypeAdapter;
+import com.zeoflow.zson.internal.bind.PrimitiveArrayTypeAdapters;
 import com.zeoflow.zson.internal.bind.ReflectiveTypeAdapterFactory;
 import com.zeoflow.zson.internal.bind.SqlDateTypeAdapter;
 import com.zeoflow.zson.internal.bind.TimeTypeAdapter;
@@ -39,9 +42,13 @@ import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.stream.JsonToken;
 import com.zeoflow.zson.stream.JsonWriter;
 import com.zeoflow.zson.stream.MalformedJsonException;
+import com.zeoflow.zson.stream.Utf8JsonReader;
+import com.zeoflow.zson.stream.Utf8JsonWriter;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -113,9 +120,11 @@ public class Zson
     static final boolean DEFAULT_DESERIALIZE_NULLS = true;
     static final boolean DEFAULT_COMPLEX_MAP_KEYS = false;
     static final boolean DEFAULT_SPECIALIZE_FLOAT_VALUES = false;
+    static final boolean DEFAULT_BYTE_ARRAYS_AS_BASE64 = false;
 
     private static final TypeToken<?> NULL_KEY_SURROGATE = TypeToken.get(Object.class);
     private static final String JSON_NON_EXECUTABLE_PREFIX = ")]}'\n";
+    private static final byte[] JSON_NON_EXECUTABLE_PREFIX_BYTES = {')', ']', '}', '\'', '\n'};
     final List<TypeAdapterFactory> factories;
     final Excluder excluder;
     final FieldNamingStrategy fieldNamingStrategy;
@@ -128,6 +137,7 @@ public class Zson
     final boolean prettyPrinting;
     final boolean lenient;
     final boolean serializeSpecialFloatingPointValues;
+    final boolean byteArraysAsBase64;
     final String datePattern;
     final int dateStyle;
     final int timeStyle;
@@ -187,7 +197,7 @@ public class Zson
                 Collections.<Type, InstanceCreator<?>>emptyMap(), DEFAULT_SERIALIZE_NULLS, DEFAULT_DESERIALIZE_NULLS,
                 DEFAULT_COMPLEX_MAP_KEYS, DEFAULT_JSON_NON_EXECUTABLE, DEFAULT_ESCAPE_HTML,
                 DEFAULT_PRETTY_PRINT, DEFAULT_LENIENT, DEFAULT_SPECIALIZE_FLOAT_VALUES,
-                LongSerializationPolicy.DEFAULT, null, DateFormat.DEFAULT, DateFormat.DEFAULT,
+                DEFAULT_BYTE_ARRAYS_AS_BASE64, LongSerializationPolicy.DEFAULT, null, DateFormat.DEFAULT, DateFormat.DEFAULT,
                 Collections.<TypeAdapterFactory>emptyList(), Collections.<TypeAdapterFactory>emptyList(),
                 Collections.<TypeAdapterFactory>emptyList());
     }
@@ -196,7 +206,7 @@ public class Zson
          Map<Type, InstanceCreator<?>> instanceCreators, boolean serializeNulls, boolean deserializeNulls,
          boolean complexMapKeySerialization, boolean generateNonExecutableZson, boolean htmlSafe,
          boolean prettyPrinting, boolean lenient, boolean serializeSpecialFloatingPointValues,
-         LongSerializationPolicy longSerializationPolicy, String datePattern, int dateStyle,
+         boolean byteArraysAsBase64, LongSerializationPolicy longSerializationPolicy, String datePattern, int dateStyle,
          int timeStyle, List<TypeAdapterFactory> builderFactories,
          List<TypeAdapterFactory> builderHierarchyFactories,
          List<TypeAdapterFactory> factoriesToBeAdded)
@@ -213,6 +223,7 @@ public class Zson
         this.prettyPrinting = prettyPrinting;
         this.lenient = lenient;
         this.serializeSpecialFloatingPointValues = serializeSpecialFloatingPointValues;
+        this.byteArraysAsBase64 = byteArraysAsBase64;
         this.longSerializationPolicy = longSerializationPolicy;
         this.datePattern = datePattern;
         this.dateStyle = dateStyle;
@@ -241,9 +252,9 @@ public class Zson
         TypeAdapter<Number> longAdapter = longAdapter(longSerializationPolicy);
         factories.add(TypeAdapters.newFactory(long.class, Long.class, longAdapter));
         factories.add(TypeAdapters.newFactory(double.class, Double.class,
-                doubleAdapter(serializeSpecialFloatingPointValues)));
+                serializeSpecialFloatingPointValues ? TypeAdapters.DOUBLE : TypeAdapters.STRICT_DOUBLE));
         factories.add(TypeAdapters.newFactory(float.class, Float.class,
-                floatAdapter(serializeSpecialFloatingPointValues)));
+                serializeSpecialFloatingPointValues ? TypeAdapters.FLOAT : TypeAdapters.STRICT_FLOAT));
         factories.add(TypeAdapters.NUMBER_FACTORY);
         factories.add(TypeAdapters.ATOMIC_INTEGER_FACTORY);
         factories.add(TypeAdapters.ATOMIC_BOOLEAN_FACTORY);
@@ -267,6 +278,14 @@ public class Zson
         factories.add(TimeTypeAdapter.FACTORY);
         factories.add(SqlDateTypeAdapter.FACTORY);
         factories.add(TypeAdapters.TIMESTAMP_FACTORY);
+        if (JavaTimeTypeAdapters.SUPPORTED)
+        {
+            factories.add(JavaTimeTypeAdapters.FACTORY);
+        }
+        if (byteArraysAsBase64)
+        {
+            factories.add(TypeAdapters.newFactory(byte[].class, PrimitiveArrayTypeAdapters.BASE64_BYTE_ARRAY));
+        }
         factories.add(ArrayTypeAdapter.FACTORY);
         factories.add(TypeAdapters.CLASS_FACTORY);
 
@@ -286,15 +305,6 @@ public class Zson
 
         this.factories = Collections.unmodifiableList(factories);
     }
-    static void checkValidFloatingPoint(double value)
-    {
-        if (Double.isNaN(value) || Double.isInfinite(value))
-        {
-            throw new IllegalArgumentException(value
-                    + " is not a valid double value as per JSON specification. To override this"
-                    + " behavior, use ZsonBuilder.serializeSpecialFloatingPointValues() method.");
-        }
-    }
     private static TypeAdapter<Number> longAdapter(LongSerializationPolicy longSerializationPolicy)
     {
         if (longSerializationPolicy == LongSerializationPolicy.DEFAULT)
@@ -396,6 +406,15 @@ public class Zson
             throw new JsonIOException(e);
         }
     }
+    /**
+     * Returns a Zson with the default configuration. It is created on first use and shared by
+     * helpers such as {@link ZsonCast} and {@link ZsonAttributes}, so their type adapters are
+     * created once rather than on every call.
+     */
+    static Zson getDefault()
+    {
+        return DefaultHolder.INSTANCE;
+    }
     /**
      * Returns a new ZsonBuilder containing all custom factories and configuration used by the current
      * instance.
@@ -422,72 +441,6 @@ public class Zson
     {
         return htmlSafe;
     }
-    private TypeAdapter<Number> doubleAdapter(boolean serializeSpecialFloatingPointValues)
-    {
-        if (serializeSpecialFloatingPointValues)
-        {
-            return TypeAdapters.DOUBLE;
-        }
-        return new TypeAdapter<Number>()
-        {
-            @Override
-            public Double read(JsonReader in) throws IOException
-            {
-                if (in.peek() == JsonToken.NULL)
-                {
-                    in.nextNull();
-                    return null;
-                }
-                return in.nextDouble();
-            }
-
-            @Override
-            public void write(JsonWriter out, Number value) throws IOException
-            {
-                if (value == null)
-                {
-                    out.nullValue();
-                    return;
-                }
-                double doubleValue = value.doubleValue();
-                checkValidFloatingPoint(doubleValue);
-                out.value(value);
-            }
-        };
-    }
-    private TypeAdapter<Number> floatAdapter(boolean serializeSpecialFloatingPointValues)
-    {
-        if (serializeSpecialFloatingPointValues)
-        {
-            return TypeAdapters.FLOAT;
-        }
-        return new TypeAdapter<Number>()
-        {
-            @Override
-            public Float read(JsonReader in) throws IOException
-            {
-                if (in.peek() == JsonToken.NULL)
-                {
-                    in.nextNull();
-                    return null;
-                }
-                return (float) in.nextDouble();
-            }
-
-            @Override
-            public void write(JsonWriter out, Number value) throws IOException
-            {
-                if (value == null)
-                {
-                    out.nullValue();
-                    return;
-                }
-                float floatValue = value.floatValue();
-                checkValidFloatingPoint(floatValue);
-                out.value(value);
-            }
-        };
-    }
     /**
      * Returns the type adapter for {@code} type.
      *
@@ -779,6 +732,91 @@ public class Zson
             throw new JsonIOException(e);
         }
     }
+    /**
+     * This method serializes the specified object into its equivalent Json representation,
+     * encoded as UTF-8. The object is encoded straight into bytes, without building an
+     * intermediate String. If the object is of generic type, use
+     * {@link #toJsonBytes(Object, Type)} instead.
+     *
+     * @param src the object for which Json representation is to be created setting for Zson
+     *
+     * @return UTF-8 encoded Json representation of {@code src}.
+     */
+    public byte[] toJsonBytes(Object src)
+    {
+        if (src == null)
+        {
+            return toJsonBytes(JsonNull.INSTANCE, JsonElement.class);
+        }
+        return toJsonBytes(src, src.getClass());
+    }
+    /**
+     * This method serializes the specified object, including those of generic types, into its
+     * equivalent Json representation, encoded as UTF-8. For non-generic objects, use
+     * {@link #toJsonBytes(Object)} instead.
+     *
+     * @param src       the object for which JSON representation is to be created
+     * @param typeOfSrc The specific genericized type of src.
+     *
+     * @return UTF-8 encoded Json representation of {@code src}
+     */
+    public byte[] toJsonBytes(Object src, Type typeOfSrc)
+    {
+        Utf8JsonWriter writer = new Utf8JsonWriter();
+        toJson(src, typeOfSrc, configureJsonWriter(writer));
+        byte[] json = writer.toByteArray();
+        if (!generateNonExecutableJson)
+        {
+            return json;
+        }
+        byte[] prefixed = new byte[JSON_NON_EXECUTABLE_PREFIX_BYTES.length + json.length];
+        System.arraycopy(JSON_NON_EXECUTABLE_PREFIX_BYTES, 0, prefixed, 0, JSON_NON_EXECUTABLE_PREFIX_BYTES.length);
+        System.arraycopy(json, 0, prefixed, JSON_NON_EXECUTABLE_PREFIX_BYTES.length, json.length);
+        return prefixed;
+    }
+    /**
+     * This method serializes the specified object into its equivalent Json representation and
+     * writes it to {@code out} encoded as UTF-8. The stream is flushed but not closed. If the
+     * object is of generic type, use {@link #toJsonBytes(Object, Type, OutputStream)} instead.
+     *
+     * @param src the object for which Json representation is to be created setting for Zson
+     * @param out the stream to which the UTF-8 encoded Json needs to be written
+     *
+     * @throws JsonIOException if there was a problem writing to the stream
+     */
+    public void toJsonBytes(Object src, OutputStream out) throws JsonIOException
+    {
+        if (src != null)
+        {
+            toJsonBytes(src, src.getClass(), out);
+        } else
+        {
+            toJsonBytes(JsonNull.INSTANCE, JsonElement.class, out);
+        }
+    }
+    /**
+     * This method serializes the specified object, including those of generic types, into its
+     * equivalent Json representation and writes it to {@code out} encoded as UTF-8. The stream
+     * is flushed but not closed.
+     *
+     * @param src       the object for which JSON representation is to be created
+     * @param typeOfSrc The specific genericized type of src.
+     * @param out       the stream to which the UTF-8 encoded Json needs to be written
+     *
+     * @throws JsonIOException if there was a problem writing to the stream
+     */
+    public void toJsonBytes(Object src, Type typeOfSrc, OutputStream out) throws JsonIOException
+    {
+        try
+        {
+            JsonWriter jsonWriter = newJsonWriter(out);
+            toJson(src, typeOfSrc, jsonWriter);
+            jsonWriter.flush();
+        } catch (IOException e)
+        {
+            throw new JsonIOException(e);
+        }
+    }
     /**
      * Writes the JSON representation of {@code src} of type {@code typeOfSrc} to
      * {@code writer}.
@@ -857,7 +895,23 @@ public class Zson
         {
             writer.write(JSON_NON_EXECUTABLE_PREFIX);
         }
-        JsonWriter jsonWriter = new JsonWriter(writer);
+        return configureJsonWriter(new JsonWriter(writer));
+    }
+    /**
+     * Returns a new JSON writer configured for the settings on this Zson instance that
+     * encodes its output as UTF-8 directly into {@code out}. Output is buffered by the
+     * writer, so it must be flushed or closed once the document is complete.
+     */
+    public JsonWriter newJsonWriter(OutputStream out) throws IOException
+    {
+        if (generateNonExecutableJson)
+        {
+            out.write(JSON_NON_EXECUTABLE_PREFIX_BYTES);
+        }
+        return configureJsonWriter(new Utf8JsonWriter(out));
+    }
+    private JsonWriter configureJsonWriter(JsonWriter jsonWriter)
+    {
         if (prettyPrinting)
         {
             jsonWriter.setIndent("  ");
@@ -874,6 +928,17 @@ public class Zson
         jsonReader.setLenient(lenient);
         return jsonReader;
     }
+    /**
+     * Returns a new JSON reader configured for the settings on this Zson instance that
+     * tokenizes the UTF-8 encoded JSON in {@code in} without decoding it through a
+     * {@link Reader}.
+     */
+    public JsonReader newJsonReader(InputStream in)
+    {
+        JsonReader jsonReader = new Utf8JsonReader(in);
+        jsonReader.setLenient(lenient);
+        return jsonReader;
+    }
     /**
      * Writes the JSON for {@code jsonElement} to {@code writer}.
      *
@@ -1017,6 +1082,97 @@ public class Zson
         assertFullConsumption(object, jsonReader);
         return object;
     }
+    /**
+     * This method deserializes the UTF-8 encoded Json in the specified byte array into an object
+     * of the specified class. The bytes are tokenized directly, without first decoding them into
+     * a String. For the cases when the object is of generic type, invoke
+     * {@link #fromJson(byte[], Type)}.
+     *
+     * @param <T>      the type of the desired object
+     * @param json     the UTF-8 encoded Json from which the object is to be deserialized
+     * @param classOfT the class of T
+     *
+     * @return an object of type T from the bytes. Returns {@code null} if {@code json} is
+     * {@code null} or if {@code json} is empty.
+     *
+     * @throws JsonSyntaxException if json is not a valid representation for an object of type
+     *                             classOfT
+     */
+    public <T> T fromJson(byte[] json, Class<T> classOfT) throws JsonSyntaxException
+    {
+        Object object = fromJson(json, (Type) classOfT);
+        return Primitives.wrap(classOfT).cast(object);
+    }
+    /**
+     * This method deserializes the UTF-8 encoded Json in the specified byte array into an object
+     * of the specified type. The bytes are tokenized directly, without first decoding them into
+     * a String.
+     *
+     * @param <T>     the type of the desired object
+     * @param json    the UTF-8 encoded Json from which the object is to be deserialized
+     * @param typeOfT The specific genericized type of src.
+     *
+     * @return an object of type T from the bytes. Returns {@code null} if {@code json} is
+     * {@code null} or if {@code json} is empty.
+     *
+     * @throws JsonSyntaxException if json is not a valid representation for an object of type
+     *                             typeOfT
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fromJson(byte[] json, Type typeOfT) throws JsonSyntaxException
+    {
+        if (json == null)
+        {
+            return null;
+        }
+        JsonReader jsonReader = new Utf8JsonReader(json);
+        jsonReader.setLenient(lenient);
+        T object = (T) fromJson(jsonReader, typeOfT);
+        assertFullConsumption(object, jsonReader);
+        return object;
+    }
+    /**
+     * This method deserializes the UTF-8 encoded Json read from the specified stream into an
+     * object of the specified class. The bytes are tokenized directly, without an intermediate
+     * {@link Reader}. For the cases when the object is of generic type, invoke
+     * {@link #fromJson(InputStream, Type)}.
+     *
+     * @param <T>      the type of the desired object
+     * @param json     the stream producing the UTF-8 encoded Json
+     * @param classOfT the class of T
+     *
+     * @return an object of type T from the stream. Returns {@code null} if {@code json} is at EOF.
+     *
+     * @throws JsonIOException     if there was a problem reading from the stream
+     * @throws JsonSyntaxException if json is not a valid representation for an object of type
+     */
+    public <T> T fromJson(InputStream json, Class<T> classOfT) throws JsonSyntaxException, JsonIOException
+    {
+        Object object = fromJson(json, (Type) classOfT);
+        return Primitives.wrap(classOfT).cast(object);
+    }
+    /**
+     * This method deserializes the UTF-8 encoded Json read from the specified stream into an
+     * object of the specified type. The bytes are tokenized directly, without an intermediate
+     * {@link Reader}.
+     *
+     * @param <T>     the type of the desired object
+     * @param json    the stream producing the UTF-8 encoded Json
+     * @param typeOfT The specific genericized type of src.
+     *
+     * @return an object of type T from the stream. Returns {@code null} if {@code json} is at EOF.
+     *
+     * @throws JsonIOException     if there was a problem reading from the stream
+     * @throws JsonSyntaxException if json is not a valid representation for an object of type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fromJson(InputStream json, Type typeOfT) throws JsonIOException, JsonSyntaxException
+    {
+        JsonReader jsonReader = newJsonReader(json);
+        T object = (T) fromJson(jsonReader, typeOfT);
+        assertFullConsumption(object, jsonReader);
+        return object;
+    }
     /**
      * Reads the next JSON value from {@code reader} and convert it to an object
      * of type {@code typeOfT}. Returns {@code null}, if the {@code reader} is at EOF.
@@ -1135,6 +1291,31 @@ public class Zson
                 .toString();
     }
 
+    private static final class DefaultHolder
+    {
+
+        static final Zson INSTANCE = new Zson();
+
+    }
+
+    static
+    {
+        ZsonInternalAccess.INSTANCE = new ZsonInternalAccess()
+        {
+            @Override
+            public boolean deserializeNulls(Zson zson)
+            {
+                return zson.deserializeNulls;
+            }
+
+            @Override
+            public boolean hasInstanceCreator(Zson zson, Type type)
+            {
+                return zson.instanceCreators.containsKey(type);
+            }
+        };
+    }
+
     static class FutureTypeAdapter<T> extends TypeAdapter<T>
     {
 
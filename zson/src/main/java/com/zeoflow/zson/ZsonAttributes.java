@@ -1,7 +1,14 @@
 package com.zeoflow.zson;
 
+import com.zeoflow.zson.internal.Streams;
 import com.zeoflow.zson.model.Attribute;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.MalformedJsonException;
+import com.zeoflow.zson.stream.Utf8JsonReader;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -12,23 +19,40 @@ public class ZsonAttributes
 
     private JsonElement zElement;
     private List<Attribute> zAttributes;
+    /** The source of a lazy instance until its tree is built. */
+    private String json;
+    private byte[] utf8Json;
 
     public ZsonAttributes(String jsonObject)
     {
-        this.zElement = JsonParser.parseString(jsonObject);
-        JsonObject obj = this.zElement.getAsJsonObject();
-        Set<Map.Entry<String, JsonElement>> entries = obj.entrySet();
-        List<Attribute> list = new ArrayList<>();
-        for (Map.Entry<String, JsonElement> entry : entries)
-        {
-            list.add(new Attribute(entry.getKey(), entry.getValue()));
-        }
-        zAttributes = list;
+        this(JsonParser.parseString(jsonObject));
+    }
+
+    private ZsonAttributes(JsonElement element)
+    {
+        this.zElement = element;
+        this.zAttributes = attributesOf(element);
+    }
+
+    private ZsonAttributes(String json, byte[] utf8Json)
+    {
+        this.json = json;
+        this.utf8Json = utf8Json;
     }
 
     public static ZsonAttributes withObject(Object object)
     {
-        return new ZsonAttributes(new Zson().toJson(object));
+        return withObject(object, Zson.getDefault());
+    }
+
+    /**
+     * Returns the attributes of {@code object} as {@code zson} serializes it. The object is
+     * converted to a tree directly, without producing JSON text.
+     */
+    public static ZsonAttributes withObject(Object object, Zson zson)
+    {
+        JsonElement element = ZsonCast.fromObject(object, zson).toObject(JsonElement.class).cast();
+        return new ZsonAttributes(element);
     }
 
     public static ZsonAttributes withJson(String jsonObject)
@@ -36,18 +60,67 @@ public class ZsonAttributes
         return new ZsonAttributes(jsonObject);
     }
 
+    /**
+     * Returns the attributes of {@code jsonObject} without parsing it up front. Each call to
+     * {@link #getAttribute} scans the JSON, skips the values it doesn't need and builds a tree
+     * for the requested value only. The whole tree is built when {@link #getJsonElement()} or
+     * {@link #getAllAttributes()} is called, and is used from then on.
+     *
+     * <p>Use this to pick a few values from a large document. Unlike {@link #withJson}, it
+     * doesn't reject malformed JSON outside of the values scanned, and for an object with
+     * duplicate names it finds the first value rather than the last.
+     */
+    public static ZsonAttributes withJsonLazily(String jsonObject)
+    {
+        if (jsonObject == null)
+        {
+            throw new NullPointerException("jsonObject == null");
+        }
+        return new ZsonAttributes(jsonObject, null);
+    }
+
+    /**
+     * Returns the attributes of the UTF-8 encoded {@code jsonObject} without parsing it up
+     * front. The bytes are scanned directly, without decoding them to a string.
+     *
+     * @see #withJsonLazily(String)
+     */
+    public static ZsonAttributes withJsonLazily(byte[] jsonObject)
+    {
+        if (jsonObject == null)
+        {
+            throw new NullPointerException("jsonObject == null");
+        }
+        return new ZsonAttributes(null, jsonObject);
+    }
+
     public JsonElement getJsonElement()
     {
+        if (this.zElement == null)
+        {
+            JsonElement element = this.json != null
+                    ? JsonParser.parseString(this.json)
+                    : parseUtf8(this.utf8Json);
+            this.zAttributes = attributesOf(element);
+            this.zElement = element;
+            this.json = null;
+            this.utf8Json = null;
+        }
         return this.zElement;
     }
 
     public List<Attribute> getAllAttributes()
     {
+        getJsonElement();
         return zAttributes;
     }
 
     public Attribute getAttribute(String... keys)
     {
+        if (this.zElement == null)
+        {
+            return scanAttribute(keys);
+        }
         Attribute zJsonElement = null;
         for (String key : keys)
         {
@@ -69,4 +142,106 @@ public class ZsonAttributes
         return zJsonElement;
     }
 
+    private static List<Attribute> attributesOf(JsonElement element)
+    {
+        JsonObject obj = element.getAsJsonObject();
+        Set<Map.Entry<String, JsonElement>> entries = obj.entrySet();
+        List<Attribute> list = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : entries)
+        {
+            list.add(new Attribute(entry.getKey(), entry.getValue()));
+        }
+        return list;
+    }
+
+    /**
+     * Finds the value of {@code keys} in the lazy source, descending into one object per key
+     * and skipping every other value.
+     */
+    private Attribute scanAttribute(String... keys)
+    {
+        JsonReader reader = this.json != null
+                ? new JsonReader(new StringReader(this.json))
+                : new Utf8JsonReader(this.utf8Json);
+        reader.setLenient(true);
+        try
+        {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT)
+            {
+                // fails the way an eager instance fails
+                getJsonElement().getAsJsonObject();
+            }
+            if (keys.length == 0)
+            {
+                return null;
+            }
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (!findName(reader, keys[i]))
+                {
+                    break;
+                }
+                if (i == keys.length - 1)
+                {
+                    return new Attribute(keys[i], Streams.parse(reader));
+                }
+                if (reader.peek() != JsonToken.BEGIN_OBJECT)
+                {
+                    break;
+                }
+            }
+            return new Attribute(keys[keys.length - 1], null);
+        } catch (MalformedJsonException e)
+        {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e)
+        {
+            throw new JsonIOException(e);
+        } catch (NumberFormatException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Enters the object at the reader's position and advances to the value named {@code name}.
+     * Returns false if the object has no such name.
+     */
+    private static boolean findName(JsonReader reader, String name) throws IOException
+    {
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if (reader.nextName().equals(name))
+            {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static JsonElement parseUtf8(byte[] json)
+    {
+        try
+        {
+            JsonReader reader = new Utf8JsonReader(json);
+            JsonElement element = JsonParser.parseReader(reader);
+            if (!element.isJsonNull() && reader.peek() != JsonToken.END_DOCUMENT)
+            {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return element;
+        } catch (MalformedJsonException e)
+        {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e)
+        {
+            throw new JsonIOException(e);
+        } catch (NumberFormatException e)
+        {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
 }
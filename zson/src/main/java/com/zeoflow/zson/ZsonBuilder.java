@@ -34,6 +34,7 @@ import com.zeoflow.zson.reflect.TypeToken;
 import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.annotations.Expose;
 
+import static com.zeoflow.zson.Zson.DEFAULT_BYTE_ARRAYS_AS_BASE64;
 import static com.zeoflow.zson.Zson.DEFAULT_COMPLEX_MAP_KEYS;
 import static com.zeoflow.zson.Zson.DEFAULT_DESERIALIZE_NULLS;
 import static com.zeoflow.zson.Zson.DEFAULT_ESCAPE_HTML;
@@ -92,6 +93,7 @@ public final class ZsonBuilder
   private int timeStyle = DateFormat.DEFAULT;
   private boolean complexMapKeySerialization = DEFAULT_COMPLEX_MAP_KEYS;
   private boolean serializeSpecialFloatingPointValues = DEFAULT_SPECIALIZE_FLOAT_VALUES;
+  private boolean byteArraysAsBase64 = DEFAULT_BYTE_ARRAYS_AS_BASE64;
   private boolean deserializeNulls = DEFAULT_DESERIALIZE_NULLS;
   private boolean escapeHtmlChars = DEFAULT_ESCAPE_HTML;
   private boolean prettyPrinting = DEFAULT_PRETTY_PRINT;
@@ -125,6 +127,7 @@ public final class ZsonBuilder
     this.prettyPrinting = zson.prettyPrinting;
     this.lenient = zson.lenient;
     this.serializeSpecialFloatingPointValues = zson.serializeSpecialFloatingPointValues;
+    this.byteArraysAsBase64 = zson.byteArraysAsBase64;
     this.longSerializationPolicy = zson.longSerializationPolicy;
     this.datePattern = zson.datePattern;
     this.dateStyle = zson.dateStyle;
@@ -593,6 +596,20 @@ public final class ZsonBuilder
     return this;
   }
 
+  /**
+   * Configures Zson to serialize {@code byte[]} values as Base64 strings instead of arrays of
+   * numbers, which are much shorter and faster to read. When this option is enabled, Zson
+   * deserializes {@code byte[]} values from both forms.
+   *
+   * <p>Adapters registered for {@code byte[]} take precedence over this option.
+   *
+   * @return a reference to this {@code ZsonBuilder} object to fulfill the "Builder" pattern
+   */
+  public ZsonBuilder encodeByteArraysAsBase64() {
+    this.byteArraysAsBase64 = true;
+    return this;
+  }
+
   /**
    * Creates a {@link Zson} instance based on the current configuration. This method is free of
    * side-effects to this {@code ZsonBuilder} instance and hence can be called multiple times.
@@ -613,7 +630,7 @@ public final class ZsonBuilder
     return new Zson(excluder, fieldNamingPolicy, instanceCreators,
         serializeNulls, deserializeNulls, complexMapKeySerialization,
         generateNonExecutableJson, escapeHtmlChars, prettyPrinting, lenient,
-        serializeSpecialFloatingPointValues, longSerializationPolicy,
+        serializeSpecialFloatingPointValues, byteArraysAsBase64, longSerializationPolicy,
         datePattern, dateStyle, timeStyle,
         this.factories, this.hierarchyFactories, factories);
   }
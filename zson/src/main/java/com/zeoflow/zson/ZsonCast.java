@@ -1,16 +1,46 @@
 package com.zeoflow.zson;
 
+import com.zeoflow.zson.internal.bind.JsonTokenReader;
+import com.zeoflow.zson.internal.bind.JsonTokenWriter;
+import com.zeoflow.zson.reflect.TypeToken;
+import com.zeoflow.zson.stream.JsonToken;
+
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Iterator;
 
+/**
+ * Converts an object to another class with the same JSON representation, as if it was
+ * serialized to JSON and deserialized back. The tokens go from one type adapter to the
+ * other in memory, so no JSON text is produced or parsed.
+ *
+ * <p>Since there is no text, the messages of conversion errors locate the failing value by
+ * its path alone, such as {@code "Expected an int but was BEGIN_ARRAY at path $.a"}, without
+ * the {@code "at line 1 column 7"} a conversion through JSON text would also report.
+ *
+ * <p>Conversions use the given {@link Zson}, or a shared one with the default configuration.
+ * Either way the type adapters are created once and reused by later conversions.
+ */
 public class ZsonCast
 {
 
+    private final Zson zson;
     private Object oldObject;
-    private Object classOfT;
+    private Type classOfT;
 
     public ZsonCast(Object oldObject)
     {
+        this(oldObject, Zson.getDefault());
+    }
+
+    public ZsonCast(Object oldObject, Zson zson)
+    {
+        if (zson == null)
+        {
+            throw new NullPointerException("zson == null");
+        }
         this.oldObject = oldObject;
+        this.zson = zson;
     }
 
     public static ZsonCast fromObject(Object oldObject)
@@ -18,18 +48,171 @@ public class ZsonCast
         return new ZsonCast(oldObject);
     }
 
+    /**
+     * Converts {@code oldObject} with the adapters and settings of {@code zson}.
+     */
+    public static ZsonCast fromObject(Object oldObject, Zson zson)
+    {
+        return new ZsonCast(oldObject, zson);
+    }
+
+    /**
+     * Lazily converts each of {@code objects} to {@code typeOfT}. Every iterator of the result
+     * looks the type adapters up once and reuses one token buffer for all elements, which makes
+     * it the fastest way to convert many objects. Such an iterator must not be shared between
+     * threads.
+     */
+    public static <T> Iterable<T> castAll(Iterable<?> objects, Type typeOfT)
+    {
+        return castAll(objects, typeOfT, Zson.getDefault());
+    }
+
+    /**
+     * Lazily converts each of {@code objects} to {@code typeOfT} with the adapters and settings
+     * of {@code zson}.
+     *
+     * @see #castAll(Iterable, Type)
+     */
+    public static <T> Iterable<T> castAll(final Iterable<?> objects, final Type typeOfT,
+                                          final Zson zson)
+    {
+        return new Iterable<T>()
+        {
+            @Override
+            public Iterator<T> iterator()
+            {
+                return castAll(objects.iterator(), typeOfT, zson);
+            }
+        };
+    }
+
+    /**
+     * Lazily converts each object {@code objects} returns to {@code typeOfT}.
+     *
+     * @see #castAll(Iterable, Type)
+     */
+    public static <T> Iterator<T> castAll(Iterator<?> objects, Type typeOfT)
+    {
+        return castAll(objects, typeOfT, Zson.getDefault());
+    }
+
+    /**
+     * Lazily converts each object {@code objects} returns to {@code typeOfT} with the adapters
+     * and settings of {@code zson}.
+     *
+     * @see #castAll(Iterable, Type)
+     */
+    public static <T> Iterator<T> castAll(final Iterator<?> objects, Type typeOfT, Zson zson)
+    {
+        final Pipe pipe = new Pipe(zson, typeOfT);
+        return new Iterator<T>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return objects.hasNext();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public T next()
+            {
+                return (T) pipe.convert(objects.next());
+            }
+
+            @Override
+            public void remove()
+            {
+                objects.remove();
+            }
+        };
+    }
+
     public <T> ZsonCast toObject(Class<T> classOfT)
     {
         this.classOfT = classOfT;
         return this;
     }
 
+    /**
+     * Sets the type to convert to, which may be generic such as {@code List<NewModel>}. Obtain
+     * it with a {@link TypeToken}.
+     */
+    public ZsonCast toObject(Type typeOfT)
+    {
+        this.classOfT = typeOfT;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
     public <T> T cast()
     {
-        Zson zson = new Zson();
-        String json = zson.toJson(this.oldObject);
-        Object object = zson.fromJson(json, (Type) this.classOfT);
-        return (T) object;
+        return (T) new Pipe(this.zson, this.classOfT).convert(this.oldObject);
+    }
+
+    /** Converts objects to one type, reusing its adapters and token buffer. */
+    private static final class Pipe
+    {
+        private final TypeAdapter<?> targetAdapter;
+        private final Zson zson;
+        private final JsonTokenWriter writer = new JsonTokenWriter();
+        private final JsonTokenReader reader = new JsonTokenReader(writer);
+        /** The adapter for the class of the last object converted. */
+        private Class<?> sourceClass;
+        private TypeAdapter<Object> sourceAdapter;
+
+        Pipe(Zson zson, Type typeOfT)
+        {
+            this.zson = zson;
+            this.targetAdapter = zson.getAdapter(TypeToken.get(typeOfT));
+            // configured like Zson.toJson() and Zson.fromJson() configure their streams
+            writer.setLenient(true);
+            writer.setHtmlSafe(zson.htmlSafe());
+            writer.setSerializeNulls(zson.serializeNulls());
+            reader.setLenient(true);
+        }
+
+        @SuppressWarnings("unchecked")
+        Object convert(Object source)
+        {
+            writer.clear();
+            reader.reset();
+            try
+            {
+                if (source == null)
+                {
+                    writer.nullValue();
+                } else
+                {
+                    if (source.getClass() != sourceClass)
+                    {
+                        sourceAdapter = (TypeAdapter<Object>) zson.getAdapter(source.getClass());
+                        sourceClass = source.getClass();
+                    }
+                    sourceAdapter.write(writer, source);
+                }
+            } catch (IOException e)
+            {
+                throw new JsonIOException(e);
+            }
+
+            Object result;
+            try
+            {
+                result = targetAdapter.read(reader);
+                if (result != null && reader.peek() != JsonToken.END_DOCUMENT)
+                {
+                    throw new JsonIOException("JSON document was not fully consumed.");
+                }
+            } catch (IllegalStateException e)
+            {
+                throw new JsonSyntaxException(e);
+            } catch (IOException e)
+            {
+                throw new JsonSyntaxException(e);
+            }
+            return result;
+        }
     }
 
 }
@@ -0,0 +1,391 @@
+package com.zeoflow.zson;
+
+import com.zeoflow.zson.internal.bind.TypeAdapters;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.MalformedJsonException;
+import com.zeoflow.zson.stream.Utf8JsonReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of paths to extract from JSON documents in a single pass. Build it once from all the
+ * paths of interest and reuse it for every document; it is immutable and may be shared between
+ * threads.
+ *
+ * <pre>   {@code
+ *   ZsonSelectors.Builder builder = ZsonSelectors.builder();
+ *   ZsonSelectors.Selector user = builder.add("user", "screen_name");
+ *   ZsonSelectors.Selector tag = builder.add("entities", "hashtags", 0, "text");
+ *   ZsonSelectors selectors = builder.build();
+ *
+ *   ZsonSelectors.Result result = selectors.select(json);
+ *   JsonElement screenName = result.get(user);
+ * }</pre>
+ *
+ * <p>Values that aren't on any path are skipped without being parsed into a tree, and reading
+ * stops as soon as every path has matched. Consequently, malformed JSON after the last match
+ * isn't detected, and for an object with duplicate names the first value is selected.
+ */
+public final class ZsonSelectors
+{
+
+    private final Node root;
+    private final Selector[] selectors;
+
+    private ZsonSelectors(Builder builder)
+    {
+        this.selectors = builder.selectors.toArray(new Selector[0]);
+        this.root = builder.root.compile();
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /** Returns the selectors of this set, in the order they were added. */
+    public List<Selector> selectors()
+    {
+        return Collections.unmodifiableList(Arrays.asList(selectors));
+    }
+
+    /** Selects the values of this set's paths in {@code json}. */
+    public Result select(String json)
+    {
+        return select(new JsonReader(new StringReader(json)));
+    }
+
+    /** Selects the values of this set's paths in the UTF-8 encoded {@code json}. */
+    public Result select(byte[] json)
+    {
+        return select(new Utf8JsonReader(json));
+    }
+
+    /**
+     * Selects the values of this set's paths in the next value of {@code reader}. The reader is
+     * left wherever reading stopped, which is inside that value if all paths matched early.
+     */
+    public Result select(JsonReader reader)
+    {
+        Scan scan = new Scan(selectors.length);
+        boolean lenient = reader.isLenient();
+        reader.setLenient(true);
+        try
+        {
+            try
+            {
+                reader.peek();
+            } catch (EOFException e)
+            {
+                return new Result(this, scan.values); // an empty document has no values
+            }
+            visit(reader, root, scan);
+            return new Result(this, scan.values);
+        } catch (MalformedJsonException e)
+        {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e)
+        {
+            throw new JsonIOException(e);
+        } catch (NumberFormatException e)
+        {
+            throw new JsonSyntaxException(e);
+        } finally
+        {
+            reader.setLenient(lenient);
+        }
+    }
+
+    /** Selects the values of this set's paths in the tree {@code element}. */
+    public Result select(JsonElement element)
+    {
+        Scan scan = new Scan(selectors.length);
+        match(root, element, scan);
+        return new Result(this, scan.values);
+    }
+
+    /**
+     * Reads the value at the reader's position, which {@code node} matches. Returns true once
+     * every selector has a value and reading can stop.
+     */
+    private static boolean visit(JsonReader reader, Node node, Scan scan) throws IOException
+    {
+        if (node.selectors.length != 0)
+        {
+            // the value itself is selected, so paths below it are resolved in its tree
+            match(node, TypeAdapters.JSON_ELEMENT.read(reader), scan);
+            return scan.remaining == 0;
+        }
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT && node.nameChildren.length != 0)
+        {
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                int index = reader.selectName(node.names);
+                if (index == -1)
+                {
+                    reader.skipValue();
+                } else if (visit(reader, node.nameChildren[index], scan))
+                {
+                    return true;
+                }
+            }
+            reader.endObject();
+        } else if (token == JsonToken.BEGIN_ARRAY && node.indexChildren.length != 0)
+        {
+            reader.beginArray();
+            for (int i = 0; reader.hasNext(); i++)
+            {
+                Node child = i < node.indexChildren.length ? node.indexChildren[i] : null;
+                if (child == null)
+                {
+                    reader.skipValue();
+                } else if (visit(reader, child, scan))
+                {
+                    return true;
+                }
+            }
+            reader.endArray();
+        } else
+        {
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /** Assigns {@code element}, which {@code node} matches, and its matching descendants. */
+    private static void match(Node node, JsonElement element, Scan scan)
+    {
+        for (int selector : node.selectors)
+        {
+            if (scan.values[selector] == null)
+            {
+                scan.values[selector] = element;
+                scan.remaining--;
+            }
+        }
+        if (element.isJsonObject() && node.nameChildren.length != 0)
+        {
+            JsonObject object = element.getAsJsonObject();
+            for (int i = 0; i < node.nameChildren.length; i++)
+            {
+                JsonElement child = object.get(node.names.get(i));
+                if (child != null)
+                {
+                    match(node.nameChildren[i], child, scan);
+                }
+            }
+        } else if (element.isJsonArray() && node.indexChildren.length != 0)
+        {
+            JsonArray array = element.getAsJsonArray();
+            for (int i = 0, size = Math.min(array.size(), node.indexChildren.length); i < size; i++)
+            {
+                if (node.indexChildren[i] != null)
+                {
+                    match(node.indexChildren[i], array.get(i), scan);
+                }
+            }
+        }
+    }
+
+    /** The values selected so far in one document. */
+    private static final class Scan
+    {
+
+        final JsonElement[] values;
+        int remaining;
+
+        Scan(int size)
+        {
+            this.values = new JsonElement[size];
+            this.remaining = size;
+        }
+
+    }
+
+    /** A trie node for the paths through one position in a document. */
+    private static final class Node
+    {
+
+        private static final int[] NO_SELECTORS = new int[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /** The selectors whose path ends here. */
+        int[] selectors = NO_SELECTORS;
+        /** The names of object members on a path, and the node for each. */
+        JsonReader.Options names;
+        Node[] nameChildren = NO_CHILDREN;
+        /** The node for each array index on a path, or null for indices on none. */
+        Node[] indexChildren = NO_CHILDREN;
+
+        /** The children while the set is being built. */
+        private Map<String, Node> nameMap = new LinkedHashMap<String, Node>();
+        private Map<Integer, Node> indexMap = new LinkedHashMap<Integer, Node>();
+
+        Node child(Object segment)
+        {
+            Node child;
+            if (segment instanceof String)
+            {
+                child = nameMap.get(segment);
+                if (child == null)
+                {
+                    child = new Node();
+                    nameMap.put((String) segment, child);
+                }
+            } else
+            {
+                child = indexMap.get(segment);
+                if (child == null)
+                {
+                    child = new Node();
+                    indexMap.put((Integer) segment, child);
+                }
+            }
+            return child;
+        }
+
+        /** Returns an immutable copy of this subtree for matching. */
+        Node compile()
+        {
+            Node result = new Node();
+            result.selectors = selectors.clone();
+            result.names = JsonReader.Options.of(nameMap.keySet().toArray(new String[0]));
+            result.nameChildren = new Node[nameMap.size()];
+            int i = 0;
+            for (Node child : nameMap.values())
+            {
+                result.nameChildren[i++] = child.compile();
+            }
+            int length = 0;
+            for (Integer index : indexMap.keySet())
+            {
+                length = Math.max(length, index + 1);
+            }
+            result.indexChildren = length == 0 ? NO_CHILDREN : new Node[length];
+            for (Map.Entry<Integer, Node> entry : indexMap.entrySet())
+            {
+                result.indexChildren[entry.getKey()] = entry.getValue().compile();
+            }
+            result.nameMap = null;
+            result.indexMap = null;
+            return result;
+        }
+
+    }
+
+    /** Collects paths for a {@link ZsonSelectors}. */
+    public static final class Builder
+    {
+
+        private final Node root = new Node();
+        private final List<Selector> selectors = new ArrayList<Selector>();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds the path that follows each {@code String} as an object member name and each
+         * {@code Integer} as an array index. An empty path selects the whole document.
+         *
+         * @return the key of this path's value in a {@link Result}.
+         */
+        public Selector add(Object... path)
+        {
+            Node node = root;
+            for (Object segment : path)
+            {
+                if (!(segment instanceof String)
+                        && !(segment instanceof Integer && (Integer) segment >= 0))
+                {
+                    throw new IllegalArgumentException(
+                            "Expected a name or a non-negative index but was " + segment);
+                }
+                node = node.child(segment);
+            }
+            Selector selector = new Selector(selectors.size(), path.clone());
+            node.selectors = Arrays.copyOf(node.selectors, node.selectors.length + 1);
+            node.selectors[node.selectors.length - 1] = selector.index;
+            selectors.add(selector);
+            return selector;
+        }
+
+        public ZsonSelectors build()
+        {
+            return new ZsonSelectors(this);
+        }
+
+    }
+
+    /** The key of one path's value in a {@link Result}. */
+    public static final class Selector
+    {
+
+        final int index;
+        private final Object[] path;
+
+        Selector(int index, Object[] path)
+        {
+            this.index = index;
+            this.path = path;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder result = new StringBuilder().append('$');
+            for (Object segment : path)
+            {
+                if (segment instanceof String)
+                {
+                    result.append('.').append(segment);
+                } else
+                {
+                    result.append('[').append(segment).append(']');
+                }
+            }
+            return result.toString();
+        }
+
+    }
+
+    /** The values selected from one document. */
+    public static final class Result
+    {
+
+        private final ZsonSelectors selectors;
+        private final JsonElement[] values;
+
+        Result(ZsonSelectors selectors, JsonElement[] values)
+        {
+            this.selectors = selectors;
+            this.values = values;
+        }
+
+        /**
+         * Returns the value {@code selector} selected, {@link JsonNull} if that value is null,
+         * or null if the document doesn't have it.
+         */
+        public JsonElement get(Selector selector)
+        {
+            if (selector.index >= values.length || selectors.selectors[selector.index] != selector)
+            {
+                throw new IllegalArgumentException(selector + " is not in this set of selectors");
+            }
+            return values[selector.index];
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.annotations;
+
+import com.zeoflow.zson.ZsonBuilder;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that asks the {@code zson-codegen} annotation processor to generate a
+ * {@link com.zeoflow.zson.TypeAdapter} for a class at compile time. The generated adapter reads
+ * and writes fields directly and calls the class's no-args constructor, so no reflection is
+ * needed to bind the class's fields at runtime.
+ *
+ * <p>Here is an example of how this annotation is used:</p>
+ * <pre>
+ * #64ZsonGenerated
+ * public class User {
+ *   #64SerializedName("first_name") String firstName;
+ *   #64Since(1.1) String emailAddress;
+ *   transient int hash;
+ * }
+ * </pre>
+ *
+ * <p>For every compilation the processor also generates one
+ * {@link com.zeoflow.zson.TypeAdapterFactory} that creates the adapters of all annotated
+ * classes. It is named {@code ZsonGeneratedAdapters} and placed in the package of the first
+ * annotated class; the {@code zson.registry} processor option sets another fully qualified name.
+ * Register it with {@link ZsonBuilder#registerTypeAdapterFactory}:
+ * <pre>
+ * Zson zson = new ZsonBuilder()
+ *     .registerTypeAdapterFactory(ZsonGeneratedAdapters.FACTORY)
+ *     .create();
+ * </pre>
+ *
+ * <p>Generated adapters honor {@link SerializedName}, {@link Expose}, {@link Since},
+ * {@link Until} and the configured {@link com.zeoflow.zson.FieldNamingPolicy} exactly as the
+ * reflective adapters do. When a {@link com.zeoflow.zson.Zson} instance is configured in a way
+ * that requires reflection, such as with an {@link com.zeoflow.zson.ExclusionStrategy}, a
+ * custom {@link com.zeoflow.zson.FieldNamingStrategy}, an
+ * {@link com.zeoflow.zson.InstanceCreator} for the class, or modifiers that include a private
+ * or final field, the factory declines the class and Zson falls back to the reflective adapter.
+ *
+ * <p>Annotated classes must not be private, abstract or generic and must have a non-private
+ * no-args constructor.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ZsonGenerated {
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zeoflow.zson.internal;
+
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes the Base64 alphabet of RFC 4648. This exists because
+ * {@code java.util.Base64} isn't available on all supported Android versions.
+ */
+public final class Base64 {
+  private static final char[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+  /** The value of each ASCII character, or -1. Accepts the URL-safe alphabet too. */
+  private static final byte[] VALUES = new byte[128];
+  static {
+    Arrays.fill(VALUES, (byte) -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      VALUES[ALPHABET[i]] = (byte) i;
+    }
+    VALUES['-'] = 62;
+    VALUES['_'] = 63;
+  }
+
+  private Base64() {}
+
+  /** Returns {@code bytes} encoded with padding and without line breaks. */
+  public static String encode(byte[] bytes) {
+    char[] chars = new char[(bytes.length + 2) / 3 * 4];
+    int c = 0;
+    int i = 0;
+    for (int end = bytes.length - bytes.length % 3; i < end; i += 3) {
+      int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+      chars[c++] = ALPHABET[bits >>> 18];
+      chars[c++] = ALPHABET[(bits >>> 12) & 0x3f];
+      chars[c++] = ALPHABET[(bits >>> 6) & 0x3f];
+      chars[c++] = ALPHABET[bits & 0x3f];
+    }
+    int remaining = bytes.length - i;
+    if (remaining > 0) {
+      int bits = (bytes[i] & 0xff) << 16 | (remaining == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+      chars[c++] = ALPHABET[bits >>> 18];
+      chars[c++] = ALPHABET[(bits >>> 12) & 0x3f];
+      chars[c++] = remaining == 2 ? ALPHABET[(bits >>> 6) & 0x3f] : '=';
+      chars[c] = '=';
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Returns the bytes encoded in {@code string}, or null if it isn't valid
+   * Base64. Padding is optional.
+   */
+  public static byte[] decode(String string) {
+    int length = string.length();
+    if (length % 4 == 0 && length > 0 && string.charAt(length - 1) == '=') {
+      length -= string.charAt(length - 2) == '=' ? 2 : 1;
+    }
+    if (length % 4 == 1) {
+      return null;
+    }
+    byte[] bytes = new byte[length / 4 * 3 + Math.max(length % 4 - 1, 0)];
+    int b = 0;
+    int bits = 0;
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      int value = c < 128 ? VALUES[c] : -1;
+      if (value == -1) {
+        return null;
+      }
+      bits = bits << 6 | value;
+      if ((i & 3) == 3) {
+        bytes[b++] = (byte) (bits >> 16);
+        bytes[b++] = (byte) (bits >> 8);
+        bytes[b++] = (byte) bits;
+        bits = 0;
+      }
+    }
+    switch (length % 4) {
+    case 2:
+      bytes[b] = (byte) (bits >> 4);
+      break;
+    case 3:
+      bytes[b++] = (byte) (bits >> 10);
+      bytes[b] = (byte) (bits >> 2);
+      break;
+    default:
+      break;
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Formats and parses dates with a {@link DateFormat} from many threads at once, without locking.
+ * DateFormats are not thread safe, so each call borrows a copy of the format that no other
+ * thread is using and returns it afterwards. Copies are cloned from the original format when
+ * all idle ones are taken, and only a bounded number of idle copies are kept.
+ */
+public final class DateFormatPool {
+  /** Threads may be descheduled while they hold a copy, so keep more than one per processor. */
+  private static final int MAX_IDLE =
+      Math.max(16, Math.min(64, 2 * Runtime.getRuntime().availableProcessors()));
+
+  /** The format every copy is cloned from. It is never used itself, so it never changes. */
+  private final DateFormat original;
+  /** Copies not in use by any thread. Empty slots are null. */
+  private final AtomicReferenceArray<DateFormat> idle =
+      new AtomicReferenceArray<DateFormat>(MAX_IDLE);
+
+  public DateFormatPool(DateFormat original) {
+    this.original = original;
+  }
+
+  public String format(Date date) {
+    DateFormat format = borrow();
+    try {
+      return format.format(date);
+    } finally {
+      release(format);
+    }
+  }
+
+  public Date parse(String source) throws ParseException {
+    DateFormat format = borrow();
+    try {
+      return format.parse(source);
+    } finally {
+      release(format);
+    }
+  }
+
+  private DateFormat borrow() {
+    for (int i = 0; i < MAX_IDLE; i++) {
+      if (idle.get(i) != null) {
+        DateFormat format = idle.getAndSet(i, null);
+        if (format != null) {
+          return format;
+        }
+      }
+    }
+    return (DateFormat) original.clone();
+  }
+
+  private void release(DateFormat format) {
+    for (int i = 0; i < MAX_IDLE; i++) {
+      if (idle.get(i) == null && idle.compareAndSet(i, null, format)) {
+        return;
+      }
+    }
+    // enough copies are idle already; let this one be collected
+  }
+
+  /** Returns the pattern of the format if it has one, or else its type. */
+  @Override public String toString() {
+    return original instanceof SimpleDateFormat
+        ? ((SimpleDateFormat) original).toPattern()
+        : original.getClass().getSimpleName();
+  }
+}
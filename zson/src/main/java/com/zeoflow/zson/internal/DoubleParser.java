@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+/**
+ * Reads JSON numbers as doubles straight from a char or byte array, without making a string.
+ *
+ * <p>Numbers are read with Clinger's fast path when the digits and the power of ten are both exact
+ * doubles, and otherwise with the Eisel-Lemire algorithm, as in Go's {@code strconv}. The rare
+ * numbers that neither can round with certainty are left to {@link Double#parseDouble}.
+ */
+public final class DoubleParser {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final long T_MASK = (1L << 52) - 1;
+
+  /** Powers of ten that are exact doubles. */
+  private static final double[] DOUBLE_POW10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /** Decimal exponents beyond these round to zero or infinity for any 19 digits. */
+  private static final int PARSE_EXPONENT_MIN = -348;
+  private static final int PARSE_EXPONENT_MAX = 347;
+
+  private DoubleParser() {
+  }
+
+  /**
+   * The powers of ten from 10^-348 to 10^347, each truncated to 128 bits with the top bit set and
+   * split into its high and low 64 bits, for parsing.
+   */
+  private static final class ParseTable {
+    static final long[] HI = new long[PARSE_EXPONENT_MAX - PARSE_EXPONENT_MIN + 1];
+    static final long[] LO = new long[PARSE_EXPONENT_MAX - PARSE_EXPONENT_MIN + 1];
+
+    static {
+      BigInteger pow10 = BigInteger.ONE;
+      for (int e = 0; e <= PARSE_EXPONENT_MAX; e++) {
+        int excess = pow10.bitLength() - 128;
+        set(e, excess >= 0 ? pow10.shiftRight(excess) : pow10.shiftLeft(-excess));
+        pow10 = pow10.multiply(BigInteger.TEN);
+      }
+      pow10 = BigInteger.TEN;
+      for (int e = -1; e >= PARSE_EXPONENT_MIN; e--) {
+        set(e, BigInteger.ONE.shiftLeft(127 + pow10.bitLength()).divide(pow10));
+        pow10 = pow10.multiply(BigInteger.TEN);
+      }
+    }
+
+    private static void set(int e, BigInteger mantissa) {
+      HI[e - PARSE_EXPONENT_MIN] = mantissa.shiftRight(64).longValue();
+      LO[e - PARSE_EXPONENT_MIN] = mantissa.longValue();
+    }
+  }
+
+  /**
+   * Returns the double nearest the JSON number in {@code chars}, exactly as {@link
+   * Double#parseDouble} would return it.
+   */
+  public static double parseDouble(char[] chars, int offset, int length) {
+    int p = offset;
+    int end = offset + length;
+    boolean negative = p < end && chars[p] == '-';
+    if (negative) {
+      p++;
+    }
+
+    // up to 19 significant digits, which fit in an unsigned long
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean truncated = false;
+    int start = p;
+    for (int c; p < end && (c = chars[p] - '0') >= 0 && c <= 9; p++) {
+      if (digits < 19) {
+        significand = 10 * significand + c;
+        digits += significand != 0 ? 1 : 0;
+      } else {
+        exponent++;
+        truncated |= c != 0;
+      }
+    }
+    if (p == start) {
+      return Double.parseDouble(new String(chars, offset, length));
+    }
+    if (p < end && chars[p] == '.') {
+      start = ++p;
+      for (int c; p < end && (c = chars[p] - '0') >= 0 && c <= 9; p++) {
+        if (digits < 19) {
+          significand = 10 * significand + c;
+          digits += significand != 0 ? 1 : 0;
+          exponent--;
+        } else {
+          truncated |= c != 0;
+        }
+      }
+      if (p == start) {
+        return Double.parseDouble(new String(chars, offset, length));
+      }
+    }
+    if (p < end && (chars[p] == 'e' || chars[p] == 'E')) {
+      boolean negativeExponent = ++p < end && chars[p] == '-';
+      if (p < end && (chars[p] == '-' || chars[p] == '+')) {
+        p++;
+      }
+      int explicit = 0;
+      start = p;
+      for (int c; p < end && (c = chars[p] - '0') >= 0 && c <= 9; p++) {
+        if (explicit < 100000) {
+          explicit = 10 * explicit + c;
+        }
+      }
+      if (p == start) {
+        return Double.parseDouble(new String(chars, offset, length));
+      }
+      exponent += negativeExponent ? -explicit : explicit;
+    }
+
+    double result = p == end ? toDouble(negative, significand, exponent, truncated) : Double.NaN;
+    return result == result ? result : Double.parseDouble(new String(chars, offset, length));
+  }
+
+  /**
+   * Returns the double nearest the JSON number in the ASCII {@code bytes}, exactly as {@link
+   * Double#parseDouble} would return it.
+   */
+  public static double parseDouble(byte[] bytes, int offset, int length) {
+    int p = offset;
+    int end = offset + length;
+    boolean negative = p < end && bytes[p] == '-';
+    if (negative) {
+      p++;
+    }
+
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean truncated = false;
+    int start = p;
+    for (int c; p < end && (c = bytes[p] - '0') >= 0 && c <= 9; p++) {
+      if (digits < 19) {
+        significand = 10 * significand + c;
+        digits += significand != 0 ? 1 : 0;
+      } else {
+        exponent++;
+        truncated |= c != 0;
+      }
+    }
+    if (p == start) {
+      return Double.parseDouble(new String(bytes, offset, length, UTF_8));
+    }
+    if (p < end && bytes[p] == '.') {
+      start = ++p;
+      for (int c; p < end && (c = bytes[p] - '0') >= 0 && c <= 9; p++) {
+        if (digits < 19) {
+          significand = 10 * significand + c;
+          digits += significand != 0 ? 1 : 0;
+          exponent--;
+        } else {
+          truncated |= c != 0;
+        }
+      }
+      if (p == start) {
+        return Double.parseDouble(new String(bytes, offset, length, UTF_8));
+      }
+    }
+    if (p < end && (bytes[p] == 'e' || bytes[p] == 'E')) {
+      boolean negativeExponent = ++p < end && bytes[p] == '-';
+      if (p < end && (bytes[p] == '-' || bytes[p] == '+')) {
+        p++;
+      }
+      int explicit = 0;
+      start = p;
+      for (int c; p < end && (c = bytes[p] - '0') >= 0 && c <= 9; p++) {
+        if (explicit < 100000) {
+          explicit = 10 * explicit + c;
+        }
+      }
+      if (p == start) {
+        return Double.parseDouble(new String(bytes, offset, length, UTF_8));
+      }
+      exponent += negativeExponent ? -explicit : explicit;
+    }
+
+    double result = p == end ? toDouble(negative, significand, exponent, truncated) : Double.NaN;
+    return result == result ? result : Double.parseDouble(new String(bytes, offset, length, UTF_8));
+  }
+
+  /**
+   * Returns the double nearest significand 10^exponent, or NaN if that can't be found quickly. If
+   * {@code truncated}, nonzero digits were dropped after the significand's 19.
+   */
+  private static double toDouble(boolean negative, long significand, int exponent,
+      boolean truncated) {
+    if (significand == 0) {
+      return negative ? -0.0 : 0.0;
+    }
+    if (!truncated && significand >>> 53 == 0 && -22 <= exponent && exponent <= 22) {
+      // both operands are exact, so the product or quotient is correctly rounded
+      double result = exponent < 0
+          ? significand / DOUBLE_POW10[-exponent]
+          : significand * DOUBLE_POW10[exponent];
+      return negative ? -result : result;
+    }
+    if (exponent < PARSE_EXPONENT_MIN || exponent > PARSE_EXPONENT_MAX) {
+      return Double.NaN;
+    }
+    double result = eiselLemire(negative, significand, exponent);
+    if (truncated && result != eiselLemire(negative, significand + 1, exponent)) {
+      // the dropped digits could decide the rounding
+      return Double.NaN;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the double nearest w 10^q for the unsigned, nonzero {@code w}, or NaN if it's
+   * subnormal, out of range, or too close to halfway between two doubles to tell.
+   */
+  private static double eiselLemire(boolean negative, long w, int q) {
+    long hi10 = ParseTable.HI[q - PARSE_EXPONENT_MIN];
+    long lo10 = ParseTable.LO[q - PARSE_EXPONENT_MIN];
+
+    // normalize, and multiply by the truncated power of ten
+    int lz = Long.numberOfLeadingZeros(w);
+    w <<= lz;
+    long exponent = (217706L * q >> 16) + 64 + 1023 - lz;
+    long xHi = unsignedMultiplyHigh(w, hi10);
+    long xLo = w * hi10;
+
+    if ((xHi & 0x1FF) == 0x1FF && unsignedLess(xLo + w, w)) {
+      // the product's low bits might carry; include the power's low 64 bits
+      long yHi = unsignedMultiplyHigh(w, lo10);
+      long yLo = w * lo10;
+      long mergedHi = xHi;
+      long mergedLo = xLo + yHi;
+      if (unsignedLess(mergedLo, xLo)) {
+        mergedHi++;
+      }
+      if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && unsignedLess(yLo + w, w)) {
+        return Double.NaN;
+      }
+      xHi = mergedHi;
+      xLo = mergedLo;
+    }
+
+    // keep 54 bits, then round to 53
+    int msb = (int) (xHi >>> 63);
+    long mantissa = xHi >>> msb + 9;
+    exponent -= 1 ^ msb;
+    if (xLo == 0 && (xHi & 0x1FF) == 0 && (mantissa & 3) == 1) {
+      // exactly halfway, as far as these bits tell
+      return Double.NaN;
+    }
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if (mantissa >>> 53 != 0) {
+      mantissa >>>= 1;
+      exponent++;
+    }
+    if (exponent <= 0 || exponent >= 0x7FF) {
+      return Double.NaN;
+    }
+    long bits = exponent << 52 | mantissa & T_MASK;
+    return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+  }
+
+  private static boolean unsignedLess(long a, long b) {
+    return a + Long.MIN_VALUE < b + Long.MIN_VALUE;
+  }
+
+  /** Returns the high 64 bits of the unsigned 128-bit product of x and y. */
+  private static long unsignedMultiplyHigh(long x, long y) {
+    return multiplyHigh(x, y) + (x >> 63 & y) + (y >> 63 & x);
+  }
+
+  /** Returns the high 64 bits of the 128-bit product of x and y, like Java 9's Math method. */
+  private static long multiplyHigh(long x, long y) {
+    long x1 = x >> 32;
+    long x2 = x & 0xFFFFFFFFL;
+    long y1 = y >> 32;
+    long y2 = y & 0xFFFFFFFFL;
+    long z2 = x2 * y2;
+    long t = x1 * y2 + (z2 >>> 32);
+    long z1 = t & 0xFFFFFFFFL;
+    long z0 = t >> 32;
+    z1 += x2 * y1;
+    return x1 * y1 + z0 + (z1 >> 32);
+  }
+}
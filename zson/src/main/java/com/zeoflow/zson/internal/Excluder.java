@@ -191,6 +191,45 @@ public final class Excluder implements TypeAdapterFactory, Cloneable {
     return false;
   }
 
+  /**
+   * Returns true if a field is excluded, given its modifiers, declared type and the values of its
+   * version and {@link Expose} annotations instead of the {@link Field} itself. This is used by
+   * type adapters generated at compile time. Exclusion strategies are not consulted since they
+   * inspect the field reflectively; see {@link #hasExclusionStrategies()}.
+   *
+   * @param since the value of the field's {@link Since} annotation, or {@code NaN} if it has none.
+   * @param until the value of the field's {@link Until} annotation, or {@code NaN} if it has none.
+   * @param exposed true if the field has an {@link Expose} annotation that includes it in the
+   *     requested direction.
+   */
+  public boolean excludeField(int fieldModifiers, Class<?> fieldType, double since, double until,
+      boolean exposed, boolean serialize) {
+    if ((modifiers & fieldModifiers) != 0) {
+      return true;
+    }
+
+    if (version != Excluder.IGNORE_VERSIONS && !isValidVersion(since, until)) {
+      return true;
+    }
+
+    if (requireExpose && !exposed) {
+      return true;
+    }
+
+    if (!serializeInnerClasses && isInnerClass(fieldType)) {
+      return true;
+    }
+
+    return isAnonymousOrLocal(fieldType);
+  }
+
+  /**
+   * Returns true if any exclusion strategy was registered for serialization or deserialization.
+   */
+  public boolean hasExclusionStrategies() {
+    return !serializationStrategies.isEmpty() || !deserializationStrategies.isEmpty();
+  }
+
   private boolean excludeClassChecks(Class<?> clazz) {
       if (version != Excluder.IGNORE_VERSIONS && !isValidVersion(clazz.getAnnotation(Since.class), clazz.getAnnotation(Until.class))) {
           return true;
@@ -236,26 +275,20 @@ public final class Excluder implements TypeAdapterFactory, Cloneable {
   }
 
   private boolean isValidVersion(Since since, Until until) {
+    return isValidVersion(since != null ? since.value() : Double.NaN,
+        until != null ? until.value() : Double.NaN);
+  }
+
+  /** Checks version annotation values, where {@code NaN} stands for a missing annotation. */
+  private boolean isValidVersion(double since, double until) {
     return isValidSince(since) && isValidUntil(until);
   }
 
-  private boolean isValidSince(Since annotation) {
-    if (annotation != null) {
-      double annotationVersion = annotation.value();
-      if (annotationVersion > version) {
-        return false;
-      }
-    }
-    return true;
+  private boolean isValidSince(double annotationVersion) {
+    return Double.isNaN(annotationVersion) || annotationVersion <= version;
   }
 
-  private boolean isValidUntil(Until annotation) {
-    if (annotation != null) {
-      double annotationVersion = annotation.value();
-      if (annotationVersion <= version) {
-        return false;
-      }
-    }
-    return true;
+  private boolean isValidUntil(double annotationVersion) {
+    return Double.isNaN(annotationVersion) || annotationVersion > version;
   }
 }
@@ -30,4 +30,10 @@ public abstract class JsonReaderInternalAccess {
    * Changes the type of the current property name token to a string value.
    */
   public abstract void promoteNameToValue(JsonReader reader) throws IOException;
+
+  /**
+   * Returns the offset of the next byte a {@link com.zeoflow.zson.stream.Utf8JsonReader}
+   * reading a byte array will consume.
+   */
+  public abstract int position(JsonReader reader);
 }
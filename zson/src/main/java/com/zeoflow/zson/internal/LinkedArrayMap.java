@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map of non-null keys to values that iterates in insertion order. Small maps keep their
+ * keys and values interleaved in a single array and find keys by scanning it, which costs far
+ * less memory than a node per entry. Past {@link #MAX_ARRAY_SIZE} entries the map moves its
+ * entries to a {@link LinkedHashTreeMap}, whose lookups don't degrade with size or with
+ * colliding hash codes.
+ */
+public final class LinkedArrayMap<K, V> extends AbstractMap<K, V> {
+  /** The most entries kept in the array. */
+  static final int MAX_ARRAY_SIZE = 16;
+
+  private static final Object[] EMPTY_TABLE = {};
+
+  /** Each key followed by its value, or null once {@link #hashed} holds the entries. */
+  private Object[] table = EMPTY_TABLE;
+  /** The number of entries in {@link #table}. */
+  private int size;
+  /** The entries, once there are too many to scan. */
+  private LinkedHashTreeMap<K, V> hashed;
+  private int modCount;
+
+  private EntrySet entrySet;
+  private KeySet keySet;
+
+  @Override public int size() {
+    return hashed != null ? hashed.size() : size;
+  }
+
+  @Override public V get(Object key) {
+    if (hashed != null) {
+      return hashed.get(key);
+    }
+    int index = indexOf(key);
+    return index != -1 ? value(index) : null;
+  }
+
+  @Override public boolean containsKey(Object key) {
+    return hashed != null ? hashed.containsKey(key) : indexOf(key) != -1;
+  }
+
+  @Override public V put(K key, V value) {
+    if (key == null) {
+      throw new NullPointerException("key == null");
+    }
+    if (hashed != null) {
+      return hashed.put(key, value);
+    }
+    int index = indexOf(key);
+    if (index != -1) {
+      V result = value(index);
+      table[index + 1] = value;
+      return result;
+    }
+    modCount++;
+    if (size == MAX_ARRAY_SIZE) {
+      hashed = new LinkedHashTreeMap<K, V>();
+      for (int i = 0; i < size * 2; i += 2) {
+        hashed.put(key(i), value(i));
+      }
+      table = null;
+      size = 0;
+      return hashed.put(key, value);
+    }
+    if (size * 2 == table.length) {
+      table = Arrays.copyOf(table, Math.max(8, table.length * 2));
+    }
+    table[size * 2] = key;
+    table[size * 2 + 1] = value;
+    size++;
+    return null;
+  }
+
+  @Override public V remove(Object key) {
+    if (hashed != null) {
+      return hashed.remove(key);
+    }
+    int index = indexOf(key);
+    if (index == -1) {
+      return null;
+    }
+    V result = value(index);
+    removeAt(index);
+    return result;
+  }
+
+  @Override public void clear() {
+    hashed = null;
+    table = EMPTY_TABLE;
+    size = 0;
+    modCount++;
+  }
+
+  @Override public Set<Entry<K, V>> entrySet() {
+    EntrySet result = entrySet;
+    return result != null ? result : (entrySet = new EntrySet());
+  }
+
+  @Override public Set<K> keySet() {
+    KeySet result = keySet;
+    return result != null ? result : (keySet = new KeySet());
+  }
+
+  @Override public int hashCode() {
+    if (hashed != null) {
+      return hashed.hashCode();
+    }
+    int result = 0;
+    for (int i = 0; i < size * 2; i += 2) {
+      Object value = table[i + 1];
+      result += table[i].hashCode() ^ (value != null ? value.hashCode() : 0);
+    }
+    return result;
+  }
+
+  /** Returns the index of {@code key} in {@link #table}, or -1 if it's absent. */
+  private int indexOf(Object key) {
+    if (key == null) {
+      return -1;
+    }
+    Object[] table = this.table;
+    for (int i = 0, end = size * 2; i < end; i += 2) {
+      Object candidate = table[i];
+      if (candidate == key || key.equals(candidate)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int index) {
+    int end = size * 2;
+    System.arraycopy(table, index + 2, table, index, end - index - 2);
+    table[end - 2] = null;
+    table[end - 1] = null;
+    size--;
+    modCount++;
+  }
+
+  @SuppressWarnings("unchecked") // keys are only ever stored from put(K, V)
+  private K key(int index) {
+    return (K) table[index];
+  }
+
+  @SuppressWarnings("unchecked") // values are only ever stored from put(K, V)
+  private V value(int index) {
+    return (V) table[index + 1];
+  }
+
+  /**
+   * Iterates over {@link #table}. Fails with a {@link ConcurrentModificationException} once the
+   * map has moved to {@link #hashed}, since its entries aren't in the table anymore.
+   */
+  private abstract class ArrayIterator<T> implements Iterator<T> {
+    int next = 0;
+    int lastReturned = -1;
+    int expectedModCount = modCount;
+
+    public final boolean hasNext() {
+      if (hashed != null) {
+        throw new ConcurrentModificationException();
+      }
+      return next < size * 2;
+    }
+
+    public final T next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next >= size * 2) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = next;
+      next += 2;
+      return get(lastReturned);
+    }
+
+    abstract T get(int index);
+
+    public final void remove() {
+      if (lastReturned == -1) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(lastReturned);
+      next = lastReturned;
+      lastReturned = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  /** An entry that writes its value through to the map while its key is still there. */
+  private final class ArrayEntry implements Entry<K, V> {
+    private final K key;
+    private V value;
+
+    ArrayEntry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public V getValue() {
+      return value;
+    }
+
+    public V setValue(V value) {
+      V result = this.value;
+      this.value = value;
+      if (hashed != null) {
+        if (hashed.containsKey(key)) {
+          hashed.put(key, value);
+        }
+      } else {
+        int index = indexOf(key);
+        if (index != -1) {
+          table[index + 1] = value;
+        }
+      }
+      return result;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (o instanceof Entry) {
+        Entry<?, ?> other = (Entry<?, ?>) o;
+        return key.equals(other.getKey())
+            && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+      }
+      return false;
+    }
+
+    @Override public int hashCode() {
+      return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  final class EntrySet extends AbstractSet<Entry<K, V>> {
+    @Override public int size() {
+      return LinkedArrayMap.this.size();
+    }
+
+    @Override public Iterator<Entry<K, V>> iterator() {
+      if (hashed != null) {
+        return hashed.entrySet().iterator();
+      }
+      return new ArrayIterator<Entry<K, V>>() {
+        @Override Entry<K, V> get(int index) {
+          return new ArrayEntry(key(index), value(index));
+        }
+      };
+    }
+
+    @Override public boolean contains(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> entry = (Entry<?, ?>) o;
+      Object key = entry.getKey();
+      if (!containsKey(key)) {
+        return false;
+      }
+      Object value = get(key);
+      return value == null ? entry.getValue() == null : value.equals(entry.getValue());
+    }
+
+    @Override public boolean remove(Object o) {
+      if (!contains(o)) {
+        return false;
+      }
+      LinkedArrayMap.this.remove(((Entry<?, ?>) o).getKey());
+      return true;
+    }
+
+    @Override public void clear() {
+      LinkedArrayMap.this.clear();
+    }
+  }
+
+  final class KeySet extends AbstractSet<K> {
+    @Override public int size() {
+      return LinkedArrayMap.this.size();
+    }
+
+    @Override public Iterator<K> iterator() {
+      if (hashed != null) {
+        return hashed.keySet().iterator();
+      }
+      return new ArrayIterator<K>() {
+        @Override K get(int index) {
+          return key(index);
+        }
+      };
+    }
+
+    @Override public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override public boolean remove(Object key) {
+      if (!containsKey(key)) {
+        return false;
+      }
+      LinkedArrayMap.this.remove(key);
+      return true;
+    }
+
+    @Override public void clear() {
+      LinkedArrayMap.this.clear();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal;
+
+import com.zeoflow.zson.Zson;
+
+import java.lang.reflect.Type;
+
+/**
+ * Internal-only APIs of Zson available only to other classes in Zson.
+ */
+public abstract class ZsonInternalAccess {
+  public static ZsonInternalAccess INSTANCE;
+
+  /**
+   * Returns true if null values read from JSON are assigned to fields.
+   */
+  public abstract boolean deserializeNulls(Zson zson);
+
+  /**
+   * Returns true if an {@link com.zeoflow.zson.InstanceCreator} is registered for exactly
+   * {@code type}.
+   */
+  public abstract boolean hasInstanceCreator(Zson zson, Type type);
+}
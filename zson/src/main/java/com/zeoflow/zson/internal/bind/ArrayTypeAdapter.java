@@ -27,6 +27,7 @@ import com.zeoflow.zson.Zson;
 import com.zeoflow.zson.TypeAdapter;
 import com.zeoflow.zson.TypeAdapterFactory;
 import com.zeoflow.zson.internal.$Zson$Types;
+import com.zeoflow.zson.internal.Primitives;
 import com.zeoflow.zson.reflect.TypeToken;
 import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.stream.JsonToken;
@@ -46,6 +47,15 @@ public final class ArrayTypeAdapter<E> extends TypeAdapter<Object> {
 
       Type componentType = $Zson$Types.getArrayComponentType(type);
       TypeAdapter<?> componentTypeAdapter = zson.getAdapter(TypeToken.get(componentType));
+      if (Primitives.isPrimitive(componentType)) {
+        // elements are written boxed, so the wrapper type's adapter must be built in too
+        Class<?> primitiveType = (Class<?>) componentType;
+        TypeAdapter<?> primitiveArrayAdapter = PrimitiveArrayTypeAdapters.get(primitiveType,
+            componentTypeAdapter, zson.getAdapter(Primitives.wrap(primitiveType)));
+        if (primitiveArrayAdapter != null) {
+          return (TypeAdapter<T>) primitiveArrayAdapter;
+        }
+      }
       return new ArrayTypeAdapter(
           zson, componentTypeAdapter, $Zson$Types.getRawType(componentType));
     }
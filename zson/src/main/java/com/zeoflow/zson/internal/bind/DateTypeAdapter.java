@@ -20,6 +20,7 @@ import com.zeoflow.zson.Zson;
 import com.zeoflow.zson.JsonSyntaxException;
 import com.zeoflow.zson.TypeAdapter;
 import com.zeoflow.zson.TypeAdapterFactory;
+import com.zeoflow.zson.internal.DateFormatPool;
 import com.zeoflow.zson.internal.JavaVersion;
 import com.zeoflow.zson.internal.PreJava9DateFormatProvider;
 import com.zeoflow.zson.internal.bind.util.ISO8601Utils;
@@ -40,8 +41,8 @@ import java.util.Locale;
 /**
  * Adapter for Date. Although this class appears stateless, it is not.
  * DateFormat captures its time zone and locale when it is created, which gives
- * this class state. DateFormat isn't thread safe either, so this class has
- * to synchronize its read and write methods.
+ * this class state. DateFormat isn't thread safe either, so each read and
+ * write borrows a copy of the format that no other thread is using.
  */
 public final class DateTypeAdapter extends TypeAdapter<Date> {
   public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
@@ -55,15 +56,15 @@ public final class DateTypeAdapter extends TypeAdapter<Date> {
    * List of 1 or more different date formats used for de-serialization attempts.
    * The first of them (default US format) is used for serialization as well.
    */
-  private final List<DateFormat> dateFormats = new ArrayList<DateFormat>();
+  private final List<DateFormatPool> dateFormats = new ArrayList<DateFormatPool>();
 
   public DateTypeAdapter() {
-    dateFormats.add(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US));
+    dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)));
     if (!Locale.getDefault().equals(Locale.US)) {
-      dateFormats.add(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT));
+      dateFormats.add(new DateFormatPool(DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT)));
     }
     if (JavaVersion.isJava9OrLater()) {
-      dateFormats.add(PreJava9DateFormatProvider.getUSDateTimeFormat(DateFormat.DEFAULT, DateFormat.DEFAULT));
+      dateFormats.add(new DateFormatPool(PreJava9DateFormatProvider.getUSDateTimeFormat(DateFormat.DEFAULT, DateFormat.DEFAULT)));
     }
   }
 
@@ -75,11 +76,13 @@ public final class DateTypeAdapter extends TypeAdapter<Date> {
     return deserializeToDate(in.nextString());
   }
 
-  private synchronized Date deserializeToDate(String json) {
-    for (DateFormat dateFormat : dateFormats) {
-      try {
-        return dateFormat.parse(json);
-      } catch (ParseException ignored) {}
+  private Date deserializeToDate(String json) {
+    if (!looksLikeIso8601(json)) {
+      for (DateFormatPool dateFormat : dateFormats) {
+        try {
+          return dateFormat.parse(json);
+        } catch (ParseException ignored) {}
+      }
     }
     try {
     	return ISO8601Utils.parse(json, new ParsePosition(0));
@@ -88,7 +91,17 @@ public final class DateTypeAdapter extends TypeAdapter<Date> {
     }
   }
 
-  @Override public synchronized void write(JsonWriter out, Date value) throws IOException {
+  /**
+   * Returns true if {@code json} starts like 2021-03-04T, which none of the date formats can parse
+   * as they don't separate the date and time with a 'T'. Those dates go straight to {@link
+   * ISO8601Utils} rather than failing each format first.
+   */
+  private static boolean looksLikeIso8601(String json) {
+    return json.length() > 10 && json.charAt(4) == '-' && json.charAt(7) == '-'
+        && json.charAt(10) == 'T';
+  }
+
+  @Override public void write(JsonWriter out, Date value) throws IOException {
     if (value == null) {
       out.nullValue();
       return;
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.FieldNamingPolicy;
+import com.zeoflow.zson.FieldNamingStrategy;
+import com.zeoflow.zson.TypeAdapter;
+import com.zeoflow.zson.Zson;
+import com.zeoflow.zson.internal.$Zson$Types;
+import com.zeoflow.zson.internal.Excluder;
+import com.zeoflow.zson.internal.ZsonInternalAccess;
+import com.zeoflow.zson.reflect.TypeToken;
+import com.zeoflow.zson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a class whose type adapter was generated at compile time by
+ * {@code zson-codegen}, bound to the configuration of a {@link Zson} instance.
+ *
+ * <p>Generated adapters describe each field with a {@link Spec}, in the order
+ * {@link ReflectiveTypeAdapterFactory} would visit them. Binding applies the
+ * excluder and naming policy to the specs exactly like the reflective factory
+ * applies them to reflected fields, and looks up the type adapter of every
+ * included field.
+ */
+public final class GeneratedFieldBindings {
+  private static final String[] NO_ALTERNATES = {};
+
+  private final boolean deserializeNulls;
+  /** The serialized name of each field, or null if the field isn't serialized. */
+  private final String[] serializedNames;
+  private final TypeAdapter<?>[] adapters;
+  private final TypeAdapter<?>[] writeAdapters;
+  /** The names fields are deserialized from, matched against the reader's buffer. */
+  private final JsonReader.Options names;
+  /** The index of the field each of {@link #names} belongs to. */
+  private final int[] fieldsByName;
+
+  private GeneratedFieldBindings(boolean deserializeNulls, String[] serializedNames,
+      TypeAdapter<?>[] adapters, TypeAdapter<?>[] writeAdapters, Map<String, Integer> indices) {
+    String[] names = new String[indices.size()];
+    int[] fieldsByName = new int[names.length];
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+      names[i] = entry.getKey();
+      fieldsByName[i++] = entry.getValue();
+    }
+    this.deserializeNulls = deserializeNulls;
+    this.serializedNames = serializedNames;
+    this.adapters = adapters;
+    this.writeAdapters = writeAdapters;
+    this.names = JsonReader.Options.of(names);
+    this.fieldsByName = fieldsByName;
+  }
+
+  /**
+   * Binds {@code specs}, the fields of {@code type}, for {@code context}. Returns null if a generated adapter
+   * can't behave like the reflective one under this configuration: when an
+   * exclusion strategy or a naming strategy other than a
+   * {@link FieldNamingPolicy} is in use, since both inspect fields reflectively,
+   * when an instance creator is registered for {@code type}, or when an
+   * included field can't be accessed directly.
+   */
+  public static GeneratedFieldBindings bind(Zson context, Class<?> type, Spec... specs) {
+    Excluder excluder = context.excluder();
+    FieldNamingStrategy namingStrategy = context.fieldNamingStrategy();
+    if (excluder.hasExclusionStrategies()
+        || !(namingStrategy instanceof FieldNamingPolicy)
+        || ZsonInternalAccess.INSTANCE.hasInstanceCreator(context, type)) {
+      return null;
+    }
+    FieldNamingPolicy namingPolicy = (FieldNamingPolicy) namingStrategy;
+
+    String[] serializedNames = new String[specs.length];
+    TypeAdapter<?>[] adapters = new TypeAdapter<?>[specs.length];
+    TypeAdapter<?>[] writeAdapters = new TypeAdapter<?>[specs.length];
+    Map<String, Integer> indices = new HashMap<String, Integer>();
+    Set<String> names = new HashSet<String>();
+    for (int i = 0; i < specs.length; i++) {
+      Spec spec = specs[i];
+      Class<?> rawType = $Zson$Types.getRawType(spec.type);
+      boolean serialize = !excluder.excludeClass(rawType, true)
+          && !excluder.excludeField(spec.modifiers, rawType, spec.since, spec.until,
+              spec.exposeSerialize, true);
+      boolean deserialize = !excluder.excludeClass(rawType, false)
+          && !excluder.excludeField(spec.modifiers, rawType, spec.since, spec.until,
+              spec.exposeDeserialize, false);
+      if (!serialize && !deserialize) {
+        continue;
+      }
+      if (!spec.accessible || (deserialize && Modifier.isFinal(spec.modifiers))) {
+        return null;
+      }
+
+      String name = spec.serializedName != null
+          ? spec.serializedName
+          : namingPolicy.translateName(spec.name);
+      String duplicate = names.add(name) ? null : name;
+      for (String alternate : spec.alternates) {
+        if (!names.add(alternate) && duplicate == null) duplicate = alternate;
+      }
+      if (duplicate != null) {
+        throw new IllegalArgumentException(
+            type + " declares multiple JSON fields named " + duplicate);
+      }
+
+      if (serialize) {
+        serializedNames[i] = name;
+      }
+      if (deserialize) {
+        indices.put(name, i);
+        for (String alternate : spec.alternates) {
+          indices.put(alternate, i);
+        }
+      }
+      TypeAdapter<?> adapter = context.getAdapter(TypeToken.get(spec.type));
+      adapters[i] = adapter;
+      writeAdapters[i] = TypeAdapterRuntimeTypeWrapper.isPolymorphic(spec.type)
+          ? TypeAdapterRuntimeTypeWrapper.wrap(context, adapter, spec.type)
+          : adapter;
+    }
+    boolean deserializeNulls = ZsonInternalAccess.INSTANCE.deserializeNulls(context);
+    return new GeneratedFieldBindings(
+        deserializeNulls, serializedNames, adapters, writeAdapters, indices);
+  }
+
+  /** Returns true if null values read from JSON are assigned to fields. */
+  public boolean deserializeNulls() {
+    return deserializeNulls;
+  }
+
+  /** Returns the name {@code field} is serialized with, or null if it isn't serialized. */
+  public String serializedName(int field) {
+    return serializedNames[field];
+  }
+
+  /**
+   * Consumes the next property name from {@code in} and returns the index of
+   * the field deserialized from it, or -1 if there is none.
+   */
+  public int selectField(JsonReader in) throws IOException {
+    int name = in.selectName(names);
+    return name != -1 ? fieldsByName[name] : -1;
+  }
+
+  /** Returns the adapter that reads {@code field}. */
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> adapter(int field) {
+    return (TypeAdapter<T>) adapters[field];
+  }
+
+  /** Returns the adapter that writes {@code field}, dispatching on the value's runtime type. */
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> writeAdapter(int field) {
+    return (TypeAdapter<T>) writeAdapters[field];
+  }
+
+  /**
+   * A field as declared in source, with the values of the annotations that
+   * affect its binding.
+   */
+  public static final class Spec {
+    final String name;
+    final int modifiers;
+    final Type type;
+    final boolean accessible;
+    String serializedName;
+    String[] alternates = NO_ALTERNATES;
+    double since = Double.NaN;
+    double until = Double.NaN;
+    boolean exposeSerialize;
+    boolean exposeDeserialize;
+
+    /**
+     * @param name the field's Java name.
+     * @param modifiers the field's {@link Modifier modifiers}.
+     * @param type the field's type, resolved against the bound type.
+     * @param accessible true if the generated adapter can read the field, and
+     *     write it unless it is final.
+     */
+    public Spec(String name, int modifiers, Type type, boolean accessible) {
+      this.name = name;
+      this.modifiers = modifiers;
+      this.type = type;
+      this.accessible = accessible;
+    }
+
+    /** Applies the field's {@link com.zeoflow.zson.annotations.SerializedName} annotation. */
+    public Spec serializedName(String value, String... alternates) {
+      this.serializedName = value;
+      this.alternates = alternates;
+      return this;
+    }
+
+    /** Applies the field's {@link com.zeoflow.zson.annotations.Since} annotation. */
+    public Spec since(double version) {
+      this.since = version;
+      return this;
+    }
+
+    /** Applies the field's {@link com.zeoflow.zson.annotations.Until} annotation. */
+    public Spec until(double version) {
+      this.until = version;
+      return this;
+    }
+
+    /** Applies the field's {@link com.zeoflow.zson.annotations.Expose} annotation. */
+    public Spec expose(boolean serialize, boolean deserialize) {
+      this.exposeSerialize = serialize;
+      this.exposeDeserialize = deserialize;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,529 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.JsonSyntaxException;
+import com.zeoflow.zson.TypeAdapter;
+import com.zeoflow.zson.TypeAdapterFactory;
+import com.zeoflow.zson.Zson;
+import com.zeoflow.zson.reflect.TypeToken;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Type adapters for the java.time types, which are written as the ISO-8601 strings their {@code
+ * toString()} methods return. Strings in the usual shapes are read and written directly, digit
+ * by digit; anything else, like years beyond 9999 or lowercase separators, falls back to the
+ * types' own {@code parse} and {@code toString} methods.
+ *
+ * <p>Only use this class if {@link #SUPPORTED} is true, as Android has java.time from API level
+ * 26 only.
+ */
+public final class JavaTimeTypeAdapters {
+  public static final boolean SUPPORTED = isSupported();
+
+  private JavaTimeTypeAdapters() {
+  }
+
+  private static boolean isSupported() {
+    try {
+      Class.forName("java.time.Instant");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /** Reads and writes ISO-8601 strings, trying a fast path before the java.time parsers. */
+  private abstract static class IsoTypeAdapter<T> extends TypeAdapter<T> {
+    @Override public T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      String text = in.nextString();
+      try {
+        T value = readFast(text);
+        if (value != null) {
+          return value;
+        }
+      } catch (DateTimeException ignored) {
+        // let parse() decide, and explain if it's invalid
+      }
+      try {
+        return parse(text);
+      } catch (DateTimeException e) {
+        throw new JsonSyntaxException(text, e);
+      }
+    }
+
+    @Override public void write(JsonWriter out, T value) throws IOException {
+      out.value(value == null ? null : format(value));
+    }
+
+    /** Returns the value of {@code text}, or null if it isn't in a shape this handles. */
+    abstract T readFast(String text);
+
+    abstract T parse(String text);
+
+    abstract String format(T value);
+  }
+
+  public static final TypeAdapter<LocalDate> LOCAL_DATE = new IsoTypeAdapter<LocalDate>() {
+    @Override LocalDate readFast(String text) {
+      return text.length() == 10 ? date(text, 0) : null;
+    }
+
+    @Override LocalDate parse(String text) {
+      return LocalDate.parse(text);
+    }
+
+    @Override String format(LocalDate value) {
+      if (!isFourDigits(value.getYear())) {
+        return value.toString();
+      }
+      char[] buffer = new char[10];
+      writeDate(buffer, 0, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+      return new String(buffer);
+    }
+  };
+
+  public static final TypeAdapter<LocalTime> LOCAL_TIME = new IsoTypeAdapter<LocalTime>() {
+    @Override LocalTime readFast(String text) {
+      int end = endOfTime(text, 0);
+      return end == text.length() ? time(text, 0, end) : null;
+    }
+
+    @Override LocalTime parse(String text) {
+      return LocalTime.parse(text);
+    }
+
+    @Override String format(LocalTime value) {
+      char[] buffer = new char[18];
+      int length = writeTime(buffer, 0, value, false);
+      return new String(buffer, 0, length);
+    }
+  };
+
+  public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME =
+      new IsoTypeAdapter<LocalDateTime>() {
+    @Override LocalDateTime readFast(String text) {
+      LocalDate date = dateAndT(text);
+      int end = endOfTime(text, 11);
+      return date != null && end == text.length()
+          ? LocalDateTime.of(date, time(text, 11, end))
+          : null;
+    }
+
+    @Override LocalDateTime parse(String text) {
+      return LocalDateTime.parse(text);
+    }
+
+    @Override String format(LocalDateTime value) {
+      if (!isFourDigits(value.getYear())) {
+        return value.toString();
+      }
+      char[] buffer = new char[29];
+      int length = writeDateTime(buffer, value);
+      return new String(buffer, 0, length);
+    }
+  };
+
+  public static final TypeAdapter<OffsetDateTime> OFFSET_DATE_TIME =
+      new IsoTypeAdapter<OffsetDateTime>() {
+    @Override OffsetDateTime readFast(String text) {
+      LocalDate date = dateAndT(text);
+      int end = endOfTime(text, 11);
+      if (date == null || end == -1) {
+        return null;
+      }
+      ZoneOffset offset = offset(text, end, text.length());
+      return offset != null ? OffsetDateTime.of(date, time(text, 11, end), offset) : null;
+    }
+
+    @Override OffsetDateTime parse(String text) {
+      return OffsetDateTime.parse(text);
+    }
+
+    @Override String format(OffsetDateTime value) {
+      if (!isFourDigits(value.getYear())) {
+        return value.toString();
+      }
+      String offset = value.getOffset().getId();
+      char[] buffer = new char[29 + offset.length()];
+      int length = writeDateTime(buffer, value.toLocalDateTime());
+      offset.getChars(0, offset.length(), buffer, length);
+      return new String(buffer, 0, length + offset.length());
+    }
+  };
+
+  public static final TypeAdapter<ZonedDateTime> ZONED_DATE_TIME =
+      new IsoTypeAdapter<ZonedDateTime>() {
+    @Override ZonedDateTime readFast(String text) {
+      LocalDate date = dateAndT(text);
+      int end = endOfTime(text, 11);
+      if (date == null || end == -1) {
+        return null;
+      }
+      int bracket = text.indexOf('[', end);
+      ZoneOffset offset = offset(text, end, bracket == -1 ? text.length() : bracket);
+      if (offset == null) {
+        return null;
+      }
+      ZoneId zone = offset;
+      if (bracket != -1) {
+        if (text.charAt(text.length() - 1) != ']') {
+          return null;
+        }
+        zone = ZoneId.of(text.substring(bracket + 1, text.length() - 1));
+      }
+      // like ZonedDateTime.parse(), which keeps the instant when the offset and zone disagree
+      return ZonedDateTime.ofInstant(LocalDateTime.of(date, time(text, 11, end)), offset, zone);
+    }
+
+    @Override ZonedDateTime parse(String text) {
+      return ZonedDateTime.parse(text);
+    }
+
+    @Override String format(ZonedDateTime value) {
+      if (!isFourDigits(value.getYear())) {
+        return value.toString();
+      }
+      String offset = value.getOffset().getId();
+      String zone = value.getZone() != value.getOffset() ? value.getZone().getId() : null;
+      char[] buffer = new char[29 + offset.length() + (zone != null ? zone.length() + 2 : 0)];
+      int p = writeDateTime(buffer, value.toLocalDateTime());
+      offset.getChars(0, offset.length(), buffer, p);
+      p += offset.length();
+      if (zone != null) {
+        buffer[p++] = '[';
+        zone.getChars(0, zone.length(), buffer, p);
+        p += zone.length();
+        buffer[p++] = ']';
+      }
+      return new String(buffer, 0, p);
+    }
+  };
+
+  public static final TypeAdapter<Instant> INSTANT = new IsoTypeAdapter<Instant>() {
+    @Override Instant readFast(String text) {
+      LocalDate date = dateAndT(text);
+      int end = endOfTime(text, 11);
+      if (date == null || end == -1) {
+        return null;
+      }
+      ZoneOffset offset = offset(text, end, text.length());
+      if (offset == null) {
+        return null;
+      }
+      LocalTime time = time(text, 11, end);
+      long seconds = date.toEpochDay() * 86400 + time.toSecondOfDay() - offset.getTotalSeconds();
+      return Instant.ofEpochSecond(seconds, time.getNano());
+    }
+
+    /** Like {@link Instant#parse}, but also accepts offsets other than Z. */
+    @Override Instant parse(String text) {
+      try {
+        return Instant.parse(text);
+      } catch (DateTimeException e) {
+        try {
+          return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeException ignored) {
+          throw e;
+        }
+      }
+    }
+
+    @Override String format(Instant value) {
+      long seconds = value.getEpochSecond();
+      LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(seconds, 86400L));
+      if (!isFourDigits(date.getYear())) {
+        return value.toString();
+      }
+      int secondOfDay = (int) Math.floorMod(seconds, 86400L);
+      char[] buffer = new char[30];
+      int p = writeDate(buffer, 0, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+      buffer[p++] = 'T';
+      p = writeTime(buffer, p, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+          value.getNano(), true);
+      buffer[p++] = 'Z';
+      return new String(buffer, 0, p);
+    }
+  };
+
+  public static final TypeAdapter<Duration> DURATION = new IsoTypeAdapter<Duration>() {
+    /** Reads durations as {@link Duration#toString()} writes them, like PT-8H6M12.345S. */
+    @Override Duration readFast(String text) {
+      int length = text.length();
+      if (length < 4 || text.charAt(0) != 'P' || text.charAt(1) != 'T') {
+        return null;
+      }
+      long seconds = 0;
+      long nanos = 0;
+      int units = 0; // the H, M and S seen so far, which must come in that order
+      for (int p = 2; p < length; p++) {
+        boolean negative = text.charAt(p) == '-';
+        if (negative) {
+          p++;
+        }
+        int start = p;
+        long value = 0;
+        for (; p < length && isDigit(text.charAt(p)); p++) {
+          value = value * 10 + (text.charAt(p) - '0');
+        }
+        if (p == start || p - start > 15 || p == length) {
+          return null;
+        }
+        int fraction = 0;
+        if (text.charAt(p) == '.') {
+          int digits = 0;
+          for (p++; p < length && digits < 9 && isDigit(text.charAt(p)); p++, digits++) {
+            fraction = fraction * 10 + (text.charAt(p) - '0');
+          }
+          if (digits == 0 || p == length || text.charAt(p) != 'S') {
+            return null;
+          }
+          for (; digits < 9; digits++) {
+            fraction *= 10;
+          }
+        }
+        int unit = "HMS".indexOf(text.charAt(p)) + 1;
+        if (unit <= units) {
+          return null;
+        }
+        units = unit;
+        long unitSeconds = unit == 1 ? 3600 : unit == 2 ? 60 : 1;
+        seconds += negative ? -value * unitSeconds : value * unitSeconds;
+        nanos = negative ? -fraction : fraction;
+      }
+      return Duration.ofSeconds(seconds, nanos);
+    }
+
+    @Override Duration parse(String text) {
+      return Duration.parse(text);
+    }
+
+    @Override String format(Duration value) {
+      return value.toString();
+    }
+  };
+
+  public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+    @SuppressWarnings("unchecked") // we use a runtime check to make sure the 'T's equal
+    @Override public <T> TypeAdapter<T> create(Zson zson, TypeToken<T> typeToken) {
+      Class<? super T> rawType = typeToken.getRawType();
+      if (rawType == Instant.class) {
+        return (TypeAdapter<T>) INSTANT;
+      } else if (rawType == LocalDate.class) {
+        return (TypeAdapter<T>) LOCAL_DATE;
+      } else if (rawType == LocalTime.class) {
+        return (TypeAdapter<T>) LOCAL_TIME;
+      } else if (rawType == LocalDateTime.class) {
+        return (TypeAdapter<T>) LOCAL_DATE_TIME;
+      } else if (rawType == OffsetDateTime.class) {
+        return (TypeAdapter<T>) OFFSET_DATE_TIME;
+      } else if (rawType == ZonedDateTime.class) {
+        return (TypeAdapter<T>) ZONED_DATE_TIME;
+      } else if (rawType == Duration.class) {
+        return (TypeAdapter<T>) DURATION;
+      }
+      return null;
+    }
+  };
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isFourDigits(int year) {
+    return year >= 0 && year <= 9999;
+  }
+
+  /**
+   * Returns the {@code count} digit number at {@code offset} in {@code text}, or -1 if there are
+   * not that many digits there.
+   */
+  private static int number(String text, int offset, int count) {
+    if (offset + count > text.length()) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = offset; i < offset + count; i++) {
+      char c = text.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  private static boolean checkOffset(String text, int offset, char expected) {
+    return offset < text.length() && text.charAt(offset) == expected;
+  }
+
+  /** Returns the yyyy-MM-dd date at {@code offset} in {@code text}, or null. */
+  private static LocalDate date(String text, int offset) {
+    int year = number(text, offset, 4);
+    int month = number(text, offset + 5, 2);
+    int day = number(text, offset + 8, 2);
+    if (year == -1 || month == -1 || day == -1
+        || !checkOffset(text, offset + 4, '-') || !checkOffset(text, offset + 7, '-')) {
+      return null;
+    }
+    return LocalDate.of(year, month, day);
+  }
+
+  /** Returns the date that starts {@code text} if a 'T' follows it, or null. */
+  private static LocalDate dateAndT(String text) {
+    return checkOffset(text, 10, 'T') ? date(text, 0) : null;
+  }
+
+  /**
+   * Returns where the HH:mm[:ss[.SSSSSSSSS]] time at {@code offset} in {@code text} ends, or -1
+   * if there is none.
+   */
+  private static int endOfTime(String text, int offset) {
+    if (number(text, offset, 2) == -1 || !checkOffset(text, offset + 2, ':')
+        || number(text, offset + 3, 2) == -1) {
+      return -1;
+    }
+    if (!checkOffset(text, offset + 5, ':')) {
+      return offset + 5;
+    }
+    if (number(text, offset + 6, 2) == -1) {
+      return -1;
+    }
+    if (!checkOffset(text, offset + 8, '.')) {
+      return offset + 8;
+    }
+    int end = offset + 9;
+    while (end < text.length() && end < offset + 18 && isDigit(text.charAt(end))) {
+      end++;
+    }
+    return end > offset + 9 ? end : -1;
+  }
+
+  /** Returns the time between {@code offset} and {@code end}, found by {@link #endOfTime}. */
+  private static LocalTime time(String text, int offset, int end) {
+    int hour = number(text, offset, 2);
+    int minute = number(text, offset + 3, 2);
+    int second = end > offset + 5 ? number(text, offset + 6, 2) : 0;
+    int nano = 0;
+    if (end > offset + 9) {
+      for (int i = offset + 9; i < end; i++) {
+        nano = nano * 10 + (text.charAt(i) - '0');
+      }
+      for (int digits = end - offset - 9; digits < 9; digits++) {
+        nano *= 10;
+      }
+    }
+    return LocalTime.of(hour, minute, second, nano);
+  }
+
+  /**
+   * Returns the offset, one of Z, +HH:mm or +HH:mm:ss, that is all of {@code text} between
+   * {@code offset} and {@code end}, or null.
+   */
+  private static ZoneOffset offset(String text, int offset, int end) {
+    if (end == offset + 1 && text.charAt(offset) == 'Z') {
+      return ZoneOffset.UTC;
+    }
+    if (end != offset + 6 && end != offset + 9) {
+      return null;
+    }
+    char sign = text.charAt(offset);
+    int hours = number(text, offset + 1, 2);
+    int minutes = number(text, offset + 4, 2);
+    int seconds = end == offset + 9 ? number(text, offset + 7, 2) : 0;
+    if ((sign != '+' && sign != '-') || hours == -1 || minutes == -1 || seconds == -1
+        || !checkOffset(text, offset + 3, ':')
+        || (end == offset + 9 && !checkOffset(text, offset + 6, ':'))) {
+      return null;
+    }
+    return sign == '+'
+        ? ZoneOffset.ofHoursMinutesSeconds(hours, minutes, seconds)
+        : ZoneOffset.ofHoursMinutesSeconds(-hours, -minutes, -seconds);
+  }
+
+  /** Writes the last {@code count} digits of {@code value} and returns where they end. */
+  private static int writeDigits(char[] buffer, int p, int value, int count) {
+    for (int i = p + count - 1; i >= p; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return p + count;
+  }
+
+  private static int writeDate(char[] buffer, int p, int year, int month, int day) {
+    p = writeDigits(buffer, p, year, 4);
+    buffer[p++] = '-';
+    p = writeDigits(buffer, p, month, 2);
+    buffer[p++] = '-';
+    return writeDigits(buffer, p, day, 2);
+  }
+
+  private static int writeTime(char[] buffer, int p, LocalTime time, boolean seconds) {
+    return writeTime(buffer, p, time.getHour(), time.getMinute(), time.getSecond(),
+        time.getNano(), seconds);
+  }
+
+  /**
+   * Writes a time like {@link LocalTime#toString()}: seconds are left out if they and the nanos
+   * are zero, unless {@code seconds} is true, and nanos take 3, 6 or 9 digits as needed.
+   */
+  private static int writeTime(char[] buffer, int p, int hour, int minute, int second, int nano,
+      boolean seconds) {
+    p = writeDigits(buffer, p, hour, 2);
+    buffer[p++] = ':';
+    p = writeDigits(buffer, p, minute, 2);
+    if (seconds || second != 0 || nano != 0) {
+      buffer[p++] = ':';
+      p = writeDigits(buffer, p, second, 2);
+      if (nano != 0) {
+        buffer[p++] = '.';
+        if (nano % 1000000 == 0) {
+          p = writeDigits(buffer, p, nano / 1000000, 3);
+        } else if (nano % 1000 == 0) {
+          p = writeDigits(buffer, p, nano / 1000, 6);
+        } else {
+          p = writeDigits(buffer, p, nano, 9);
+        }
+      }
+    }
+    return p;
+  }
+
+  private static int writeDateTime(char[] buffer, LocalDateTime value) {
+    int p = writeDate(buffer, 0, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+    buffer[p++] = 'T';
+    return writeTime(buffer, p, value.toLocalTime(), false);
+  }
+}
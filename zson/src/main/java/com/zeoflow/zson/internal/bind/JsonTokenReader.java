@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.BEGIN_ARRAY;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.BEGIN_OBJECT;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.DOUBLE;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.END_ARRAY;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.END_OBJECT;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.FALSE;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.LONG;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.NAME;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.NULL;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.NUMBER;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.STRING;
+import static com.zeoflow.zson.internal.bind.JsonTokenWriter.TRUE;
+
+/**
+ * This reader replays the tokens recorded by a {@link JsonTokenWriter}. Values
+ * convert between types the same way they do when the tokens are written as
+ * JSON text and read back.
+ */
+public final class JsonTokenReader extends JsonReader {
+  private static final Reader UNREADABLE_READER = new Reader() {
+    @Override public int read(char[] buffer, int offset, int count) throws IOException {
+      throw new AssertionError();
+    }
+    @Override public void close() throws IOException {
+      throw new AssertionError();
+    }
+  };
+
+  private final JsonTokenWriter tokens;
+  private int pos;
+  /** Set when a name was promoted to a value and is read like a string. */
+  private boolean nameIsValue;
+  private boolean closed;
+
+  /*
+   * The open arrays and objects, with the name or index of the value last
+   * read in each of them, like in JsonReader.
+   */
+  private byte[] stack = new byte[32];
+  private int stackSize = 0;
+  private String[] pathNames = new String[32];
+  private int[] pathIndices = new int[32];
+
+  /** Creates a reader of the tokens {@code tokens} has recorded. */
+  public JsonTokenReader(JsonTokenWriter tokens) {
+    super(UNREADABLE_READER);
+    this.tokens = tokens;
+  }
+
+  /** Rewinds this reader to replay the tokens recorded since they were last cleared. */
+  public void reset() {
+    pos = 0;
+    nameIsValue = false;
+    closed = false;
+    stackSize = 0;
+    pathIndices[0] = 0;
+  }
+
+  private byte peekToken() {
+    if (closed) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+    if (nameIsValue) {
+      return STRING;
+    }
+    return pos < tokens.size ? tokens.tokens[pos] : -1;
+  }
+
+  @Override public JsonToken peek() throws IOException {
+    byte token = peekToken();
+    return token != -1 ? JsonTokenWriter.toJsonToken(token) : JsonToken.END_DOCUMENT;
+  }
+
+  private void expect(byte token, JsonToken expected) throws IOException {
+    if (peekToken() != token) {
+      throw new IllegalStateException(
+          "Expected " + expected + " but was " + peek() + locationString());
+    }
+  }
+
+  private void push(byte scope) {
+    if (stackSize == stack.length) {
+      int newLength = stackSize * 2;
+      stack = Arrays.copyOf(stack, newLength);
+      pathIndices = Arrays.copyOf(pathIndices, newLength);
+      pathNames = Arrays.copyOf(pathNames, newLength);
+    }
+    stack[stackSize] = scope;
+    pathNames[stackSize] = null;
+    pathIndices[stackSize] = 0;
+    stackSize++;
+  }
+
+  /** Consumes the value at {@link #pos}. */
+  private void consumeValue() {
+    nameIsValue = false;
+    pos++;
+    if (stackSize > 0) {
+      pathIndices[stackSize - 1]++;
+    }
+  }
+
+  @Override public void beginArray() throws IOException {
+    expect(BEGIN_ARRAY, JsonToken.BEGIN_ARRAY);
+    pos++;
+    push(BEGIN_ARRAY);
+  }
+
+  @Override public void endArray() throws IOException {
+    expect(END_ARRAY, JsonToken.END_ARRAY);
+    stackSize--;
+    consumeValue();
+  }
+
+  @Override public void beginObject() throws IOException {
+    expect(BEGIN_OBJECT, JsonToken.BEGIN_OBJECT);
+    pos++;
+    push(BEGIN_OBJECT);
+  }
+
+  @Override public void endObject() throws IOException {
+    expect(END_OBJECT, JsonToken.END_OBJECT);
+    stackSize--;
+    consumeValue();
+  }
+
+  @Override public boolean hasNext() throws IOException {
+    byte token = peekToken();
+    return token != END_OBJECT && token != END_ARRAY && token != -1;
+  }
+
+  @Override public String nextName() throws IOException {
+    expect(NAME, JsonToken.NAME);
+    String result = (String) tokens.values[pos++];
+    pathNames[stackSize - 1] = result;
+    return result;
+  }
+
+  @Override public int selectName(Options options) throws IOException {
+    return options.indexOf(nextName());
+  }
+
+  @Override public int selectName(Options options, int expected) throws IOException {
+    String name = nextName();
+    // names are usually the very strings the options were created from
+    if (expected != -1 && options.get(expected) == name) {
+      return expected;
+    }
+    return options.indexOf(name);
+  }
+
+  @Override public String nextString() throws IOException {
+    String result = peekString();
+    if (result == null) {
+      throw new IllegalStateException("Expected a string but was " + peek() + locationString());
+    }
+    consumeValue();
+    return result;
+  }
+
+  @Override public int selectString(Options options) throws IOException {
+    return options.indexOf(nextString());
+  }
+
+  /**
+   * Returns the next string or number as text without consuming it, or null
+   * if the next token is something else.
+   */
+  private String peekString() {
+    switch (peekToken()) {
+    case STRING:
+    case NUMBER:
+      return (String) tokens.values[pos];
+    case LONG:
+      return Long.toString(tokens.numbers[pos]);
+    case DOUBLE:
+      return Double.toString(Double.longBitsToDouble(tokens.numbers[pos]));
+    default:
+      return null;
+    }
+  }
+
+  @Override public boolean nextBoolean() throws IOException {
+    byte token = peekToken();
+    if (token != TRUE && token != FALSE) {
+      throw new IllegalStateException("Expected a boolean but was " + peek() + locationString());
+    }
+    consumeValue();
+    return token == TRUE;
+  }
+
+  @Override public void nextNull() throws IOException {
+    expect(NULL, JsonToken.NULL);
+    consumeValue();
+  }
+
+  @Override public double nextDouble() throws IOException {
+    byte token = peekToken();
+    double result;
+    if (token == DOUBLE) {
+      result = Double.longBitsToDouble(tokens.numbers[pos]);
+    } else if (token == LONG) {
+      result = (double) tokens.numbers[pos];
+    } else if (token == NUMBER || token == STRING) {
+      result = Double.parseDouble(peekString()); // don't catch this NumberFormatException.
+      if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result))) {
+        throw new NumberFormatException(
+            "JSON forbids NaN and infinities: " + result + locationString());
+      }
+    } else {
+      throw new IllegalStateException("Expected a double but was " + peek() + locationString());
+    }
+    consumeValue();
+    return result;
+  }
+
+  @Override public long nextLong() throws IOException {
+    byte token = peekToken();
+    long result;
+    if (token == LONG) {
+      result = tokens.numbers[pos];
+    } else if (token == DOUBLE || token == NUMBER || token == STRING) {
+      double asDouble;
+      if (token == DOUBLE) {
+        asDouble = Double.longBitsToDouble(tokens.numbers[pos]);
+      } else {
+        String string = peekString();
+        try {
+          result = Long.parseLong(string);
+          consumeValue();
+          return result;
+        } catch (NumberFormatException ignored) {
+          // Fall back to parse as a double below.
+        }
+        asDouble = Double.parseDouble(string); // don't catch this NumberFormatException.
+      }
+      result = (long) asDouble;
+      if (result != asDouble) { // Make sure no precision was lost casting to 'long'.
+        throw new NumberFormatException(
+            "Expected a long but was " + peekString() + locationString());
+      }
+    } else {
+      throw new IllegalStateException("Expected a long but was " + peek() + locationString());
+    }
+    consumeValue();
+    return result;
+  }
+
+  @Override public int nextInt() throws IOException {
+    byte token = peekToken();
+    int result;
+    if (token == LONG) {
+      long value = tokens.numbers[pos];
+      result = (int) value;
+      if (value != result) { // Make sure no precision was lost casting to 'int'.
+        throw new NumberFormatException("Expected an int but was " + value + locationString());
+      }
+    } else if (token == DOUBLE || token == NUMBER || token == STRING) {
+      double asDouble;
+      if (token == DOUBLE) {
+        asDouble = Double.longBitsToDouble(tokens.numbers[pos]);
+      } else {
+        String string = peekString();
+        try {
+          result = Integer.parseInt(string);
+          consumeValue();
+          return result;
+        } catch (NumberFormatException ignored) {
+          // Fall back to parse as a double below.
+        }
+        asDouble = Double.parseDouble(string); // don't catch this NumberFormatException.
+      }
+      result = (int) asDouble;
+      if (result != asDouble) { // Make sure no precision was lost casting to 'int'.
+        throw new NumberFormatException(
+            "Expected an int but was " + peekString() + locationString());
+      }
+    } else {
+      throw new IllegalStateException("Expected an int but was " + peek() + locationString());
+    }
+    consumeValue();
+    return result;
+  }
+
+  @Override public void close() throws IOException {
+    closed = true;
+  }
+
+  @Override public void skipValue() throws IOException {
+    int count = 0;
+    do {
+      byte token = peekToken();
+      if (token == -1) {
+        return;
+      }
+      if (token == BEGIN_ARRAY || token == BEGIN_OBJECT) {
+        count++;
+      } else if (token == END_ARRAY || token == END_OBJECT) {
+        if (count == 0) {
+          // there is no value to skip; leave the enclosing array or object
+          stackSize--;
+        }
+        count--;
+      }
+      nameIsValue = false;
+      pos++;
+    } while (count > 0);
+    if (stackSize > 0) {
+      pathIndices[stackSize - 1]++;
+      pathNames[stackSize - 1] = "null";
+    }
+  }
+
+  @Override public String toString() {
+    return getClass().getSimpleName();
+  }
+
+  public void promoteNameToValue() throws IOException {
+    expect(NAME, JsonToken.NAME);
+    nameIsValue = true;
+  }
+
+  @Override public String getPath() {
+    StringBuilder result = new StringBuilder().append('$');
+    for (int i = 0; i < stackSize; i++) {
+      if (stack[i] == BEGIN_ARRAY) {
+        result.append('[').append(pathIndices[i]).append(']');
+      } else {
+        result.append('.');
+        if (pathNames[i] != null) {
+          result.append(pathNames[i]);
+        }
+      }
+    }
+    return result.toString();
+  }
+
+  private String locationString() {
+    return " at path " + getPath();
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * This writer records tokens in memory for a {@link JsonTokenReader} to
+ * replay. Strings are kept as they are and longs, doubles and the boxed
+ * integers and doubles are kept in binary, so handing values from one type
+ * adapter to another costs neither encoding nor parsing. Other numbers, such
+ * as floats and big decimals, are kept as the text they would be written as.
+ */
+public final class JsonTokenWriter extends JsonWriter {
+  private static final Writer UNWRITABLE_WRITER = new Writer() {
+    @Override public void write(char[] buffer, int offset, int counter) {
+      throw new AssertionError();
+    }
+    @Override public void flush() throws IOException {
+      throw new AssertionError();
+    }
+    @Override public void close() throws IOException {
+      throw new AssertionError();
+    }
+  };
+
+  static final byte BEGIN_ARRAY = 0;
+  static final byte END_ARRAY = 1;
+  static final byte BEGIN_OBJECT = 2;
+  static final byte END_OBJECT = 3;
+  static final byte NAME = 4;
+  static final byte STRING = 5;
+  /** A number kept as its literal text in {@link #values}. */
+  static final byte NUMBER = 6;
+  /** A number kept in {@link #numbers}. */
+  static final byte LONG = 7;
+  /** A number kept in {@link #numbers} as its raw long bits. */
+  static final byte DOUBLE = 8;
+  static final byte TRUE = 9;
+  static final byte FALSE = 10;
+  static final byte NULL = 11;
+
+  /** The recorded tokens. */
+  byte[] tokens = new byte[32];
+  /** The names, strings and number literals of the tokens, by position. */
+  Object[] values = new Object[32];
+  /** The binary numbers of the tokens, by position. */
+  long[] numbers = new long[32];
+  int size;
+
+  /** The open arrays and objects, as {@link #BEGIN_ARRAY} or {@link #BEGIN_OBJECT}. */
+  private byte[] stack = new byte[32];
+  private int stackSize;
+  /** The name for the next object value, recorded once the value is written. */
+  private String deferredName;
+  private boolean closed;
+
+  public JsonTokenWriter() {
+    super(UNWRITABLE_WRITER);
+  }
+
+  /** Discards all recorded tokens so that this writer can record another value. */
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+    stackSize = 0;
+    deferredName = null;
+    closed = false;
+  }
+
+  private void add(byte token) {
+    if (size == tokens.length) {
+      int newLength = size * 2;
+      tokens = Arrays.copyOf(tokens, newLength);
+      values = Arrays.copyOf(values, newLength);
+      numbers = Arrays.copyOf(numbers, newLength);
+    }
+    tokens[size++] = token;
+  }
+
+  private void add(byte token, Object value) {
+    add(token);
+    values[size - 1] = value;
+  }
+
+  private void add(byte token, long number) {
+    add(token);
+    numbers[size - 1] = number;
+  }
+
+  private void beforeValue() {
+    if (closed) {
+      throw new IllegalStateException("JsonWriter is closed.");
+    }
+    if (deferredName != null) {
+      add(NAME, deferredName);
+      deferredName = null;
+    } else if (stackSize != 0 && stack[stackSize - 1] == BEGIN_OBJECT) {
+      throw new IllegalStateException("Nesting problem.");
+    }
+  }
+
+  private void open(byte token) {
+    beforeValue();
+    add(token);
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, stackSize * 2);
+    }
+    stack[stackSize++] = token;
+  }
+
+  private void close(byte openToken, byte token) {
+    if (stackSize == 0 || stack[stackSize - 1] != openToken) {
+      throw new IllegalStateException("Nesting problem.");
+    }
+    if (deferredName != null) {
+      throw new IllegalStateException("Dangling name: " + deferredName);
+    }
+    stackSize--;
+    add(token);
+  }
+
+  @Override public JsonWriter beginArray() throws IOException {
+    open(BEGIN_ARRAY);
+    return this;
+  }
+
+  @Override public JsonWriter endArray() throws IOException {
+    close(BEGIN_ARRAY, END_ARRAY);
+    return this;
+  }
+
+  @Override public JsonWriter beginObject() throws IOException {
+    open(BEGIN_OBJECT);
+    return this;
+  }
+
+  @Override public JsonWriter endObject() throws IOException {
+    close(BEGIN_OBJECT, END_OBJECT);
+    return this;
+  }
+
+  @Override public JsonWriter name(String name) throws IOException {
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    if (deferredName != null || stackSize == 0 || stack[stackSize - 1] != BEGIN_OBJECT) {
+      throw new IllegalStateException();
+    }
+    deferredName = name;
+    return this;
+  }
+
+  @Override public JsonWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    add(STRING, value);
+    return this;
+  }
+
+  @Override public JsonWriter jsonValue(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    literal(value);
+    return this;
+  }
+
+  @Override public JsonWriter nullValue() throws IOException {
+    if (deferredName != null && !getSerializeNulls()) {
+      deferredName = null;
+      return this; // skip the name and the value
+    }
+    beforeValue();
+    add(NULL);
+    return this;
+  }
+
+  @Override public JsonWriter value(boolean value) throws IOException {
+    beforeValue();
+    add(value ? TRUE : FALSE);
+    return this;
+  }
+
+  @Override public JsonWriter value(Boolean value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    return value(value.booleanValue());
+  }
+
+  @Override public JsonWriter value(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      if (!isLenient()) {
+        throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+      }
+      // written as a bare word, which reads back as a string
+      beforeValue();
+      add(STRING, Double.toString(value));
+      return this;
+    }
+    beforeValue();
+    add(DOUBLE, Double.doubleToRawLongBits(value));
+    return this;
+  }
+
+  @Override public JsonWriter value(long value) throws IOException {
+    beforeValue();
+    add(LONG, value);
+    return this;
+  }
+
+  @Override public JsonWriter value(Number value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    Class<?> type = value.getClass();
+    if (type == Integer.class || type == Long.class || type == Short.class
+        || type == Byte.class) {
+      return value(value.longValue());
+    } else if (type == Double.class) {
+      return value(value.doubleValue());
+    }
+    // other numbers keep their text, which a long or double may not reproduce
+    String string = value.toString();
+    if (!isLenient()
+        && (string.equals("-Infinity") || string.equals("Infinity") || string.equals("NaN"))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    literal(string);
+    return this;
+  }
+
+  /** Records {@code json} as the tokens a lenient reader would see in it. */
+  private void literal(String json) throws IOException {
+    if (isNumber(json)) {
+      beforeValue();
+      add(NUMBER, json);
+      return;
+    }
+    JsonReader reader = new JsonReader(new StringReader(json));
+    reader.setLenient(true);
+    copy(reader);
+  }
+
+  private void copy(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+    case BEGIN_ARRAY:
+      reader.beginArray();
+      beginArray();
+      while (reader.hasNext()) {
+        copy(reader);
+      }
+      reader.endArray();
+      endArray();
+      break;
+    case BEGIN_OBJECT:
+      reader.beginObject();
+      beginObject();
+      while (reader.hasNext()) {
+        name(reader.nextName());
+        copy(reader);
+      }
+      reader.endObject();
+      endObject();
+      break;
+    case STRING:
+      value(reader.nextString());
+      break;
+    case NUMBER:
+      beforeValue();
+      add(NUMBER, reader.nextString());
+      break;
+    case BOOLEAN:
+      value(reader.nextBoolean());
+      break;
+    case NULL:
+      reader.nextNull();
+      beforeValue();
+      add(NULL);
+      break;
+    default:
+      throw new IllegalArgumentException("Not a JSON value: " + reader.peek());
+    }
+  }
+
+  /** Returns true if {@code s} is a number as RFC 7159 defines it. */
+  private static boolean isNumber(String s) {
+    int i = 0;
+    int length = s.length();
+    if (i < length && s.charAt(i) == '-') i++;
+    if (i == length) return false;
+    if (s.charAt(i) == '0') {
+      i++;
+    } else {
+      int start = i;
+      while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+      if (i == start) return false;
+    }
+    if (i < length && s.charAt(i) == '.') {
+      int start = ++i;
+      while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+      if (i == start) return false;
+    }
+    if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+      i++;
+      if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+      int start = i;
+      while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+      if (i == start) return false;
+    }
+    return i == length;
+  }
+
+  /** Returns the token type a reader reports for the recorded token {@code token}. */
+  static JsonToken toJsonToken(byte token) {
+    switch (token) {
+    case BEGIN_ARRAY:
+      return JsonToken.BEGIN_ARRAY;
+    case END_ARRAY:
+      return JsonToken.END_ARRAY;
+    case BEGIN_OBJECT:
+      return JsonToken.BEGIN_OBJECT;
+    case END_OBJECT:
+      return JsonToken.END_OBJECT;
+    case NAME:
+      return JsonToken.NAME;
+    case STRING:
+      return JsonToken.STRING;
+    case NUMBER:
+    case LONG:
+    case DOUBLE:
+      return JsonToken.NUMBER;
+    case TRUE:
+    case FALSE:
+      return JsonToken.BOOLEAN;
+    case NULL:
+      return JsonToken.NULL;
+    default:
+      throw new AssertionError();
+    }
+  }
+
+  @Override public void flush() throws IOException {
+  }
+
+  @Override public void close() throws IOException {
+    if (stackSize != 0 || deferredName != null) {
+      throw new IOException("Incomplete document");
+    }
+    closed = true;
+  }
+}
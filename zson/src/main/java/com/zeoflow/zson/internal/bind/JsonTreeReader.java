@@ -189,6 +189,19 @@ public final class JsonTreeReader extends JsonReader
     return result;
   }
 
+  @Override public int selectName(Options options) throws IOException {
+    // the tree already holds the name as a string
+    return options.indexOf(nextName());
+  }
+
+  @Override public int selectName(Options options, int expected) throws IOException {
+    return options.indexOf(nextName());
+  }
+
+  @Override public int selectString(Options options) throws IOException {
+    return options.indexOf(nextString());
+  }
+
   @Override public boolean nextBoolean() throws IOException {
     expect(JsonToken.BOOLEAN);
     boolean result = ((JsonPrimitive) popStack()).getAsBoolean();
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.JsonSyntaxException;
+import com.zeoflow.zson.TypeAdapter;
+import com.zeoflow.zson.internal.Base64;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Type adapters for arrays of primitives. They read elements straight into a
+ * growing primitive array and write them with the writer's primitive value
+ * methods, so no element is boxed. Their JSON is the same as
+ * {@link ArrayTypeAdapter} writes with the built-in element adapters.
+ */
+public final class PrimitiveArrayTypeAdapters {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private PrimitiveArrayTypeAdapters() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the adapter for arrays of {@code componentType}, or null if there
+   * is none or the adapters that read elements and write their boxed values
+   * aren't the built-in ones.
+   */
+  static TypeAdapter<?> get(Class<?> componentType, TypeAdapter<?> componentTypeAdapter,
+      TypeAdapter<?> wrapperTypeAdapter) {
+    if (componentTypeAdapter != wrapperTypeAdapter) {
+      return null;
+    }
+    if (componentType == int.class && componentTypeAdapter == TypeAdapters.INTEGER) {
+      return INT_ARRAY;
+    } else if (componentType == long.class && componentTypeAdapter == TypeAdapters.LONG) {
+      return LONG_ARRAY;
+    } else if (componentType == double.class) {
+      return componentTypeAdapter == TypeAdapters.DOUBLE ? DOUBLE_ARRAY
+          : componentTypeAdapter == TypeAdapters.STRICT_DOUBLE ? STRICT_DOUBLE_ARRAY
+          : null;
+    } else if (componentType == float.class) {
+      return componentTypeAdapter == TypeAdapters.FLOAT ? FLOAT_ARRAY
+          : componentTypeAdapter == TypeAdapters.STRICT_FLOAT ? STRICT_FLOAT_ARRAY
+          : null;
+    } else if (componentType == boolean.class && componentTypeAdapter == TypeAdapters.BOOLEAN) {
+      return BOOLEAN_ARRAY;
+    } else if (componentType == byte.class && componentTypeAdapter == TypeAdapters.BYTE) {
+      return BYTE_ARRAY;
+    }
+    return null;
+  }
+
+  public static final TypeAdapter<int[]> INT_ARRAY = new PrimitiveArrayTypeAdapter<int[]>() {
+    @Override int[] readElements(JsonReader in) throws IOException {
+      int[] array = new int[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        checkNotNull(in, int.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        try {
+          array[size++] = in.nextInt();
+        } catch (NumberFormatException e) {
+          throw new JsonSyntaxException(e);
+        }
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+    @Override void writeElements(JsonWriter out, int[] array) throws IOException {
+      boolean boxed = out instanceof JsonTreeWriter;
+      for (int value : array) {
+        if (boxed) {
+          out.value(Integer.valueOf(value));
+        } else {
+          out.value(value);
+        }
+      }
+    }
+  };
+
+  public static final TypeAdapter<long[]> LONG_ARRAY = new PrimitiveArrayTypeAdapter<long[]>() {
+    @Override long[] readElements(JsonReader in) throws IOException {
+      long[] array = new long[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        checkNotNull(in, long.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        try {
+          array[size++] = in.nextLong();
+        } catch (NumberFormatException e) {
+          throw new JsonSyntaxException(e);
+        }
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+    @Override void writeElements(JsonWriter out, long[] array) throws IOException {
+      for (long value : array) {
+        out.value(value);
+      }
+    }
+  };
+
+  public static final TypeAdapter<double[]> DOUBLE_ARRAY = new DoubleArrayTypeAdapter(false);
+
+  /**
+   * Like {@link #DOUBLE_ARRAY}, but refuses to write NaN and infinities, like
+   * {@link TypeAdapters#STRICT_DOUBLE}.
+   */
+  public static final TypeAdapter<double[]> STRICT_DOUBLE_ARRAY = new DoubleArrayTypeAdapter(true);
+
+  public static final TypeAdapter<float[]> FLOAT_ARRAY = new FloatArrayTypeAdapter(false);
+
+  /**
+   * Like {@link #FLOAT_ARRAY}, but refuses to write NaN and infinities, like
+   * {@link TypeAdapters#STRICT_FLOAT}.
+   */
+  public static final TypeAdapter<float[]> STRICT_FLOAT_ARRAY = new FloatArrayTypeAdapter(true);
+
+  public static final TypeAdapter<boolean[]> BOOLEAN_ARRAY =
+      new PrimitiveArrayTypeAdapter<boolean[]>() {
+    @Override boolean[] readElements(JsonReader in) throws IOException {
+      boolean[] array = new boolean[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        JsonToken token = checkNotNull(in, boolean.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        // support strings for compatibility with Zson 1.7
+        array[size++] = token == JsonToken.STRING
+            ? Boolean.parseBoolean(in.nextString())
+            : in.nextBoolean();
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+    @Override void writeElements(JsonWriter out, boolean[] array) throws IOException {
+      for (boolean value : array) {
+        out.value(value);
+      }
+    }
+  };
+
+  /** Reads and writes byte arrays as arrays of numbers. */
+  public static final TypeAdapter<byte[]> BYTE_ARRAY = new PrimitiveArrayTypeAdapter<byte[]>() {
+    @Override byte[] readElements(JsonReader in) throws IOException {
+      byte[] array = new byte[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        checkNotNull(in, byte.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        try {
+          array[size++] = (byte) in.nextInt();
+        } catch (NumberFormatException e) {
+          throw new JsonSyntaxException(e);
+        }
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+    @Override void writeElements(JsonWriter out, byte[] array) throws IOException {
+      boolean boxed = out instanceof JsonTreeWriter;
+      for (byte value : array) {
+        if (boxed) {
+          out.value(Byte.valueOf(value));
+        } else {
+          out.value(value);
+        }
+      }
+    }
+  };
+
+  /**
+   * Writes byte arrays as Base64 strings. Reads both Base64 strings and
+   * arrays of numbers.
+   */
+  public static final TypeAdapter<byte[]> BASE64_BYTE_ARRAY = new TypeAdapter<byte[]>() {
+    @Override public byte[] read(JsonReader in) throws IOException {
+      JsonToken token = in.peek();
+      if (token == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      } else if (token == JsonToken.BEGIN_ARRAY) {
+        return BYTE_ARRAY.read(in);
+      }
+      String path = in.getPath();
+      byte[] bytes = Base64.decode(in.nextString());
+      if (bytes == null) {
+        throw new JsonSyntaxException("Expected a Base64 string at path " + path);
+      }
+      return bytes;
+    }
+    @Override public void write(JsonWriter out, byte[] value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      out.value(Base64.encode(value));
+    }
+  };
+
+  private abstract static class PrimitiveArrayTypeAdapter<A> extends TypeAdapter<A> {
+    @Override public A read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      in.beginArray();
+      A array = readElements(in);
+      in.endArray();
+      return array;
+    }
+
+    @Override public void write(JsonWriter out, A array) throws IOException {
+      if (array == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginArray();
+      writeElements(out, array);
+      out.endArray();
+    }
+
+    abstract A readElements(JsonReader in) throws IOException;
+
+    abstract void writeElements(JsonWriter out, A array) throws IOException;
+  }
+
+  private static final class DoubleArrayTypeAdapter
+      extends PrimitiveArrayTypeAdapter<double[]> {
+    private final boolean strict;
+
+    DoubleArrayTypeAdapter(boolean strict) {
+      this.strict = strict;
+    }
+
+    @Override double[] readElements(JsonReader in) throws IOException {
+      double[] array = new double[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        checkNotNull(in, double.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        array[size++] = in.nextDouble();
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    @Override void writeElements(JsonWriter out, double[] array) throws IOException {
+      boolean boxed = out instanceof JsonTreeWriter;
+      for (double value : array) {
+        if (strict) {
+          TypeAdapters.checkValidFloatingPoint(value);
+        }
+        if (boxed) {
+          out.value(Double.valueOf(value));
+        } else {
+          out.value(value);
+        }
+      }
+    }
+  }
+
+  private static final class FloatArrayTypeAdapter extends PrimitiveArrayTypeAdapter<float[]> {
+    private final boolean strict;
+
+    FloatArrayTypeAdapter(boolean strict) {
+      this.strict = strict;
+    }
+
+    @Override float[] readElements(JsonReader in) throws IOException {
+      float[] array = new float[INITIAL_CAPACITY];
+      int size = 0;
+      while (in.hasNext()) {
+        checkNotNull(in, float.class);
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size * 2);
+        }
+        array[size++] = (float) in.nextDouble();
+      }
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    @Override void writeElements(JsonWriter out, float[] array) throws IOException {
+      for (float value : array) {
+        if (strict) {
+          TypeAdapters.checkValidFloatingPoint(value);
+        }
+        TypeAdapters.writeFloat(out, value);
+      }
+    }
+  }
+
+  /**
+   * Returns the next token, which must not be a null: primitive arrays can't
+   * hold one.
+   */
+  private static JsonToken checkNotNull(JsonReader in, Class<?> componentType)
+      throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      throw new IllegalArgumentException(
+          "Expected " + componentType + " but was null at path " + in.getPath());
+    }
+    return token;
+  }
+}
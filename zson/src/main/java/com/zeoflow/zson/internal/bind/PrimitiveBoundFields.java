@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zeoflow.zson.internal.bind;
+
+import com.zeoflow.zson.JsonSyntaxException;
+import com.zeoflow.zson.TypeAdapter;
+import com.zeoflow.zson.internal.bind.ReflectiveTypeAdapterFactory.BoundField;
+import com.zeoflow.zson.internal.reflect.FieldAccessor;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Bound fields for primitive fields that use the built-in type adapters.
+ * They move values between the reader or writer and the field with
+ * primitive methods, so reading and writing them boxes nothing.
+ *
+ * <p>Each one behaves exactly like its adapter would. Numbers written to a
+ * {@link JsonTreeWriter} are still boxed so the tree holds the same kind of
+ * {@link Number} as before.
+ */
+final class PrimitiveBoundFields {
+  private PrimitiveBoundFields() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns a bound field for a field of type {@code fieldType}, or null if
+   * it isn't a primitive type or the adapters that read it and write its
+   * boxed values aren't the built-in ones.
+   */
+  static BoundField create(String name, boolean serialize, boolean deserialize,
+      Class<?> fieldType, FieldAccessor accessor, TypeAdapter<?> typeAdapter,
+      TypeAdapter<?> wrapperAdapter) {
+    if (typeAdapter != wrapperAdapter) {
+      return null;
+    }
+    if (fieldType == int.class && typeAdapter == TypeAdapters.INTEGER) {
+      return new IntField(name, serialize, deserialize, accessor);
+    } else if (fieldType == long.class && typeAdapter == TypeAdapters.LONG) {
+      return new LongField(name, serialize, deserialize, accessor);
+    } else if (fieldType == double.class && (typeAdapter == TypeAdapters.DOUBLE
+        || typeAdapter == TypeAdapters.STRICT_DOUBLE)) {
+      return new DoubleField(name, serialize, deserialize, accessor,
+          typeAdapter == TypeAdapters.STRICT_DOUBLE);
+    } else if (fieldType == boolean.class && typeAdapter == TypeAdapters.BOOLEAN) {
+      return new BooleanField(name, serialize, deserialize, accessor);
+    } else if (fieldType == float.class && (typeAdapter == TypeAdapters.FLOAT
+        || typeAdapter == TypeAdapters.STRICT_FLOAT)) {
+      return new FloatField(name, serialize, deserialize, accessor,
+          typeAdapter == TypeAdapters.STRICT_FLOAT);
+    } else if (fieldType == short.class && typeAdapter == TypeAdapters.SHORT) {
+      return new ShortField(name, serialize, deserialize, accessor);
+    } else if (fieldType == byte.class && typeAdapter == TypeAdapters.BYTE) {
+      return new ByteField(name, serialize, deserialize, accessor);
+    } else if (fieldType == char.class && typeAdapter == TypeAdapters.CHARACTER) {
+      return new CharField(name, serialize, deserialize, accessor);
+    }
+    return null;
+  }
+
+  private abstract static class PrimitiveField extends BoundField {
+    final FieldAccessor accessor;
+
+    PrimitiveField(String name, boolean serialized, boolean deserialized,
+        FieldAccessor accessor) {
+      super(name, serialized, deserialized);
+      this.accessor = accessor;
+    }
+
+    @Override boolean writeField(Object value) {
+      return serialized; // a primitive value is never the object itself
+    }
+
+    @Override final void read(JsonReader reader, Object value)
+        throws IOException, IllegalAccessException {
+      JsonToken token = reader.peek();
+      if (token == JsonToken.NULL) {
+        reader.nextNull(); // keep the field's current value
+        return;
+      }
+      read(reader, token, value);
+    }
+
+    abstract void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException;
+  }
+
+  private static final class IntField extends PrimitiveField {
+    IntField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      int intValue;
+      try {
+        intValue = reader.nextInt();
+      } catch (NumberFormatException e) {
+        throw new JsonSyntaxException(e);
+      }
+      accessor.setInt(value, intValue);
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      int intValue = accessor.getInt(value);
+      if (writer instanceof JsonTreeWriter) {
+        writer.value(Integer.valueOf(intValue));
+      } else {
+        writer.value(intValue);
+      }
+    }
+  }
+
+  private static final class LongField extends PrimitiveField {
+    LongField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      long longValue;
+      try {
+        longValue = reader.nextLong();
+      } catch (NumberFormatException e) {
+        throw new JsonSyntaxException(e);
+      }
+      accessor.setLong(value, longValue);
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      writer.value(accessor.getLong(value));
+    }
+  }
+
+  private static final class DoubleField extends PrimitiveField {
+    private final boolean strict;
+
+    DoubleField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor,
+        boolean strict) {
+      super(name, serialized, deserialized, accessor);
+      this.strict = strict;
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      accessor.setDouble(value, reader.nextDouble());
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      double doubleValue = accessor.getDouble(value);
+      if (strict) {
+        TypeAdapters.checkValidFloatingPoint(doubleValue);
+      }
+      if (writer instanceof JsonTreeWriter) {
+        writer.value(Double.valueOf(doubleValue));
+      } else {
+        writer.value(doubleValue);
+      }
+    }
+  }
+
+  private static final class FloatField extends PrimitiveField {
+    private final boolean strict;
+
+    FloatField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor,
+        boolean strict) {
+      super(name, serialized, deserialized, accessor);
+      this.strict = strict;
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      accessor.setFloat(value, (float) reader.nextDouble());
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      float floatValue = accessor.getFloat(value);
+      if (strict) {
+        TypeAdapters.checkValidFloatingPoint(floatValue);
+      }
+      TypeAdapters.writeFloat(writer, floatValue);
+    }
+  }
+
+  private static final class BooleanField extends PrimitiveField {
+    BooleanField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      // support strings for compatibility with Zson 1.7
+      accessor.setBoolean(value, token == JsonToken.STRING
+          ? Boolean.parseBoolean(reader.nextString())
+          : reader.nextBoolean());
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      writer.value(accessor.getBoolean(value));
+    }
+  }
+
+  private static final class ShortField extends PrimitiveField {
+    ShortField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      int intValue;
+      try {
+        intValue = reader.nextInt();
+      } catch (NumberFormatException e) {
+        throw new JsonSyntaxException(e);
+      }
+      accessor.setShort(value, (short) intValue);
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      short shortValue = accessor.getShort(value);
+      if (writer instanceof JsonTreeWriter) {
+        writer.value(Short.valueOf(shortValue));
+      } else {
+        writer.value(shortValue);
+      }
+    }
+  }
+
+  private static final class ByteField extends PrimitiveField {
+    ByteField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      int intValue;
+      try {
+        intValue = reader.nextInt();
+      } catch (NumberFormatException e) {
+        throw new JsonSyntaxException(e);
+      }
+      accessor.setByte(value, (byte) intValue);
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      byte byteValue = accessor.getByte(value);
+      if (writer instanceof JsonTreeWriter) {
+        writer.value(Byte.valueOf(byteValue));
+      } else {
+        writer.value(byteValue);
+      }
+    }
+  }
+
+  private static final class CharField extends PrimitiveField {
+    CharField(String name, boolean serialized, boolean deserialized, FieldAccessor accessor) {
+      super(name, serialized, deserialized, accessor);
+    }
+
+    @Override void read(JsonReader reader, JsonToken token, Object value)
+        throws IOException, IllegalAccessException {
+      String str = reader.nextString();
+      if (str.length() != 1) {
+        throw new JsonSyntaxException("Expecting character, got: " + str);
+      }
+      accessor.setChar(value, str.charAt(0));
+    }
+
+    @Override void write(JsonWriter writer, Object value)
+        throws IOException, IllegalAccessException {
+      writer.value(String.valueOf(accessor.getChar(value)));
+    }
+  }
+}
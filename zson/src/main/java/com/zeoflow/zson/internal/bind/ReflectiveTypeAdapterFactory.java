@@ -28,6 +28,7 @@ import com.zeoflow.zson.internal.ConstructorConstructor;
 import com.zeoflow.zson.internal.Excluder;
 import com.zeoflow.zson.internal.ObjectConstructor;
 import com.zeoflow.zson.internal.Primitives;
+import com.zeoflow.zson.internal.reflect.FieldAccessor;
 import com.zeoflow.zson.internal.reflect.ReflectionAccessor;
 import com.zeoflow.zson.reflect.TypeToken;
 import com.zeoflow.zson.stream.JsonReader;
@@ -106,7 +107,7 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
   }
 
   private ReflectiveTypeAdapterFactory.BoundField createBoundField(
-      final Zson context, final Field field, final String name,
+      final Zson context, final Field field, final FieldAccessor fieldAccessor, final String name,
       final TypeToken<?> fieldType, boolean serialize, boolean deserialize) {
     final boolean isPrimitive = Primitives.isPrimitive(fieldType.getRawType());
     // special casing primitives here saves ~5% on Android...
@@ -120,14 +121,27 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
     if (mapped == null) mapped = context.getAdapter(fieldType);
 
     final TypeAdapter<?> typeAdapter = mapped;
+    if (!jsonAdapterPresent && isPrimitive) {
+      // values are written with the wrapper type's adapter, so both must be built in
+      Class<?> rawType = fieldType.getRawType();
+      TypeAdapter<?> wrapperAdapter = context.getAdapter(Primitives.wrap(rawType));
+      BoundField primitiveField = PrimitiveBoundFields.create(name, serialize, deserialize,
+          rawType, fieldAccessor, typeAdapter, wrapperAdapter);
+      if (primitiveField != null) {
+        return primitiveField;
+      }
+    }
+    // resolve runtime type dispatch once per field rather than once per value
+    final TypeAdapter<?> writeAdapter =
+        jsonAdapterPresent || !TypeAdapterRuntimeTypeWrapper.isPolymorphic(fieldType.getType())
+            ? typeAdapter
+            : TypeAdapterRuntimeTypeWrapper.wrap(context, typeAdapter, fieldType.getType());
     return new ReflectiveTypeAdapterFactory.BoundField(name, serialize, deserialize) {
       @SuppressWarnings({"unchecked", "rawtypes"}) // the type adapter and field type always agree
       @Override void write(JsonWriter writer, Object value)
           throws IOException, IllegalAccessException {
-        Object fieldValue = field.get(value);
-        TypeAdapter t = jsonAdapterPresent ? typeAdapter
-            : new TypeAdapterRuntimeTypeWrapper(context, typeAdapter, fieldType.getType());
-        t.write(writer, fieldValue);
+        Object fieldValue = fieldAccessor.get(value);
+        ((TypeAdapter) writeAdapter).write(writer, fieldValue);
       }
       @Override void read(JsonReader reader, Object value)
           throws IOException, IllegalAccessException {
@@ -136,12 +150,12 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
           return;
         }
         if (fieldValue != null || !isPrimitive) {
-          field.set(value, fieldValue);
+          fieldAccessor.set(value, fieldValue);
         }
       }
       @Override public boolean writeField(Object value) throws IOException, IllegalAccessException {
         if (!serialized) return false;
-        Object fieldValue = field.get(value);
+        Object fieldValue = fieldAccessor.get(value);
         return fieldValue != value; // avoid recursion for example for Throwable.cause
       }
     };
@@ -163,13 +177,14 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
           continue;
         }
         accessor.makeAccessible(field);
+        FieldAccessor fieldAccessor = FieldAccessor.create(field);
         Type fieldType = $Zson$Types.resolve(type.getType(), raw, field.getGenericType());
         List<String> fieldNames = getFieldNames(field);
         BoundField previous = null;
         for (int i = 0, size = fieldNames.size(); i < size; ++i) {
           String name = fieldNames.get(i);
           if (i != 0) serialize = false; // only serialize the default name
-          BoundField boundField = createBoundField(context, field, name,
+          BoundField boundField = createBoundField(context, field, fieldAccessor, name,
               TypeToken.get(fieldType), serialize, deserialize);
           BoundField replaced = result.put(name, boundField);
           if (previous == null) previous = replaced;
@@ -203,10 +218,34 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
   public static final class Adapter<T> extends TypeAdapter<T> {
     private final ObjectConstructor<T> constructor;
     private final Map<String, BoundField> boundFields;
+    /** The names of {@link #boundFields}, matched against the reader's buffer. */
+    private final JsonReader.Options names;
+    /** The bound fields, indexed like {@link #names}. */
+    private final BoundField[] fieldsByName;
+    /**
+     * For each name, the index of the name expected to follow it, or -1 for
+     * none. Predictions follow the order {@link #write} uses, so reading our
+     * own output rarely needs a lookup.
+     */
+    private final int[] nextExpected;
+    /** The index of the name expected first, or -1 for none. */
+    private final int firstExpected;
 
     Adapter(ObjectConstructor<T> constructor, Map<String, BoundField> boundFields) {
       this.constructor = constructor;
       this.boundFields = boundFields;
+      this.names = JsonReader.Options.of(boundFields.keySet().toArray(new String[0]));
+      this.fieldsByName = boundFields.values().toArray(new BoundField[0]);
+      this.nextExpected = new int[fieldsByName.length];
+      int following = -1;
+      for (int i = fieldsByName.length - 1; i >= 0; i--) {
+        // alternate names share the successor of the name they follow
+        nextExpected[i] = following;
+        if (fieldsByName[i].serialized) {
+          following = i;
+        }
+      }
+      this.firstExpected = following;
     }
 
     @Override public T read(JsonReader in) throws IOException {
@@ -219,9 +258,14 @@ public final class ReflectiveTypeAdapterFactory implements TypeAdapterFactory {
 
       try {
         in.beginObject();
+        int expected = firstExpected;
         while (in.hasNext()) {
-          String name = in.nextName();
-          BoundField field = boundFields.get(name);
+          int index = in.selectName(names, expected);
+          BoundField field = null;
+          if (index != -1) {
+            field = fieldsByName[index];
+            expected = nextExpected[index];
+          }
           if (field == null || !field.deserialized) {
             in.skipValue();
           } else {
@@ -20,21 +20,21 @@ import com.zeoflow.zson.Zson;
 import com.zeoflow.zson.JsonSyntaxException;
 import com.zeoflow.zson.TypeAdapter;
 import com.zeoflow.zson.TypeAdapterFactory;
+import com.zeoflow.zson.internal.DateFormatPool;
 import com.zeoflow.zson.reflect.TypeToken;
 import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.stream.JsonToken;
 import com.zeoflow.zson.stream.JsonWriter;
 
 import java.io.IOException;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 
 /**
  * Adapter for java.sql.Date. Although this class appears stateless, it is not.
  * DateFormat captures its time zone and locale when it is created, which gives
- * this class state. DateFormat isn't thread safe either, so this class has
- * to synchronize its read and write methods.
+ * this class state. DateFormat isn't thread safe either, so each read and
+ * write borrows a copy of the format that no other thread is using.
  */
 public final class SqlDateTypeAdapter extends TypeAdapter<java.sql.Date> {
   public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
@@ -45,10 +45,10 @@ public final class SqlDateTypeAdapter extends TypeAdapter<java.sql.Date> {
     }
   };
 
-  private final DateFormat format = new SimpleDateFormat("MMM d, yyyy");
+  private final DateFormatPool format = new DateFormatPool(new SimpleDateFormat("MMM d, yyyy"));
 
   @Override
-  public synchronized java.sql.Date read(JsonReader in) throws IOException {
+  public java.sql.Date read(JsonReader in) throws IOException {
     if (in.peek() == JsonToken.NULL) {
       in.nextNull();
       return null;
@@ -62,7 +62,7 @@ public final class SqlDateTypeAdapter extends TypeAdapter<java.sql.Date> {
   }
 
   @Override
-  public synchronized void write(JsonWriter out, java.sql.Date value) throws IOException {
+  public void write(JsonWriter out, java.sql.Date value) throws IOException {
     out.value(value == null ? null : format.format(value));
   }
 }
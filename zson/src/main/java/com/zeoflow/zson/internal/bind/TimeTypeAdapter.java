@@ -20,6 +20,7 @@ import com.zeoflow.zson.Zson;
 import com.zeoflow.zson.JsonSyntaxException;
 import com.zeoflow.zson.TypeAdapter;
 import com.zeoflow.zson.TypeAdapterFactory;
+import com.zeoflow.zson.internal.DateFormatPool;
 import com.zeoflow.zson.reflect.TypeToken;
 import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.stream.JsonToken;
@@ -27,7 +28,6 @@ import com.zeoflow.zson.stream.JsonWriter;
 
 import java.io.IOException;
 import java.sql.Time;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -35,8 +35,8 @@ import java.util.Date;
 /**
  * Adapter for Time. Although this class appears stateless, it is not.
  * DateFormat captures its time zone and locale when it is created, which gives
- * this class state. DateFormat isn't thread safe either, so this class has
- * to synchronize its read and write methods.
+ * this class state. DateFormat isn't thread safe either, so each read and
+ * write borrows a copy of the format that no other thread is using.
  */
 public final class TimeTypeAdapter extends TypeAdapter<Time> {
   public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
@@ -46,9 +46,9 @@ public final class TimeTypeAdapter extends TypeAdapter<Time> {
     }
   };
 
-  private final DateFormat format = new SimpleDateFormat("hh:mm:ss a");
+  private final DateFormatPool format = new DateFormatPool(new SimpleDateFormat("hh:mm:ss a"));
 
-  @Override public synchronized Time read(JsonReader in) throws IOException {
+  @Override public Time read(JsonReader in) throws IOException {
     if (in.peek() == JsonToken.NULL) {
       in.nextNull();
       return null;
@@ -61,7 +61,7 @@ public final class TimeTypeAdapter extends TypeAdapter<Time> {
     }
   }
 
-  @Override public synchronized void write(JsonWriter out, Time value) throws IOException {
+  @Override public void write(JsonWriter out, Time value) throws IOException {
     out.value(value == null ? null : format.format(value));
   }
 }
@@ -16,6 +16,7 @@
 package com.zeoflow.zson.internal.bind;
 
 import java.io.IOException;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 
@@ -26,14 +27,53 @@ import com.zeoflow.zson.stream.JsonReader;
 import com.zeoflow.zson.stream.JsonWriter;
 
 final class TypeAdapterRuntimeTypeWrapper<T> extends TypeAdapter<T> {
+  /** The number of runtime classes remembered before falling back to a lookup per value. */
+  private static final int MAX_CACHED_RUNTIME_TYPES = 8;
+
   private final Zson context;
   private final TypeAdapter<T> delegate;
   private final Type type;
+  private final boolean polymorphic;
+
+  /**
+   * Adapters already chosen for runtime classes, most recent first. Entries are
+   * immutable so the chain can be read without locking; racing writers may drop
+   * each other's entries, which only costs a repeated lookup.
+   */
+  private RuntimeTypeAdapter runtimeTypeAdapters;
 
   TypeAdapterRuntimeTypeWrapper(Zson context, TypeAdapter<T> delegate, Type type) {
     this.context = context;
     this.delegate = delegate;
     this.type = type;
+    this.polymorphic = isPolymorphic(type);
+  }
+
+  /**
+   * Returns {@code delegate} wrapped to write values with the adapter for their
+   * runtime type. Unlike the constructor, this accepts an adapter of a wildcard
+   * type.
+   */
+  static <T> TypeAdapter<T> wrap(Zson context, TypeAdapter<T> delegate, Type type) {
+    return new TypeAdapterRuntimeTypeWrapper<T>(context, delegate, type);
+  }
+
+  /**
+   * Returns true if a value of the declared {@code type} may be written with an
+   * adapter for a more specific runtime type. Values of parameterized and
+   * generic array types, and of final non-array classes, never are. Values of
+   * primitive types arrive boxed, so they are written with the adapter for
+   * the wrapper type.
+   */
+  static boolean isPolymorphic(Type type) {
+    if (type instanceof TypeVariable<?>) {
+      return true;
+    }
+    if (!(type instanceof Class<?>)) {
+      return false;
+    }
+    Class<?> raw = (Class<?>) type;
+    return raw.isPrimitive() || raw.isArray() || !Modifier.isFinal(raw.getModifiers());
   }
 
   @Override
@@ -44,39 +84,62 @@ final class TypeAdapterRuntimeTypeWrapper<T> extends TypeAdapter<T> {
   @SuppressWarnings({"rawtypes", "unchecked"})
   @Override
   public void write(JsonWriter out, T value) throws IOException {
+    TypeAdapter chosen = delegate;
+    if (polymorphic && value != null) {
+      Class<?> runtimeType = value.getClass();
+      if (runtimeType != type) {
+        chosen = runtimeTypeAdapter(runtimeType);
+      }
+    }
+    chosen.write(out, value);
+  }
+
+  private TypeAdapter<?> runtimeTypeAdapter(Class<?> runtimeType) {
+    RuntimeTypeAdapter head = runtimeTypeAdapters;
+    for (RuntimeTypeAdapter e = head; e != null; e = e.next) {
+      if (e.runtimeType == runtimeType) {
+        return e.adapter;
+      }
+    }
+    TypeAdapter<?> chosen = chooseAdapter(runtimeType);
+    if (head == null || head.size < MAX_CACHED_RUNTIME_TYPES) {
+      runtimeTypeAdapters = new RuntimeTypeAdapter(runtimeType, chosen, head);
+    }
+    return chosen;
+  }
+
+  private TypeAdapter<?> chooseAdapter(Class<?> runtimeType) {
     // Order of preference for choosing type adapters
     // First preference: a type adapter registered for the runtime type
     // Second preference: a type adapter registered for the declared type
     // Third preference: reflective type adapter for the runtime type (if it is a sub class of the declared type)
     // Fourth preference: reflective type adapter for the declared type
 
-    TypeAdapter chosen = delegate;
-    Type runtimeType = getRuntimeTypeIfMoreSpecific(type, value);
-    if (runtimeType != type) {
-      TypeAdapter runtimeTypeAdapter = context.getAdapter(TypeToken.get(runtimeType));
-      if (!(runtimeTypeAdapter instanceof ReflectiveTypeAdapterFactory.Adapter)) {
-        // The user registered a type adapter for the runtime type, so we will use that
-        chosen = runtimeTypeAdapter;
-      } else if (!(delegate instanceof ReflectiveTypeAdapterFactory.Adapter)) {
-        // The user registered a type adapter for Base class, so we prefer it over the
-        // reflective type adapter for the runtime type
-        chosen = delegate;
-      } else {
-        // Use the type adapter for runtime type
-        chosen = runtimeTypeAdapter;
-      }
+    TypeAdapter<?> runtimeTypeAdapter = context.getAdapter(TypeToken.get(runtimeType));
+    if (!(runtimeTypeAdapter instanceof ReflectiveTypeAdapterFactory.Adapter)) {
+      // The user registered a type adapter for the runtime type, so we will use that
+      return runtimeTypeAdapter;
+    } else if (!(delegate instanceof ReflectiveTypeAdapterFactory.Adapter)) {
+      // The user registered a type adapter for Base class, so we prefer it over the
+      // reflective type adapter for the runtime type
+      return delegate;
+    } else {
+      // Use the type adapter for runtime type
+      return runtimeTypeAdapter;
     }
-    chosen.write(out, value);
   }
 
-  /**
-   * Finds a compatible runtime type if it is more specific
-   */
-  private Type getRuntimeTypeIfMoreSpecific(Type type, Object value) {
-    if (value != null
-        && (type == Object.class || type instanceof TypeVariable<?> || type instanceof Class<?>)) {
-      type = value.getClass();
+  private static final class RuntimeTypeAdapter {
+    final Class<?> runtimeType;
+    final TypeAdapter<?> adapter;
+    final RuntimeTypeAdapter next;
+    final int size;
+
+    RuntimeTypeAdapter(Class<?> runtimeType, TypeAdapter<?> adapter, RuntimeTypeAdapter next) {
+      this.runtimeType = runtimeType;
+      this.adapter = adapter;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
     }
-    return type;
   }
 }
@@ -342,6 +342,70 @@ public final class TypeAdapters {
     }
   };
 
+  /**
+   * Like {@link #FLOAT}, but refuses to write NaN and infinities, which the
+   * JSON specification doesn't permit.
+   */
+  public static final TypeAdapter<Number> STRICT_FLOAT = new TypeAdapter<Number>() {
+    @Override
+    public Number read(JsonReader in) throws IOException {
+      return FLOAT.read(in);
+    }
+    @Override
+    public void write(JsonWriter out, Number value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      checkValidFloatingPoint(value.floatValue());
+      out.value(value);
+    }
+  };
+
+  /**
+   * Like {@link #DOUBLE}, but refuses to write NaN and infinities, which the
+   * JSON specification doesn't permit.
+   */
+  public static final TypeAdapter<Number> STRICT_DOUBLE = new TypeAdapter<Number>() {
+    @Override
+    public Number read(JsonReader in) throws IOException {
+      return DOUBLE.read(in);
+    }
+    @Override
+    public void write(JsonWriter out, Number value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      checkValidFloatingPoint(value.doubleValue());
+      out.value(value);
+    }
+  };
+
+  static void checkValidFloatingPoint(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException(value
+          + " is not a valid double value as per JSON specification. To override this"
+          + " behavior, use ZsonBuilder.serializeSpecialFloatingPointValues() method.");
+    }
+  }
+
+  /**
+   * Writes {@code value} like {@code out.value(Float.valueOf(value))} would,
+   * but without boxing it. {@link JsonWriter#value(double)} would print the
+   * float's binary expansion instead of its shortest representation.
+   */
+  static void writeFloat(JsonWriter out, float value) throws IOException {
+    if (out instanceof JsonTreeWriter) {
+      out.value(Float.valueOf(value));
+      return;
+    }
+    if (!out.isLenient() && (Float.isNaN(value) || Float.isInfinite(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    out.jsonValue(Float.toString(value));
+  }
+
   public static final TypeAdapter<Number> NUMBER = new TypeAdapter<Number>() {
     @Override
     public Number read(JsonReader in) throws IOException {
@@ -771,10 +835,14 @@ public final class TypeAdapters {
       = newTypeHierarchyFactory(JsonElement.class, JSON_ELEMENT);
 
   private static final class EnumTypeAdapter<T extends Enum<T>> extends TypeAdapter<T> {
-    private final Map<String, T> nameToConstant = new HashMap<String, T>();
     private final Map<T, String> constantToName = new HashMap<T, String>();
+    /** The names and alternate names of the constants, matched against the reader's buffer. */
+    private final JsonReader.Options names;
+    /** The constants, indexed like {@link #names}. */
+    private final T[] constantsByName;
 
     public EnumTypeAdapter(Class<T> classOfT) {
+      Map<String, T> nameToConstant = new HashMap<String, T>();
       try {
         for (T constant : classOfT.getEnumConstants()) {
           String name = constant.name();
@@ -791,13 +859,25 @@ public final class TypeAdapters {
       } catch (NoSuchFieldException e) {
         throw new AssertionError(e);
       }
+
+      @SuppressWarnings("unchecked")
+      T[] constants = (T[]) new Enum<?>[nameToConstant.size()];
+      String[] names = new String[constants.length];
+      int i = 0;
+      for (Map.Entry<String, T> entry : nameToConstant.entrySet()) {
+        names[i] = entry.getKey();
+        constants[i++] = entry.getValue();
+      }
+      this.names = JsonReader.Options.of(names);
+      this.constantsByName = constants;
     }
     @Override public T read(JsonReader in) throws IOException {
       if (in.peek() == JsonToken.NULL) {
         in.nextNull();
         return null;
       }
-      return nameToConstant.get(in.nextString());
+      int index = in.selectString(names);
+      return index != -1 ? constantsByName[index] : null;
     }
 
     @Override public void write(JsonWriter out, T value) throws IOException {
@@ -29,6 +29,31 @@ public class ISO8601Utils
      */
     private static final TimeZone TIMEZONE_UTC = TimeZone.getTimeZone(UTC_ID);
 
+    /**
+     * The start of the year 1583. {@link GregorianCalendar} switches from the Julian calendar in
+     * October 1582, so dates from here on can be computed without one.
+     */
+    private static final long YEAR_1583 = -12212553600000L;
+    /** The start of the year 10000, from which years take more than four digits. */
+    private static final long YEAR_10000 = 253402300800000L;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    /** Returned by {@link #parseFast} for dates it leaves to {@link #parseWithCalendar}. */
+    private static final long UNHANDLED = Long.MIN_VALUE;
+
+    /** A second and its 'yyyy-MM-ddThh:mm:ss' text. */
+    private static final class FormattedSecond {
+        final long second;
+        final char[] text;
+
+        FormattedSecond(long second, char[] text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+    /** The last second formatted, as timestamps tend to come in runs from the same second. */
+    private static volatile FormattedSecond lastSecond = new FormattedSecond(Long.MIN_VALUE, null);
+
     /*
     /**********************************************************
     /* Formatting
@@ -65,6 +90,99 @@ public class ISO8601Utils
      * @return the date formatted as yyyy-MM-ddThh:mm:ss[.sss][Z|[+-]hh:mm]
      */
     public static String format(Date date, boolean millis, TimeZone tz) {
+        long time = date.getTime();
+        int offset = tz.getOffset(time);
+        long local = time + offset;
+        if (local < YEAR_1583 || local >= YEAR_10000) {
+            return formatWithCalendar(date, millis, tz);
+        }
+        char[] buffer = new char["yyyy-MM-ddThh:mm:ss.sss+hh:mm".length()];
+        int end = formatLocal(local, millis, buffer, 0);
+        if (offset != 0) {
+            int hours = Math.abs((offset / (60 * 1000)) / 60);
+            int minutes = Math.abs((offset / (60 * 1000)) % 60);
+            buffer[end++] = offset < 0 ? '-' : '+';
+            end = writeDigits(buffer, end, hours, "hh".length());
+            buffer[end++] = ':';
+            end = writeDigits(buffer, end, minutes, "mm".length());
+        } else {
+            buffer[end++] = 'Z';
+        }
+        return new String(buffer, 0, end);
+    }
+
+    /**
+     * Format epoch millis into 'yyyy-MM-ddThh:mm:ss[.sss]Z' (GMT timezone) without allocating,
+     * by writing them to a buffer.
+     *
+     * @param epochMillis the date to format, in milliseconds since the epoch
+     * @param millis true to include millis precision otherwise false
+     * @param buffer the buffer to write to, with room for 32 chars from {@code offset}
+     * @param offset where in {@code buffer} to write
+     * @return the offset just past the formatted date in {@code buffer}
+     */
+    public static int format(long epochMillis, boolean millis, char[] buffer, int offset) {
+        if (epochMillis < YEAR_1583 || epochMillis >= YEAR_10000) {
+            String formatted = formatWithCalendar(new Date(epochMillis), millis, TIMEZONE_UTC);
+            formatted.getChars(0, formatted.length(), buffer, offset);
+            return offset + formatted.length();
+        }
+        int end = formatLocal(epochMillis, millis, buffer, offset);
+        buffer[end++] = 'Z';
+        return end;
+    }
+
+    /**
+     * Writes 'yyyy-MM-ddThh:mm:ss[.sss]' for {@code local}, milliseconds since the epoch in the
+     * time zone being formatted, which is in the years 1583 to 9999.
+     */
+    private static int formatLocal(long local, boolean millis, char[] buffer, int offset) {
+        long second = floorDiv(local, 1000);
+        FormattedSecond formatted = lastSecond;
+        if (formatted.second != second) {
+            formatted = new FormattedSecond(second, formatSecond(second));
+            lastSecond = formatted;
+        }
+        System.arraycopy(formatted.text, 0, buffer, offset, formatted.text.length);
+        offset += formatted.text.length;
+        if (millis) {
+            buffer[offset++] = '.';
+            offset = writeDigits(buffer, offset, (int) (local - second * 1000), "sss".length());
+        }
+        return offset;
+    }
+
+    /** Returns 'yyyy-MM-ddThh:mm:ss' for {@code second}, in seconds since the epoch. */
+    private static char[] formatSecond(long second) {
+        // civil date from days since the epoch; see http://howardhinnant.github.io/date_algorithms.html
+        long days = floorDiv(second, 86400);
+        int secondOfDay = (int) (second - days * 86400);
+        long z = days + 719468;
+        int era = (int) (z / 146097);
+        int dayOfEra = (int) (z - era * 146097L);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153; // March is 0
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] text = new char["yyyy-MM-ddThh:mm:ss".length()];
+        int offset = writeDigits(text, 0, year, "yyyy".length());
+        text[offset++] = '-';
+        offset = writeDigits(text, offset, month, "MM".length());
+        text[offset++] = '-';
+        offset = writeDigits(text, offset, day, "dd".length());
+        text[offset++] = 'T';
+        offset = writeDigits(text, offset, secondOfDay / 3600, "hh".length());
+        text[offset++] = ':';
+        offset = writeDigits(text, offset, secondOfDay / 60 % 60, "mm".length());
+        text[offset++] = ':';
+        writeDigits(text, offset, secondOfDay % 60, "ss".length());
+        return text;
+    }
+
+    private static String formatWithCalendar(Date date, boolean millis, TimeZone tz) {
         Calendar calendar = new GregorianCalendar(tz, Locale.US);
         calendar.setTime(date);
 
@@ -121,6 +239,143 @@ public class ISO8601Utils
      * @throws ParseException if the date is not in the appropriate format
      */
     public static Date parse(String date, ParsePosition pos) throws ParseException {
+        if (date != null && pos.getIndex() >= 0 && pos.getIndex() <= date.length()) {
+            long millis = parseFast(date, pos.getIndex(), date.length());
+            if (millis != UNHANDLED) {
+                pos.setIndex(date.length());
+                return new Date(millis);
+            }
+        }
+        return parseWithCalendar(date, pos);
+    }
+
+    /**
+     * Parse a date from ISO-8601 formatted text, in the formats {@link #parse} accepts, without
+     * creating a string or a calendar for it. The date must take all of the text from {@code start}
+     * to {@code end}.
+     *
+     * @param text the text to parse.
+     * @param start where the date starts in {@code text}.
+     * @param end where the date ends in {@code text}.
+     * @return the parsed date, in milliseconds since the epoch
+     * @throws ParseException if the date is not in the appropriate format
+     */
+    public static long parseMillis(CharSequence text, int start, int end) throws ParseException {
+        long millis = parseFast(text, start, end);
+        if (millis != UNHANDLED) {
+            return millis;
+        }
+        String date = text.subSequence(start, end).toString();
+        ParsePosition pos = new ParsePosition(0);
+        Date result = parseWithCalendar(date, pos);
+        if (pos.getIndex() < date.length()) {
+            throw new ParseException("Failed to parse date [\"" + date + "\"]: unexpected text after"
+                    + " time zone indicator", pos.getIndex());
+        }
+        return result.getTime();
+    }
+
+    /**
+     * Returns the date that is all of {@code date} from {@code offset} to {@code end}, without
+     * allocating, or {@link #UNHANDLED} if it is invalid or not in the common forms this handles.
+     * Those are dates with a time, a year from 1583 to 9999, ASCII digits and a time zone of 'Z'
+     * or an offset in hours and minutes, other than -00:00. {@link #parseWithCalendar} handles the rest the same
+     * way it always has, and reports errors.
+     */
+    private static long parseFast(CharSequence date, int offset, int end) {
+        int year = parseDigits(date, offset, offset += 4, end);
+        if (offset < end && date.charAt(offset) == '-') {
+            offset += 1;
+        }
+        int month = parseDigits(date, offset, offset += 2, end);
+        if (offset < end && date.charAt(offset) == '-') {
+            offset += 1;
+        }
+        int day = parseDigits(date, offset, offset += 2, end);
+        if (offset >= end || date.charAt(offset) != 'T') {
+            return UNHANDLED;
+        }
+        int hour = parseDigits(date, offset += 1, offset += 2, end);
+        if (offset < end && date.charAt(offset) == ':') {
+            offset += 1;
+        }
+        int minutes = parseDigits(date, offset, offset += 2, end);
+        if (offset < end && date.charAt(offset) == ':') {
+            offset += 1;
+        }
+        int seconds = 0;
+        int milliseconds = 0;
+        if (offset < end) {
+            char c = date.charAt(offset);
+            if (c != 'Z' && c != '+' && c != '-') {
+                seconds = parseDigits(date, offset, offset += 2, end);
+                if (seconds > 59 && seconds < 63) seconds = 59; // truncate up to 3 leap seconds
+                if (offset < end && date.charAt(offset) == '.') {
+                    offset += 1;
+                    int digits = 0;
+                    for (; offset < end && isDigit(date.charAt(offset)); offset++, digits++) {
+                        if (digits < 3) {
+                            milliseconds = milliseconds * 10 + (date.charAt(offset) - '0');
+                        }
+                    }
+                    if (digits == 0) {
+                        return UNHANDLED;
+                    }
+                    for (; digits < 3; digits++) {
+                        milliseconds *= 10;
+                    }
+                }
+            }
+        }
+        if (year < 1583 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59
+                || offset >= end) {
+            return UNHANDLED;
+        }
+
+        int offsetMinutes;
+        char timezoneIndicator = date.charAt(offset);
+        if (timezoneIndicator == 'Z' && offset + 1 == end) {
+            offsetMinutes = 0;
+        } else if (timezoneIndicator == '+' || timezoneIndicator == '-') {
+            // +hhmm or +hh:mm; +hh is left to parseWithCalendar(), which sets pos past the end
+            int length = end - offset;
+            int hours = parseDigits(date, offset + 1, offset + 3, end);
+            int mins = length == 5 ? parseDigits(date, offset + 3, offset + 5, end)
+                    : length == 6 && date.charAt(offset + 3) == ':'
+                            ? parseDigits(date, offset + 4, offset + 6, end) : -1;
+            if (hours < 0 || hours > 23 || mins < 0 || mins > 59
+                    || (timezoneIndicator == '-' && hours == 0 && mins == 0)) {
+                return UNHANDLED; // including -00:00, which TimeZone doesn't accept
+            }
+            offsetMinutes = timezoneIndicator == '+' ? hours * 60 + mins : -(hours * 60 + mins);
+        } else {
+            return UNHANDLED;
+        }
+
+        long days = daysFromCivil(year, month, day);
+        long epochSeconds = days * 86400 + hour * 3600 + minutes * 60 + seconds - offsetMinutes * 60;
+        return epochSeconds * 1000 + milliseconds;
+    }
+
+    /** Returns days since the epoch; see http://howardhinnant.github.io/date_algorithms.html */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2 && year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static Date parseWithCalendar(String date, ParsePosition pos) throws ParseException {
         Exception fail = null;
         try {
             int offset = pos.getIndex();
@@ -323,6 +578,51 @@ public class ISO8601Utils
         return -result;
     }
 
+    /**
+     * Parse the ASCII digits between 2 given offsets, like {@link #parseInt} but without
+     * allocating.
+     *
+     * @return the number, or -1 if there are other characters or the text ends before
+     *     {@code endIndex}
+     */
+    private static int parseDigits(CharSequence value, int beginIndex, int endIndex, int end) {
+        if (endIndex > end) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Write a number zero padded to {@code length} digits, like {@link #padInt} but without
+     * allocating.
+     *
+     * @return the offset just past the digits
+     */
+    private static int writeDigits(char[] buffer, int offset, int value, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + length;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long result = x / y;
+        return (x % y < 0) ? result - 1 : result;
+    }
+
     /**
      * Zero pad a number to a specified length
      * 
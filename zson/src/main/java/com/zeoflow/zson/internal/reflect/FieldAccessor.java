@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zeoflow.zson.internal.reflect;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes the value of a single field. Besides the boxed {@link #get} and
+ * {@link #set} methods there are primitive-specialized variants, which must only be used
+ * for fields of exactly that primitive type and never box the value.
+ */
+public abstract class FieldAccessor {
+
+  /**
+   * Returns an accessor for {@code field}, which must already have been made accessible.
+   */
+  public static FieldAccessor create(Field field) {
+    return new ReflectiveFieldAccessor(field);
+  }
+
+  public abstract Object get(Object instance) throws IllegalAccessException;
+  public abstract void set(Object instance, Object value) throws IllegalAccessException;
+
+  public abstract boolean getBoolean(Object instance) throws IllegalAccessException;
+  public abstract void setBoolean(Object instance, boolean value) throws IllegalAccessException;
+  public abstract byte getByte(Object instance) throws IllegalAccessException;
+  public abstract void setByte(Object instance, byte value) throws IllegalAccessException;
+  public abstract short getShort(Object instance) throws IllegalAccessException;
+  public abstract void setShort(Object instance, short value) throws IllegalAccessException;
+  public abstract char getChar(Object instance) throws IllegalAccessException;
+  public abstract void setChar(Object instance, char value) throws IllegalAccessException;
+  public abstract int getInt(Object instance) throws IllegalAccessException;
+  public abstract void setInt(Object instance, int value) throws IllegalAccessException;
+  public abstract long getLong(Object instance) throws IllegalAccessException;
+  public abstract void setLong(Object instance, long value) throws IllegalAccessException;
+  public abstract float getFloat(Object instance) throws IllegalAccessException;
+  public abstract void setFloat(Object instance, float value) throws IllegalAccessException;
+  public abstract double getDouble(Object instance) throws IllegalAccessException;
+  public abstract void setDouble(Object instance, double value) throws IllegalAccessException;
+}
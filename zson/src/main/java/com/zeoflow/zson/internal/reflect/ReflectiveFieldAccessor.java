@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zeoflow.zson.internal.reflect;
+
+import java.lang.reflect.Field;
+
+/**
+ * A {@link FieldAccessor} backed by {@link Field}. The primitive variants use the
+ * primitive {@code Field} accessors, which don't box.
+ */
+final class ReflectiveFieldAccessor extends FieldAccessor {
+  private final Field field;
+
+  ReflectiveFieldAccessor(Field field) {
+    this.field = field;
+  }
+
+  @Override public Object get(Object instance) throws IllegalAccessException {
+    return field.get(instance);
+  }
+  @Override public void set(Object instance, Object value) throws IllegalAccessException {
+    field.set(instance, value);
+  }
+
+  @Override public boolean getBoolean(Object instance) throws IllegalAccessException {
+    return field.getBoolean(instance);
+  }
+  @Override public void setBoolean(Object instance, boolean value) throws IllegalAccessException {
+    field.setBoolean(instance, value);
+  }
+  @Override public byte getByte(Object instance) throws IllegalAccessException {
+    return field.getByte(instance);
+  }
+  @Override public void setByte(Object instance, byte value) throws IllegalAccessException {
+    field.setByte(instance, value);
+  }
+  @Override public short getShort(Object instance) throws IllegalAccessException {
+    return field.getShort(instance);
+  }
+  @Override public void setShort(Object instance, short value) throws IllegalAccessException {
+    field.setShort(instance, value);
+  }
+  @Override public char getChar(Object instance) throws IllegalAccessException {
+    return field.getChar(instance);
+  }
+  @Override public void setChar(Object instance, char value) throws IllegalAccessException {
+    field.setChar(instance, value);
+  }
+  @Override public int getInt(Object instance) throws IllegalAccessException {
+    return field.getInt(instance);
+  }
+  @Override public void setInt(Object instance, int value) throws IllegalAccessException {
+    field.setInt(instance, value);
+  }
+  @Override public long getLong(Object instance) throws IllegalAccessException {
+    return field.getLong(instance);
+  }
+  @Override public void setLong(Object instance, long value) throws IllegalAccessException {
+    field.setLong(instance, value);
+  }
+  @Override public float getFloat(Object instance) throws IllegalAccessException {
+    return field.getFloat(instance);
+  }
+  @Override public void setFloat(Object instance, float value) throws IllegalAccessException {
+    field.setFloat(instance, value);
+  }
+  @Override public double getDouble(Object instance) throws IllegalAccessException {
+    return field.getDouble(instance);
+  }
+  @Override public void setDouble(Object instance, double value) throws IllegalAccessException {
+    field.setDouble(instance, value);
+  }
+}
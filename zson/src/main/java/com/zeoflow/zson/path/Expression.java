@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.JsonPrimitive;
+
+/**
+ * A filter expression, tested against each child a {@link Selector.Filter} is offered. Within
+ * the expression {@code @} refers to that child.
+ */
+abstract class Expression {
+  abstract boolean test(JsonElement current);
+
+  static final class Or extends Expression {
+    private final Expression left;
+    private final Expression right;
+
+    Or(Expression left, Expression right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override boolean test(JsonElement current) {
+      return left.test(current) || right.test(current);
+    }
+  }
+
+  static final class And extends Expression {
+    private final Expression left;
+    private final Expression right;
+
+    And(Expression left, Expression right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override boolean test(JsonElement current) {
+      return left.test(current) && right.test(current);
+    }
+  }
+
+  static final class Not extends Expression {
+    private final Expression operand;
+
+    Not(Expression operand) {
+      this.operand = operand;
+    }
+
+    @Override boolean test(JsonElement current) {
+      return !operand.test(current);
+    }
+  }
+
+  /** Holds if a query relative to the current value selects anything. */
+  static final class Exists extends Expression {
+    private final Query query;
+
+    Exists(Query query) {
+      this.query = query;
+    }
+
+    @Override boolean test(JsonElement current) {
+      return query.exists(current);
+    }
+  }
+
+  /**
+   * Compares two operands. A missing operand is only equal to another missing operand, and
+   * orders neither before nor after anything. Numbers are compared by value, strings by their
+   * UTF-16 code units, and everything else only for equality.
+   */
+  static final class Comparison extends Expression {
+    private final Operand left;
+    private final Operator operator;
+    private final Operand right;
+
+    Comparison(Operand left, Operator operator, Operand right) {
+      this.left = left;
+      this.operator = operator;
+      this.right = right;
+    }
+
+    @Override boolean test(JsonElement current) {
+      JsonElement a = left.evaluate(current);
+      JsonElement b = right.evaluate(current);
+      switch (operator) {
+      case EQUAL:
+        return equal(a, b);
+      case NOT_EQUAL:
+        return !equal(a, b);
+      case LESS:
+        return less(a, b);
+      case LESS_OR_EQUAL:
+        return less(a, b) || equal(a, b);
+      case GREATER:
+        return less(b, a);
+      case GREATER_OR_EQUAL:
+        return less(b, a) || equal(a, b);
+      default:
+        throw new AssertionError();
+      }
+    }
+
+    private static boolean equal(JsonElement a, JsonElement b) {
+      if (a == null || b == null) {
+        return a == b;
+      }
+      if (isNumber(a) && isNumber(b)) {
+        return compareNumbers(a.getAsJsonPrimitive(), b.getAsJsonPrimitive()) == 0;
+      }
+      return a.equals(b);
+    }
+
+    private static boolean less(JsonElement a, JsonElement b) {
+      if (a == null || b == null) {
+        return false;
+      }
+      if (isNumber(a) && isNumber(b)) {
+        return compareNumbers(a.getAsJsonPrimitive(), b.getAsJsonPrimitive()) < 0;
+      }
+      if (isString(a) && isString(b)) {
+        return a.getAsString().compareTo(b.getAsString()) < 0;
+      }
+      return false;
+    }
+
+    private static boolean isNumber(JsonElement element) {
+      return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    private static boolean isString(JsonElement element) {
+      return element.isJsonPrimitive() && element.getAsJsonPrimitive().isString();
+    }
+
+    private static int compareNumbers(JsonPrimitive a, JsonPrimitive b) {
+      double x = a.getAsDouble();
+      double y = b.getAsDouble();
+      if (x != y || Double.isInfinite(x)) {
+        return Double.compare(x, y);
+      }
+      // doubles can't tell apart long integers and decimals that differ in their last digits
+      return a.getAsBigDecimal().compareTo(b.getAsBigDecimal());
+    }
+  }
+
+  enum Operator {
+    EQUAL("=="),
+    NOT_EQUAL("!="),
+    LESS_OR_EQUAL("<="),
+    GREATER_OR_EQUAL(">="),
+    LESS("<"),
+    GREATER(">");
+
+    /** The operator's symbol. Symbols that prefix another come after it. */
+    final String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+  }
+
+  /** A side of a comparison. */
+  abstract static class Operand {
+    /** Returns the operand's value for the current value, or null if it has none. */
+    abstract JsonElement evaluate(JsonElement current);
+  }
+
+  static final class Literal extends Operand {
+    private final JsonElement value;
+
+    Literal(JsonElement value) {
+      this.value = value;
+    }
+
+    @Override JsonElement evaluate(JsonElement current) {
+      return value;
+    }
+  }
+
+  /** The value a singular query relative to the current value selects. */
+  static final class SingularQuery extends Operand {
+    final Query query;
+
+    SingularQuery(Query query) {
+      this.query = query;
+    }
+
+    @Override JsonElement evaluate(JsonElement current) {
+      return query.selectSingular(current);
+    }
+  }
+}
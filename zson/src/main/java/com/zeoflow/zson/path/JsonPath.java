@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.JsonIOException;
+import com.zeoflow.zson.JsonSyntaxException;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+import com.zeoflow.zson.stream.MalformedJsonException;
+import com.zeoflow.zson.stream.Utf8JsonReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled JSONPath query. Compile a query once with {@link #compile} and evaluate it against
+ * a tree or, without building a tree for the whole document, against a stream:
+ *
+ * <pre>   {@code
+ *   JsonPath cheapBooks = JsonPath.compile("$.store.book[?(@.price < 10)].title");
+ *   List<JsonElement> titles = cheapBooks.evaluate(json);
+ * }</pre>
+ *
+ * <p>The syntax follows RFC 9535:
+ * <table>
+ *   <tr><td>{@code $}</td><td>the root value</td></tr>
+ *   <tr><td>{@code .name}, {@code ['name']}</td><td>the object member {@code name}</td></tr>
+ *   <tr><td>{@code .*}, {@code [*]}</td><td>every member or element</td></tr>
+ *   <tr><td>{@code [1]}, {@code [-1]}</td><td>an array element, counting back from the end
+ *       when negative</td></tr>
+ *   <tr><td>{@code [start:end:step]}</td><td>a slice of an array; each part is
+ *       optional</td></tr>
+ *   <tr><td>{@code [?(expression)]}</td><td>the members or elements for which a filter
+ *       holds</td></tr>
+ *   <tr><td>{@code [a,b]}</td><td>the union of several selectors</td></tr>
+ *   <tr><td>{@code ..}</td><td>recursive descent: applies the following selector to a value
+ *       and all its descendants</td></tr>
+ * </table>
+ *
+ * <p>Within a filter, {@code @} is the member or element being tested. An {@code @} query on
+ * its own tests whether it selects anything; queries of names and indices alone can be
+ * compared with {@code ==}, {@code !=}, {@code <}, {@code <=}, {@code >} and {@code >=} to
+ * each other and to string, number, {@code true}, {@code false} and {@code null} literals.
+ * Tests combine with {@code &&}, {@code ||}, {@code !} and parentheses. Function extensions
+ * and queries from {@code $} within filters aren't supported.
+ *
+ * <p>Unlike RFC 9535, which lists a value once for every way the query reaches it, each
+ * matching value is reported once, in document order. That is what lets matches be reported
+ * as they are read from a stream.
+ *
+ * <p>Instances are immutable and may be shared between threads.
+ */
+public final class JsonPath {
+  /** The number of recently compiled queries {@link #compile} keeps. */
+  private static final int CACHE_SIZE = 256;
+
+  /** Guarded by itself. */
+  private static final Map<String, JsonPath> cache =
+      new LinkedHashMap<String, JsonPath>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, JsonPath> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+
+  private final String path;
+  private final Query query;
+
+  private JsonPath(String path, Query query) {
+    this.path = path;
+    this.query = query;
+  }
+
+  /**
+   * Returns the compiled form of {@code path}. Recently compiled queries are cached, so this
+   * is cheap for queries that are used repeatedly.
+   *
+   * @throws IllegalArgumentException if {@code path} is not a valid query.
+   */
+  public static JsonPath compile(String path) {
+    if (path == null) {
+      throw new NullPointerException("path == null");
+    }
+    JsonPath result;
+    synchronized (cache) {
+      result = cache.get(path);
+    }
+    if (result == null) {
+      result = new JsonPath(path, new PathParser(path).parse());
+      synchronized (cache) {
+        cache.put(path, result);
+      }
+    }
+    return result;
+  }
+
+  /** Returns the values this query selects in the tree {@code root}, in document order. */
+  public List<JsonElement> evaluate(JsonElement root) {
+    Collector collector = new Collector();
+    evaluate(root, collector);
+    return collector.matches;
+  }
+
+  /** Reports the values this query selects in the tree {@code root}, in document order. */
+  public void evaluate(JsonElement root, Callback callback) {
+    query.match(root, Query.START, callback);
+  }
+
+  /** Returns the values this query selects in {@code json}, in document order. */
+  public List<JsonElement> evaluate(String json) throws JsonIOException, JsonSyntaxException {
+    return evaluateDocument(new JsonReader(new StringReader(json)));
+  }
+
+  /** Returns the values this query selects in the UTF-8 encoded {@code json}. */
+  public List<JsonElement> evaluate(byte[] json) throws JsonIOException, JsonSyntaxException {
+    return evaluateDocument(new Utf8JsonReader(json));
+  }
+
+  /**
+   * Returns the values this query selects in the next value of {@code reader}, in document
+   * order. Only values that can lead to a match are read into trees; see {@link
+   * #evaluate(JsonReader, Callback)}.
+   */
+  public List<JsonElement> evaluate(JsonReader reader)
+      throws JsonIOException, JsonSyntaxException {
+    Collector collector = new Collector();
+    evaluate(reader, collector);
+    return collector.matches;
+  }
+
+  /**
+   * Reports the values this query selects in the next value of {@code reader} as they are
+   * read, in document order. Values that can't lead to a match are skipped, and only matches
+   * become trees, so documents much larger than the heap can be queried as long as their
+   * matches are not. Filters read each member or element they test into a tree, and negative
+   * indices and slices read the arrays they apply to, since the size of an array isn't known
+   * until its end.
+   */
+  public void evaluate(JsonReader reader, Callback callback)
+      throws JsonIOException, JsonSyntaxException {
+    evaluate(reader, callback, false);
+  }
+
+  private List<JsonElement> evaluateDocument(JsonReader reader) {
+    Collector collector = new Collector();
+    evaluate(reader, collector, true);
+    return collector.matches;
+  }
+
+  private void evaluate(JsonReader reader, Callback callback, boolean wholeDocument) {
+    boolean lenient = reader.isLenient();
+    reader.setLenient(true);
+    try {
+      try {
+        reader.peek();
+      } catch (EOFException e) {
+        return; // an empty document has no values
+      }
+      query.visit(reader, Query.START, callback);
+      if (wholeDocument && reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+    } catch (EOFException e) {
+      throw new JsonSyntaxException(e); // the document ended within a value
+    } catch (MalformedJsonException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    } finally {
+      reader.setLenient(lenient);
+    }
+  }
+
+  /** Returns the query this was compiled from. */
+  @Override public String toString() {
+    return path;
+  }
+
+  private static final class Collector implements Callback {
+    final List<JsonElement> matches = new ArrayList<JsonElement>();
+
+    @Override public void onMatch(JsonElement value) {
+      matches.add(value);
+    }
+  }
+
+  /** Receives the values a query selects. */
+  public interface Callback {
+    void onMatch(JsonElement value);
+  }
+}
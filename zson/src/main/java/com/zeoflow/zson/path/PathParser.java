@@ -0,0 +1,390 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.JsonNull;
+import com.zeoflow.zson.JsonPrimitive;
+import com.zeoflow.zson.internal.LazilyParsedNumber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the text of a JSONPath query. Malformed queries are reported with an {@link
+ * IllegalArgumentException} naming the offending index.
+ */
+final class PathParser {
+  private final String path;
+  private int pos;
+
+  PathParser(String path) {
+    this.path = path;
+  }
+
+  Query parse() {
+    expect('$');
+    Query query = segments();
+    skipWhitespace();
+    if (pos != path.length()) {
+      throw syntaxError("Unexpected '" + path.charAt(pos) + "'");
+    }
+    return query;
+  }
+
+  /** Reads the segments that follow {@code $} or {@code @}. */
+  private Query segments() {
+    List<Segment> segments = new ArrayList<Segment>();
+    while (true) {
+      int start = pos;
+      skipWhitespace();
+      if (path.startsWith("..", pos)) {
+        pos += 2;
+        segments.add(new Segment(true, peek() == '[' ? bracketed() : dotted()));
+      } else if (peek() == '.') {
+        pos++;
+        segments.add(new Segment(false, dotted()));
+      } else if (peek() == '[') {
+        segments.add(new Segment(false, bracketed()));
+      } else {
+        pos = start; // the whitespace may precede an operator instead
+        break;
+      }
+      if (segments.size() > Query.MAX_SEGMENTS) {
+        throw syntaxError("Queries can have at most " + Query.MAX_SEGMENTS + " segments");
+      }
+    }
+    return new Query(segments.toArray(new Segment[0]));
+  }
+
+  /** Reads the {@code *} or member name that follows a dot. */
+  private Selector[] dotted() {
+    if (peek() == '*') {
+      pos++;
+      return new Selector[] { Selector.Wildcard.INSTANCE };
+    }
+    int start = pos;
+    if (!isNameStart(peek())) {
+      throw syntaxError("Expected a name or '*'");
+    }
+    while (isNameStart(peek()) || isDigit(peek())) {
+      pos++;
+    }
+    return new Selector[] { new Selector.Name(path.substring(start, pos)) };
+  }
+
+  /** Reads a bracketed, comma-separated list of selectors. */
+  private Selector[] bracketed() {
+    expect('[');
+    List<Selector> selectors = new ArrayList<Selector>();
+    do {
+      skipWhitespace();
+      selectors.add(selector());
+      skipWhitespace();
+    } while (consume(','));
+    expect(']');
+    return selectors.toArray(new Selector[0]);
+  }
+
+  private Selector selector() {
+    char c = peek();
+    if (c == '\'' || c == '"') {
+      return new Selector.Name(string());
+    } else if (c == '*') {
+      pos++;
+      return Selector.Wildcard.INSTANCE;
+    } else if (c == '?') {
+      pos++;
+      return new Selector.Filter(or());
+    }
+    Integer start = c == '-' || isDigit(c) ? integer() : null;
+    skipWhitespace();
+    if (!consume(':')) {
+      if (start == null) {
+        throw syntaxError("Expected a selector");
+      }
+      return new Selector.Index(start);
+    }
+    skipWhitespace();
+    Integer end = peek() == '-' || isDigit(peek()) ? integer() : null;
+    skipWhitespace();
+    int step = 1;
+    if (consume(':')) {
+      skipWhitespace();
+      if (peek() == '-' || isDigit(peek())) {
+        step = integer();
+      }
+    }
+    return new Selector.Slice(start, end, step);
+  }
+
+  private Expression or() {
+    Expression result = and();
+    while (consumeOperator("||")) {
+      result = new Expression.Or(result, and());
+    }
+    return result;
+  }
+
+  private Expression and() {
+    Expression result = basic();
+    while (consumeOperator("&&")) {
+      result = new Expression.And(result, basic());
+    }
+    return result;
+  }
+
+  /** Reads a negation, a parenthesized expression, an existence test or a comparison. */
+  private Expression basic() {
+    skipWhitespace();
+    if (consume('!')) {
+      return new Expression.Not(basic());
+    } else if (consume('(')) {
+      Expression result = or();
+      skipWhitespace();
+      expect(')');
+      return result;
+    }
+    int start = pos;
+    Query query = null;
+    Expression.Operand left;
+    if (peek() == '@') {
+      pos++;
+      query = segments();
+      left = new Expression.SingularQuery(query);
+    } else {
+      left = operand();
+    }
+    Expression.Operator operator = operator();
+    if (operator == null) {
+      if (query == null) {
+        throw syntaxError("Expected a comparison operator");
+      }
+      return new Expression.Exists(query);
+    }
+    if (query != null && !query.isSingular()) {
+      pos = start;
+      throw syntaxError("Comparisons need a query of names and indices only");
+    }
+    return new Expression.Comparison(left, operator, operand());
+  }
+
+  private Expression.Operator operator() {
+    skipWhitespace();
+    for (Expression.Operator operator : Expression.Operator.values()) {
+      if (path.startsWith(operator.symbol, pos)) {
+        pos += operator.symbol.length();
+        return operator;
+      }
+    }
+    return null;
+  }
+
+  /** Reads a literal or a singular query. */
+  private Expression.Operand operand() {
+    skipWhitespace();
+    int start = pos;
+    char c = peek();
+    if (c == '@') {
+      pos++;
+      Query query = segments();
+      if (!query.isSingular()) {
+        pos = start;
+        throw syntaxError("Comparisons need a query of names and indices only");
+      }
+      return new Expression.SingularQuery(query);
+    } else if (c == '$') {
+      throw syntaxError("Queries in filters must start with '@'");
+    } else if (c == '\'' || c == '"') {
+      return new Expression.Literal(new JsonPrimitive(string()));
+    } else if (c == '-' || isDigit(c)) {
+      return new Expression.Literal(number());
+    } else if (consumeWord("true")) {
+      return new Expression.Literal(new JsonPrimitive(true));
+    } else if (consumeWord("false")) {
+      return new Expression.Literal(new JsonPrimitive(false));
+    } else if (consumeWord("null")) {
+      return new Expression.Literal(JsonNull.INSTANCE);
+    }
+    throw syntaxError("Expected a value");
+  }
+
+  /** Reads a JSON number. */
+  private JsonElement number() {
+    int start = pos;
+    consume('-');
+    if (!consume('0')) {
+      digits();
+    }
+    if (consume('.')) {
+      digits();
+    }
+    if (consume('e') || consume('E')) {
+      if (!consume('+')) {
+        consume('-');
+      }
+      digits();
+    }
+    return new JsonPrimitive(new LazilyParsedNumber(path.substring(start, pos)));
+  }
+
+  private void digits() {
+    if (!isDigit(peek())) {
+      throw syntaxError("Expected a digit");
+    }
+    while (isDigit(peek())) {
+      pos++;
+    }
+  }
+
+  /** Reads an optionally negative integer without leading zeros. */
+  private int integer() {
+    int start = pos;
+    consume('-');
+    if (!consume('0')) {
+      digits();
+    }
+    try {
+      return Integer.parseInt(path.substring(start, pos));
+    } catch (NumberFormatException e) {
+      pos = start;
+      throw syntaxError("Index out of range");
+    }
+  }
+
+  /** Reads a single- or double-quoted string. */
+  private String string() {
+    char quote = path.charAt(pos++);
+    StringBuilder result = new StringBuilder();
+    while (true) {
+      if (pos == path.length()) {
+        throw syntaxError("Unterminated string");
+      }
+      char c = path.charAt(pos++);
+      if (c == quote) {
+        return result.toString();
+      } else if (c < 0x20) {
+        pos--;
+        throw syntaxError("Unescaped control character in string");
+      } else if (c != '\\') {
+        result.append(c);
+        continue;
+      }
+      if (pos == path.length()) {
+        throw syntaxError("Unterminated string");
+      }
+      c = path.charAt(pos++);
+      switch (c) {
+      case 'b':
+        result.append('\b');
+        break;
+      case 'f':
+        result.append('\f');
+        break;
+      case 'n':
+        result.append('\n');
+        break;
+      case 'r':
+        result.append('\r');
+        break;
+      case 't':
+        result.append('\t');
+        break;
+      case 'u':
+        if (pos + 4 > path.length()) {
+          throw syntaxError("Unterminated escape sequence");
+        }
+        try {
+          result.append((char) Integer.parseInt(path.substring(pos, pos + 4), 16));
+        } catch (NumberFormatException e) {
+          throw syntaxError("Invalid escape sequence");
+        }
+        pos += 4;
+        break;
+      case '/':
+      case '\\':
+      case '\'':
+      case '"':
+        result.append(c);
+        break;
+      default:
+        pos--;
+        throw syntaxError("Invalid escape sequence");
+      }
+    }
+  }
+
+  /** Returns the next character, or 0 at the end of the query. */
+  private char peek() {
+    return pos < path.length() ? path.charAt(pos) : 0;
+  }
+
+  private boolean consume(char c) {
+    if (peek() == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean consumeOperator(String operator) {
+    skipWhitespace();
+    if (path.startsWith(operator, pos)) {
+      pos += operator.length();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean consumeWord(String word) {
+    int end = pos + word.length();
+    if (path.startsWith(word, pos)
+        && (end == path.length() || !isNameStart(path.charAt(end)) && !isDigit(path.charAt(end)))) {
+      pos = end;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char c) {
+    if (!consume(c)) {
+      throw syntaxError("Expected '" + c + "'");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < path.length()) {
+      char c = path.charAt(pos);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+        break;
+      }
+      pos++;
+    }
+  }
+
+  private static boolean isNameStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c >= 0x80;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private IllegalArgumentException syntaxError(String message) {
+    return new IllegalArgumentException(message + " at index " + pos + " of JSONPath " + path);
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonArray;
+import com.zeoflow.zson.JsonElement;
+import com.zeoflow.zson.internal.bind.TypeAdapters;
+import com.zeoflow.zson.stream.JsonReader;
+import com.zeoflow.zson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The segments of a query and how to walk a document with them.
+ *
+ * <p>Every value is visited once, with the set of states it was reached in: state {@code i}
+ * means segment {@code i} is to be applied to the value next, and state {@code
+ * segments.length} means all segments were applied and the value is a match. A value's
+ * children get the states their parent's segments select them in, and a child with no states
+ * can't lead to a match. That way a value that several paths through the query reach is
+ * selected once, and matches come in document order.
+ */
+final class Query {
+  /** Queries can have at most this many segments, so that a set of states fits a long. */
+  static final int MAX_SEGMENTS = Long.SIZE - 1;
+  /** The states of the root value. */
+  static final long START = 1L;
+
+  final Segment[] segments;
+  /** The state of values all segments were applied to. */
+  private final long matched;
+  /** The states whose segment needs the size of arrays. */
+  private final long needsSize;
+  /** The states whose segment needs each child's value. */
+  private final long needsValue;
+
+  Query(Segment[] segments) {
+    if (segments.length > MAX_SEGMENTS) {
+      throw new IllegalArgumentException("Queries can have at most " + MAX_SEGMENTS + " segments");
+    }
+    this.segments = segments;
+    this.matched = 1L << segments.length;
+    long needsSize = 0;
+    long needsValue = 0;
+    for (int i = 0; i < segments.length; i++) {
+      if (segments[i].needsSize) {
+        needsSize |= 1L << i;
+      }
+      if (segments[i].needsValue) {
+        needsValue |= 1L << i;
+      }
+    }
+    this.needsSize = needsSize;
+    this.needsValue = needsValue;
+  }
+
+  /** Returns true if this selects at most one value. */
+  boolean isSingular() {
+    for (Segment segment : segments) {
+      if (!segment.isSingular()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the states of a child of a value with {@code states}. */
+  private long step(long states, String name, int index, int size, JsonElement value) {
+    long result = 0;
+    for (long remaining = states & ~matched; remaining != 0; remaining &= remaining - 1) {
+      int state = Long.numberOfTrailingZeros(remaining);
+      Segment segment = segments[state];
+      if (segment.descendant) {
+        result |= 1L << state;
+      }
+      if (segment.matches(name, index, size, value)) {
+        result |= 1L << (state + 1);
+      }
+    }
+    return result;
+  }
+
+  /** Reports {@code element}, which has {@code states}, and its descendants if they match. */
+  void match(JsonElement element, long states, JsonPath.Callback callback) {
+    if ((states & matched) != 0) {
+      callback.onMatch(element);
+    }
+    if ((states & ~matched) == 0) {
+      return;
+    }
+    if (element.isJsonObject()) {
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        long next = step(states, entry.getKey(), -1, -1, entry.getValue());
+        if (next != 0) {
+          match(entry.getValue(), next, callback);
+        }
+      }
+    } else if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      for (int i = 0, size = array.size(); i < size; i++) {
+        long next = step(states, null, i, size, array.get(i));
+        if (next != 0) {
+          match(array.get(i), next, callback);
+        }
+      }
+    }
+  }
+
+  /** Returns true if this selects anything in {@code element}. */
+  boolean exists(JsonElement element) {
+    return exists(element, START);
+  }
+
+  private boolean exists(JsonElement element, long states) {
+    if ((states & matched) != 0) {
+      return true;
+    }
+    if (element.isJsonObject()) {
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        long next = step(states, entry.getKey(), -1, -1, entry.getValue());
+        if (next != 0 && exists(entry.getValue(), next)) {
+          return true;
+        }
+      }
+    } else if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      for (int i = 0, size = array.size(); i < size; i++) {
+        long next = step(states, null, i, size, array.get(i));
+        if (next != 0 && exists(array.get(i), next)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns the value this singular query selects in {@code element}, or null for none. */
+  JsonElement selectSingular(JsonElement element) {
+    for (Segment segment : segments) {
+      Selector selector = segment.selectors[0];
+      if (selector instanceof Selector.Name && element.isJsonObject()) {
+        element = element.getAsJsonObject().get(((Selector.Name) selector).name);
+      } else if (selector instanceof Selector.Index && element.isJsonArray()) {
+        JsonArray array = element.getAsJsonArray();
+        int index = ((Selector.Index) selector).index;
+        if (index < 0) {
+          index += array.size();
+        }
+        element = index >= 0 && index < array.size() ? array.get(index) : null;
+      } else {
+        return null;
+      }
+      if (element == null) {
+        return null;
+      }
+    }
+    return element;
+  }
+
+  /**
+   * Reports the matches in the value at the reader's position, which has {@code states}.
+   * Values only become trees when they match, when a filter needs to test them, or when they
+   * are arrays whose selected indices depend on their size; everything else is streamed, and
+   * values with no states are skipped.
+   */
+  void visit(JsonReader reader, long states, JsonPath.Callback callback) throws IOException {
+    if ((states & matched) != 0) {
+      match(TypeAdapters.JSON_ELEMENT.read(reader), states, callback);
+      return;
+    }
+    JsonToken token = reader.peek();
+    if (token == JsonToken.BEGIN_OBJECT) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        visitChild(reader, states, reader.nextName(), -1, callback);
+      }
+      reader.endObject();
+    } else if (token == JsonToken.BEGIN_ARRAY && (states & needsSize) != 0) {
+      match(TypeAdapters.JSON_ELEMENT.read(reader), states, callback);
+    } else if (token == JsonToken.BEGIN_ARRAY) {
+      reader.beginArray();
+      for (int i = 0; reader.hasNext(); i++) {
+        visitChild(reader, states, null, i, callback);
+      }
+      reader.endArray();
+    } else {
+      reader.skipValue();
+    }
+  }
+
+  private void visitChild(JsonReader reader, long states, String name, int index,
+      JsonPath.Callback callback) throws IOException {
+    if ((states & needsValue) != 0) {
+      JsonElement value = TypeAdapters.JSON_ELEMENT.read(reader);
+      long next = step(states, name, index, -1, value);
+      if (next != 0) {
+        match(value, next, callback);
+      }
+    } else {
+      long next = step(states, name, index, -1, null);
+      if (next != 0) {
+        visit(reader, next, callback);
+      } else {
+        reader.skipValue();
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonElement;
+
+/**
+ * One step of a query: the children its selectors choose from each value the previous step
+ * produced or, for a descendant segment, from each of those values and all their descendants.
+ */
+final class Segment {
+  final boolean descendant;
+  final Selector[] selectors;
+  final boolean needsSize;
+  final boolean needsValue;
+
+  Segment(boolean descendant, Selector[] selectors) {
+    this.descendant = descendant;
+    this.selectors = selectors;
+    boolean needsSize = false;
+    boolean needsValue = false;
+    for (Selector selector : selectors) {
+      needsSize |= selector.needsSize();
+      needsValue |= selector.needsValue();
+    }
+    this.needsSize = needsSize;
+    this.needsValue = needsValue;
+  }
+
+  /** Returns true if any selector of this segment chooses the child. */
+  boolean matches(String name, int index, int size, JsonElement value) {
+    for (Selector selector : selectors) {
+      if (selector.matches(name, index, size, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns true if this chooses at most one child: a single name or index. */
+  boolean isSingular() {
+    return !descendant && selectors.length == 1
+        && (selectors[0] instanceof Selector.Name || selectors[0] instanceof Selector.Index);
+  }
+}
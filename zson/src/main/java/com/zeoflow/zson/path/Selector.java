@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.path;
+
+import com.zeoflow.zson.JsonElement;
+
+/**
+ * Chooses children of the value a {@link Segment} is applied to. Object members are offered by
+ * name, array elements by index.
+ */
+abstract class Selector {
+  /**
+   * Returns true if this selects the child named {@code name}, or the child at {@code index} of
+   * an array of {@code size} elements. Exactly one of {@code name} and {@code index} is set; the
+   * other is null or -1. {@code size} is -1 if it isn't known, which is only the case when
+   * {@link #needsSize} is false. {@code value} is the child itself, and is only guaranteed to
+   * be set when {@link #needsValue} is true.
+   */
+  abstract boolean matches(String name, int index, int size, JsonElement value);
+
+  /** Returns true if this can't decide without the size of the enclosing array. */
+  boolean needsSize() {
+    return false;
+  }
+
+  /** Returns true if this can't decide without the child itself. */
+  boolean needsValue() {
+    return false;
+  }
+
+  /** Selects the object member with a given name. */
+  static final class Name extends Selector {
+    final String name;
+
+    Name(String name) {
+      this.name = name;
+    }
+
+    @Override boolean matches(String name, int index, int size, JsonElement value) {
+      return this.name.equals(name);
+    }
+  }
+
+  /** Selects every member of an object and every element of an array. */
+  static final class Wildcard extends Selector {
+    static final Wildcard INSTANCE = new Wildcard();
+
+    private Wildcard() {
+    }
+
+    @Override boolean matches(String name, int index, int size, JsonElement value) {
+      return true;
+    }
+  }
+
+  /** Selects the array element at an index. Negative indices count back from the end. */
+  static final class Index extends Selector {
+    final int index;
+
+    Index(int index) {
+      this.index = index;
+    }
+
+    @Override boolean matches(String name, int index, int size, JsonElement value) {
+      return index != -1 && (this.index >= 0 ? index == this.index : index == size + this.index);
+    }
+
+    @Override boolean needsSize() {
+      return index < 0;
+    }
+  }
+
+  /**
+   * Selects the array elements from {@code start} up to {@code end}, every {@code step}
+   * elements. Negative bounds count back from the end, and a negative step walks the
+   * elements from {@code start} down to {@code end}; a step of zero selects nothing.
+   */
+  static final class Slice extends Selector {
+    /** The bounds, or null for the default of the step's direction. */
+    final Integer start;
+    final Integer end;
+    final int step;
+
+    Slice(Integer start, Integer end, int step) {
+      this.start = start;
+      this.end = end;
+      this.step = step;
+    }
+
+    @Override boolean matches(String name, int index, int size, JsonElement value) {
+      if (index == -1 || step == 0) {
+        return false;
+      }
+      if (step > 0) {
+        int lower = start == null ? 0 : Math.max(normalize(start, size), 0);
+        int upper = end == null ? Integer.MAX_VALUE : normalize(end, size);
+        return lower <= index && index < upper && (index - lower) % step == 0;
+      } else {
+        int upper = start == null ? size - 1 : Math.min(normalize(start, size), size - 1);
+        int lower = end == null ? -1 : normalize(end, size);
+        return lower < index && index <= upper && (upper - index) % step == 0;
+      }
+    }
+
+    @Override boolean needsSize() {
+      return step < 0 || (start != null && start < 0) || (end != null && end < 0);
+    }
+
+    private static int normalize(int bound, int size) {
+      return bound >= 0 ? bound : size + bound;
+    }
+  }
+
+  /** Selects the children for which a filter expression holds. */
+  static final class Filter extends Selector {
+    final Expression expression;
+
+    Filter(Expression expression) {
+      this.expression = expression;
+    }
+
+    @Override boolean matches(String name, int index, int size, JsonElement value) {
+      return expression.test(value);
+    }
+
+    @Override boolean needsValue() {
+      return true;
+    }
+  }
+}
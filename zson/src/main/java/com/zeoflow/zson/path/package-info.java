@@ -0,0 +1,5 @@
+/**
+ * This package provides {@link com.zeoflow.zson.path.JsonPath}, which selects values from JSON
+ * trees and streams with JSONPath queries.
+ */
+package com.zeoflow.zson.path;
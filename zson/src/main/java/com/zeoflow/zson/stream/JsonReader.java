@@ -16,13 +16,18 @@
 
 package com.zeoflow.zson.stream;
 
+import com.zeoflow.zson.internal.DoubleParser;
 import com.zeoflow.zson.internal.JsonReaderInternalAccess;
+import com.zeoflow.zson.internal.bind.JsonTokenReader;
 import com.zeoflow.zson.internal.bind.JsonTreeReader;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Reads a JSON (<a href="http://www.ietf.org/rfc/rfc7159.txt">RFC 7159</a>)
@@ -191,38 +196,38 @@ import java.util.Arrays;
 public class JsonReader implements Closeable {
   /** The only non-execute prefix this parser permits */
   private static final char[] NON_EXECUTE_PREFIX = ")]}'\n".toCharArray();
-  private static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
-
-  private static final int PEEKED_NONE = 0;
-  private static final int PEEKED_BEGIN_OBJECT = 1;
-  private static final int PEEKED_END_OBJECT = 2;
-  private static final int PEEKED_BEGIN_ARRAY = 3;
-  private static final int PEEKED_END_ARRAY = 4;
-  private static final int PEEKED_TRUE = 5;
-  private static final int PEEKED_FALSE = 6;
-  private static final int PEEKED_NULL = 7;
-  private static final int PEEKED_SINGLE_QUOTED = 8;
-  private static final int PEEKED_DOUBLE_QUOTED = 9;
-  private static final int PEEKED_UNQUOTED = 10;
+  static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
+
+  static final int PEEKED_NONE = 0;
+  static final int PEEKED_BEGIN_OBJECT = 1;
+  static final int PEEKED_END_OBJECT = 2;
+  static final int PEEKED_BEGIN_ARRAY = 3;
+  static final int PEEKED_END_ARRAY = 4;
+  static final int PEEKED_TRUE = 5;
+  static final int PEEKED_FALSE = 6;
+  static final int PEEKED_NULL = 7;
+  static final int PEEKED_SINGLE_QUOTED = 8;
+  static final int PEEKED_DOUBLE_QUOTED = 9;
+  static final int PEEKED_UNQUOTED = 10;
   /** When this is returned, the string value is stored in peekedString. */
-  private static final int PEEKED_BUFFERED = 11;
-  private static final int PEEKED_SINGLE_QUOTED_NAME = 12;
-  private static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
-  private static final int PEEKED_UNQUOTED_NAME = 14;
+  static final int PEEKED_BUFFERED = 11;
+  static final int PEEKED_SINGLE_QUOTED_NAME = 12;
+  static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
+  static final int PEEKED_UNQUOTED_NAME = 14;
   /** When this is returned, the integer value is stored in peekedLong. */
-  private static final int PEEKED_LONG = 15;
-  private static final int PEEKED_NUMBER = 16;
-  private static final int PEEKED_EOF = 17;
+  static final int PEEKED_LONG = 15;
+  static final int PEEKED_NUMBER = 16;
+  static final int PEEKED_EOF = 17;
 
   /* State machine when parsing numbers */
-  private static final int NUMBER_CHAR_NONE = 0;
-  private static final int NUMBER_CHAR_SIGN = 1;
-  private static final int NUMBER_CHAR_DIGIT = 2;
-  private static final int NUMBER_CHAR_DECIMAL = 3;
-  private static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
-  private static final int NUMBER_CHAR_EXP_E = 5;
-  private static final int NUMBER_CHAR_EXP_SIGN = 6;
-  private static final int NUMBER_CHAR_EXP_DIGIT = 7;
+  static final int NUMBER_CHAR_NONE = 0;
+  static final int NUMBER_CHAR_SIGN = 1;
+  static final int NUMBER_CHAR_DIGIT = 2;
+  static final int NUMBER_CHAR_DECIMAL = 3;
+  static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
+  static final int NUMBER_CHAR_EXP_E = 5;
+  static final int NUMBER_CHAR_EXP_SIGN = 6;
+  static final int NUMBER_CHAR_EXP_DIGIT = 7;
 
   /** The input JSON. */
   private final Reader in;
@@ -236,12 +241,12 @@ public class JsonReader implements Closeable {
    * We decode literals directly out of this buffer, so it must be at least as
    * long as the longest token that can be reported as a number.
    */
-  private final char[] buffer = new char[1024];
+  private final char[] buffer;
   private int pos = 0;
   private int limit = 0;
 
-  private int lineNumber = 0;
-  private int lineStart = 0;
+  int lineNumber = 0;
+  int lineStart = 0;
 
   int peeked = PEEKED_NONE;
 
@@ -249,26 +254,26 @@ public class JsonReader implements Closeable {
    * A peeked value that was composed entirely of digits with an optional
    * leading dash. Positive values may not have a leading 0.
    */
-  private long peekedLong;
+  long peekedLong;
 
   /**
    * The number of characters in a peeked number literal. Increment 'pos' by
    * this after reading a number.
    */
-  private int peekedNumberLength;
+  int peekedNumberLength;
 
   /**
    * A peeked string that should be parsed on the next double, long or string.
    * This is populated before a numeric value is parsed and used if that parsing
    * fails.
    */
-  private String peekedString;
+  String peekedString;
 
   /*
    * The nesting stack. Using a manual array rather than an ArrayList saves 20%.
    */
-  private int[] stack = new int[32];
-  private int stackSize = 0;
+  int[] stack = new int[32];
+  int stackSize = 0;
   {
     stack[stackSize++] = JsonScope.EMPTY_DOCUMENT;
   }
@@ -281,8 +286,8 @@ public class JsonReader implements Closeable {
    * that array. Otherwise the value is undefined, and we take advantage of that
    * by incrementing pathIndices when doing so isn't useful.
    */
-  private String[] pathNames = new String[32];
-  private int[] pathIndices = new int[32];
+  String[] pathNames = new String[32];
+  int[] pathIndices = new int[32];
 
   /**
    * Creates a new instance that reads a JSON-encoded stream from {@code in}.
@@ -292,6 +297,16 @@ public class JsonReader implements Closeable {
       throw new NullPointerException("in == null");
     }
     this.in = in;
+    this.buffer = new char[1024];
+  }
+
+  /**
+   * Creates an instance for subclasses in this package that tokenize their
+   * own input and therefore need neither a {@link Reader} nor a char buffer.
+   */
+  JsonReader() {
+    this.in = null;
+    this.buffer = null;
   }
 
   /**
@@ -742,7 +757,7 @@ public class JsonReader implements Closeable {
     }
   }
 
-  private boolean isLiteral(char c) throws IOException {
+  boolean isLiteral(char c) throws IOException {
     switch (c) {
     case '/':
     case '\\':
@@ -830,6 +845,143 @@ public class JsonReader implements Closeable {
     return result;
   }
 
+  /**
+   * Consumes the next token, a {@link JsonToken#NAME property name}, and
+   * returns its index in {@code options}, or -1 if it isn't one of them.
+   *
+   * <p>Unlike {@code options.indexOf(nextName())}, this compares the name
+   * with the candidates while it is still in the reader's buffer, so a
+   * matching name is never allocated. Subclasses that don't override this
+   * method get the name from {@link #nextName()} instead, so that overrides of
+   * it and of {@link #peek()} still apply.
+   *
+   * @throws java.io.IOException if the next token in the stream is not a property
+   *     name.
+   */
+  public int selectName(Options options) throws IOException {
+    if (getClass() != JsonReader.class) {
+      return options.indexOf(nextName());
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    int end = p == PEEKED_DOUBLE_QUOTED_NAME ? findPlainStringEnd() : -1;
+    if (end == -1) {
+      return options.indexOf(nextName());
+    }
+    int index = options.find(buffer, pos, end - pos);
+    pathNames[stackSize - 1] = index != -1
+        ? options.strings[index]
+        : new String(buffer, pos, end - pos);
+    pos = end + 1;
+    peeked = PEEKED_NONE;
+    return index;
+  }
+
+  /**
+   * Like {@link #selectName(Options)}, but first compares the name with
+   * {@code options.get(expected)} alone. Adapters that usually see names in a
+   * known order, such as the order they write them in, can pass the index
+   * they predict to skip hashing the name; a wrong prediction costs little
+   * more than the comparison. Pass -1 to make no prediction.
+   *
+   * @throws java.io.IOException if the next token in the stream is not a property
+   *     name.
+   */
+  public int selectName(Options options, int expected) throws IOException {
+    if (expected != -1 && options.plain[expected] && getClass() == JsonReader.class) {
+      int p = peeked;
+      if (p == PEEKED_NONE) {
+        p = doPeek();
+      }
+      String candidate = options.strings[expected];
+      if (p == PEEKED_DOUBLE_QUOTED_NAME && matchesPlainString(candidate)) {
+        pathNames[stackSize - 1] = candidate;
+        pos += candidate.length() + 1;
+        peeked = PEEKED_NONE;
+        return expected;
+      }
+    }
+    return selectName(options);
+  }
+
+  /**
+   * Returns true if the double-quoted string that starts at {@code pos} is
+   * exactly {@code candidate}, which must not contain characters that JSON
+   * strings escape. This fills the buffer as needed but consumes nothing.
+   */
+  private boolean matchesPlainString(String candidate) throws IOException {
+    int length = candidate.length();
+    if (limit - pos <= length
+        && (length + 1 >= buffer.length || !fillBuffer(length + 1))) {
+      return false;
+    }
+    char[] buffer = this.buffer;
+    int p = pos;
+    for (int i = 0; i < length; i++) {
+      if (buffer[p + i] != candidate.charAt(i)) {
+        return false;
+      }
+    }
+    return buffer[p + length] == '"';
+  }
+
+  /**
+   * Consumes the next token, a {@link JsonToken#STRING string} or a number,
+   * and returns the index of its string form in {@code options}, or -1 if it
+   * isn't one of them. Like {@link #selectName}, this doesn't allocate the
+   * string if it is a match, and subclasses that don't override it get the
+   * string from {@link #nextString()}.
+   *
+   * @throws IllegalStateException if the next token is not a string or if
+   *     this reader is closed.
+   */
+  public int selectString(Options options) throws IOException {
+    if (getClass() != JsonReader.class) {
+      return options.indexOf(nextString());
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    int end = p == PEEKED_DOUBLE_QUOTED ? findPlainStringEnd() : -1;
+    if (end == -1) {
+      return options.indexOf(nextString());
+    }
+    int index = options.find(buffer, pos, end - pos);
+    pos = end + 1;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return index;
+  }
+
+  /**
+   * Returns the position of the closing quote of the double-quoted string
+   * that starts at {@code pos}, filling the buffer as needed. Returns -1 if
+   * the string contains escapes or newlines, or doesn't fit in the buffer;
+   * {@link #nextQuotedValue} must decode those.
+   */
+  private int findPlainStringEnd() throws IOException {
+    int p = pos;
+    while (true) {
+      if (p == limit) {
+        int length = p - pos;
+        if (length + 1 >= buffer.length || !fillBuffer(length + 1)) {
+          return -1;
+        }
+        p = pos + length;
+      }
+      char c = buffer[p];
+      if (c == '"') {
+        return p;
+      } else if (c == '\\' || c == '\n') {
+        return -1;
+      }
+      p++;
+    }
+  }
+
   /**
    * Returns the {@link JsonToken#BOOLEAN boolean} value of the next token,
    * consuming it.
@@ -896,6 +1048,13 @@ public class JsonReader implements Closeable {
     }
 
     if (p == PEEKED_NUMBER) {
+      double result = DoubleParser.parseDouble(buffer, pos, peekedNumberLength);
+      if (!Double.isInfinite(result)) {
+        pos += peekedNumberLength;
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      }
       peekedString = new String(buffer, pos, peekedNumberLength);
       pos += peekedNumberLength;
     } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
@@ -1261,7 +1420,7 @@ public class JsonReader implements Closeable {
     pathNames[stackSize - 1] = "null";
   }
 
-  private void push(int newTop) {
+  void push(int newTop) {
     if (stackSize == stack.length) {
       int newLength = stackSize * 2;
       stack = Arrays.copyOf(stack, newLength);
@@ -1400,7 +1559,7 @@ public class JsonReader implements Closeable {
     }
   }
 
-  private void checkLenient() throws IOException {
+  void checkLenient() throws IOException {
     if (!lenient) {
       throw syntaxError("Use JsonReader.setLenient(true) to accept malformed JSON");
     }
@@ -1560,7 +1719,7 @@ public class JsonReader implements Closeable {
    * Throws a new IO exception with the given message and a context snippet
    * with this reader's content.
    */
-  private IOException syntaxError(String message) throws IOException {
+  IOException syntaxError(String message) throws IOException {
     throw new MalformedJsonException(message + locationString());
   }
 
@@ -1586,6 +1745,160 @@ public class JsonReader implements Closeable {
     pos += NON_EXECUTE_PREFIX.length;
   }
 
+  /**
+   * A set of strings to match against property names with {@link #selectName}
+   * and against string values with {@link #selectString}. Create it once,
+   * for example when a type adapter is created, and reuse it for every read.
+   */
+  public static final class Options {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    final String[] strings;
+    /** The strings encoded as UTF-8, for readers that work on bytes. */
+    final byte[][] utf8Strings;
+    /**
+     * Whether each string appears verbatim in both a JSON document and in
+     * {@link #utf8Strings}: it needs no escaping and has no unpaired surrogates.
+     */
+    final boolean[] plain;
+    /** Open addressing tables of string index + 1, keyed by char and by byte hashes. */
+    private final int[] charTable;
+    private final int[] byteTable;
+    private final int[] byteHashes;
+    private final Map<String, Integer> indices;
+
+    private Options(String[] strings) {
+      this.strings = strings;
+      this.utf8Strings = new byte[strings.length][];
+      this.byteHashes = new int[strings.length];
+      this.plain = new boolean[strings.length];
+      int tableSize = Integer.highestOneBit(Math.max(strings.length, 1) * 2) * 2;
+      this.charTable = new int[tableSize];
+      this.byteTable = new int[tableSize];
+      this.indices = new HashMap<String, Integer>();
+      for (int i = 0; i < strings.length; i++) {
+        String string = strings[i];
+        if (indices.put(string, i) != null) {
+          throw new IllegalArgumentException("Duplicate option: " + string);
+        }
+        utf8Strings[i] = string.getBytes(UTF_8);
+        byteHashes[i] = hash(utf8Strings[i], 0, utf8Strings[i].length);
+        plain[i] = isPlain(string) && new String(utf8Strings[i], UTF_8).equals(string);
+        insert(charTable, string.hashCode(), i);
+        if (plain[i]) {
+          // the encoding of other strings could match different input bytes
+          insert(byteTable, byteHashes[i], i);
+        }
+      }
+    }
+
+    private static boolean isPlain(String string) {
+      for (int i = 0, length = string.length(); i < length; i++) {
+        char c = string.charAt(i);
+        if (c == '"' || c == '\\' || c < 0x20) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns options matching {@code strings}, which must not contain
+     * duplicates. The index of a string in this array is the value
+     * {@link #selectName} and {@link #selectString} return for it.
+     */
+    public static Options of(String... strings) {
+      return new Options(strings.clone());
+    }
+
+    /** Returns the number of strings in this set. */
+    public int size() {
+      return strings.length;
+    }
+
+    /** Returns the string at {@code index}. */
+    public String get(int index) {
+      return strings[index];
+    }
+
+    /** Returns the index of {@code string}, or -1 if it isn't in this set. */
+    public int indexOf(String string) {
+      Integer index = indices.get(string);
+      return index != null ? index : -1;
+    }
+
+    /** Returns the index of the string in {@code chars[offset..offset+length)}, or -1. */
+    int find(char[] chars, int offset, int length) {
+      int hash = 0;
+      for (int i = offset, end = offset + length; i < end; i++) {
+        hash = 31 * hash + chars[i];
+      }
+      int mask = charTable.length - 1;
+      for (int slot = spread(hash) & mask; charTable[slot] != 0; slot = (slot + 1) & mask) {
+        int index = charTable[slot] - 1;
+        String candidate = strings[index];
+        if (candidate.length() == length && matches(candidate, chars, offset)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+
+    /** Returns the index of the string encoded in {@code bytes[offset..offset+length)}, or -1. */
+    int find(byte[] bytes, int offset, int length) {
+      int hash = hash(bytes, offset, length);
+      int mask = byteTable.length - 1;
+      for (int slot = spread(hash) & mask; byteTable[slot] != 0; slot = (slot + 1) & mask) {
+        int index = byteTable[slot] - 1;
+        byte[] candidate = utf8Strings[index];
+        if (byteHashes[index] == hash && candidate.length == length
+            && matches(candidate, bytes, offset)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+
+    private static boolean matches(String candidate, char[] chars, int offset) {
+      for (int i = 0, length = candidate.length(); i < length; i++) {
+        if (candidate.charAt(i) != chars[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean matches(byte[] candidate, byte[] bytes, int offset) {
+      for (int i = 0; i < candidate.length; i++) {
+        if (candidate[i] != bytes[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+      int hash = 0;
+      for (int i = offset, end = offset + length; i < end; i++) {
+        hash = 31 * hash + (bytes[i] & 0xff);
+      }
+      return hash;
+    }
+
+    private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+
+    private static void insert(int[] table, int hash, int index) {
+      int mask = table.length - 1;
+      int slot = spread(hash) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = index + 1;
+    }
+  }
+
   static {
     JsonReaderInternalAccess.INSTANCE = new JsonReaderInternalAccess() {
       @Override public void promoteNameToValue(JsonReader reader) throws IOException {
@@ -1593,6 +1906,10 @@ public class JsonReader implements Closeable {
           ((JsonTreeReader)reader).promoteNameToValue();
           return;
         }
+        if (reader instanceof JsonTokenReader) {
+          ((JsonTokenReader)reader).promoteNameToValue();
+          return;
+        }
         int p = reader.peeked;
         if (p == PEEKED_NONE) {
           p = reader.doPeek();
@@ -1608,6 +1925,13 @@ public class JsonReader implements Closeable {
               "Expected a name but was " + reader.peek() + reader.locationString());
         }
       }
+
+      @Override public int position(JsonReader reader) {
+        if (!(reader instanceof Utf8JsonReader)) {
+          throw new IllegalArgumentException("Not reading a byte array: " + reader);
+        }
+        return ((Utf8JsonReader) reader).position();
+      }
     };
   }
 }
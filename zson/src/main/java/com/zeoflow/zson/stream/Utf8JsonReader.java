@@ -0,0 +1,1233 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.stream;
+
+import com.zeoflow.zson.internal.DoubleParser;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonReader} that tokenizes UTF-8 encoded JSON directly from bytes,
+ * without first decoding the input through a {@link java.io.Reader}.
+ *
+ * <p>Structural tokens, numbers, literals and skipped values are handled on the
+ * raw bytes. A {@code String} is only materialized when a name or string value
+ * is actually consumed with {@link #nextName()} or {@link #nextString()}. When
+ * reading from a {@code byte[]} the array is tokenized in place and is never
+ * modified.
+ *
+ * <p>Malformed UTF-8 sequences are replaced with {@code U+FFFD}, as an
+ * {@link java.io.InputStreamReader} would do. Column numbers in error messages
+ * count bytes rather than characters.
+ *
+ * <p>Each {@code Utf8JsonReader} may be used to read a single JSON stream.
+ * Instances of this class are not thread safe.
+ */
+public class Utf8JsonReader extends JsonReader {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  /** The only non-execute prefix this parser permits */
+  private static final byte[] NON_EXECUTE_PREFIX = {')', ']', '}', '\'', '\n'};
+  private static final char REPLACEMENT_CHARACTER = '\ufffd';
+
+  /** The input JSON, or null if the entire document is in {@link #buffer}. */
+  private final InputStream in;
+
+  /**
+   * The bytes being tokenized. When reading a byte array this is the caller's
+   * array, so it must never be written to in that mode.
+   */
+  private final byte[] buffer;
+  private int pos;
+  private int limit;
+
+  /** Scratch space for strings that contain escapes or span buffer refills. */
+  private char[] chars;
+
+  /**
+   * Creates a new instance that reads a UTF-8 encoded JSON stream from
+   * {@code in}.
+   */
+  public Utf8JsonReader(InputStream in) {
+    if (in == null) {
+      throw new NullPointerException("in == null");
+    }
+    this.in = in;
+    this.buffer = new byte[8192];
+  }
+
+  /**
+   * Creates a new instance that reads the UTF-8 encoded JSON in {@code bytes}.
+   */
+  public Utf8JsonReader(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Creates a new instance that reads the UTF-8 encoded JSON in
+   * {@code bytes[offset..offset+length)}.
+   */
+  public Utf8JsonReader(byte[] bytes, int offset, int length) {
+    if (bytes == null) {
+      throw new NullPointerException("bytes == null");
+    }
+    if ((offset | length) < 0 || offset > bytes.length - length) {
+      throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length);
+    }
+    this.in = null;
+    this.buffer = bytes;
+    this.pos = offset;
+    this.limit = offset + length;
+    this.lineStart = offset;
+  }
+
+  @SuppressWarnings("fallthrough")
+  @Override int doPeek() throws IOException {
+    int peekStack = stack[stackSize - 1];
+    if (peekStack == JsonScope.EMPTY_ARRAY) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_ARRAY;
+    } else if (peekStack == JsonScope.NONEMPTY_ARRAY) {
+      // Look for a comma before the next element.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+      case ']':
+        return peeked = PEEKED_END_ARRAY;
+      case ';':
+        checkLenient(); // fall-through
+      case ',':
+        break;
+      default:
+        throw syntaxError("Unterminated array");
+      }
+    } else if (peekStack == JsonScope.EMPTY_OBJECT || peekStack == JsonScope.NONEMPTY_OBJECT) {
+      stack[stackSize - 1] = JsonScope.DANGLING_NAME;
+      // Look for a comma before the next element.
+      if (peekStack == JsonScope.NONEMPTY_OBJECT) {
+        int c = nextNonWhitespace(true);
+        switch (c) {
+        case '}':
+          return peeked = PEEKED_END_OBJECT;
+        case ';':
+          checkLenient(); // fall-through
+        case ',':
+          break;
+        default:
+          throw syntaxError("Unterminated object");
+        }
+      }
+      int c = nextNonWhitespace(true);
+      switch (c) {
+      case '"':
+        return peeked = PEEKED_DOUBLE_QUOTED_NAME;
+      case '\'':
+        checkLenient();
+        return peeked = PEEKED_SINGLE_QUOTED_NAME;
+      case '}':
+        if (peekStack != JsonScope.NONEMPTY_OBJECT) {
+          return peeked = PEEKED_END_OBJECT;
+        } else {
+          throw syntaxError("Expected name");
+        }
+      default:
+        checkLenient();
+        pos--; // Don't consume the first character in an unquoted string.
+        if (isLiteral((char) c)) {
+          return peeked = PEEKED_UNQUOTED_NAME;
+        } else {
+          throw syntaxError("Expected name");
+        }
+      }
+    } else if (peekStack == JsonScope.DANGLING_NAME) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_OBJECT;
+      // Look for a colon before the value.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+      case ':':
+        break;
+      case '=':
+        checkLenient();
+        if ((pos < limit || fillBuffer(1)) && buffer[pos] == '>') {
+          pos++;
+        }
+        break;
+      default:
+        throw syntaxError("Expected ':'");
+      }
+    } else if (peekStack == JsonScope.EMPTY_DOCUMENT) {
+      consumeByteOrderMark();
+      if (isLenient()) {
+        consumeNonExecutePrefix();
+      }
+      stack[stackSize - 1] = JsonScope.NONEMPTY_DOCUMENT;
+    } else if (peekStack == JsonScope.NONEMPTY_DOCUMENT) {
+      int c = nextNonWhitespace(false);
+      if (c == -1) {
+        return peeked = PEEKED_EOF;
+      } else {
+        checkLenient();
+        pos--;
+      }
+    } else if (peekStack == JsonScope.CLOSED) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+
+    int c = nextNonWhitespace(true);
+    switch (c) {
+    case ']':
+      if (peekStack == JsonScope.EMPTY_ARRAY) {
+        return peeked = PEEKED_END_ARRAY;
+      }
+      // fall-through to handle ",]"
+    case ';':
+    case ',':
+      // In lenient mode, a 0-length literal in an array means 'null'.
+      if (peekStack == JsonScope.EMPTY_ARRAY || peekStack == JsonScope.NONEMPTY_ARRAY) {
+        checkLenient();
+        pos--;
+        return peeked = PEEKED_NULL;
+      } else {
+        throw syntaxError("Unexpected value");
+      }
+    case '\'':
+      checkLenient();
+      return peeked = PEEKED_SINGLE_QUOTED;
+    case '"':
+      return peeked = PEEKED_DOUBLE_QUOTED;
+    case '[':
+      return peeked = PEEKED_BEGIN_ARRAY;
+    case '{':
+      return peeked = PEEKED_BEGIN_OBJECT;
+    default:
+      pos--; // Don't consume the first character in a literal value.
+    }
+
+    int result = peekKeyword();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    result = peekNumber();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    if (!isLiteral((char) buffer[pos])) {
+      throw syntaxError("Expected value");
+    }
+
+    checkLenient();
+    return peeked = PEEKED_UNQUOTED;
+  }
+
+  private int peekKeyword() throws IOException {
+    // Figure out which keyword we're matching against by its first character.
+    byte c = buffer[pos];
+    String keyword;
+    String keywordUpper;
+    int peeking;
+    if (c == 't' || c == 'T') {
+      keyword = "true";
+      keywordUpper = "TRUE";
+      peeking = PEEKED_TRUE;
+    } else if (c == 'f' || c == 'F') {
+      keyword = "false";
+      keywordUpper = "FALSE";
+      peeking = PEEKED_FALSE;
+    } else if (c == 'n' || c == 'N') {
+      keyword = "null";
+      keywordUpper = "NULL";
+      peeking = PEEKED_NULL;
+    } else {
+      return PEEKED_NONE;
+    }
+
+    // Confirm that bytes [1..length) match the keyword.
+    int length = keyword.length();
+    for (int i = 1; i < length; i++) {
+      if (pos + i >= limit && !fillBuffer(i + 1)) {
+        return PEEKED_NONE;
+      }
+      c = buffer[pos + i];
+      if (c != keyword.charAt(i) && c != keywordUpper.charAt(i)) {
+        return PEEKED_NONE;
+      }
+    }
+
+    if ((pos + length < limit || fillBuffer(length + 1))
+        && isLiteral((char) buffer[pos + length])) {
+      return PEEKED_NONE; // Don't match trues, falsey or nullsoft!
+    }
+
+    // We've found the keyword followed either by EOF or by a non-literal character.
+    pos += length;
+    return peeked = peeking;
+  }
+
+  private int peekNumber() throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+
+    long value = 0; // Negative to accommodate Long.MIN_VALUE more easily.
+    boolean negative = false;
+    boolean fitsInLong = true;
+    int last = NUMBER_CHAR_NONE;
+
+    int i = 0;
+
+    charactersOfNumber:
+    for (; true; i++) {
+      if (p + i == l) {
+        if (in != null && i == buffer.length) {
+          // Though this looks like a well-formed number, it's too long to continue reading. Give up
+          // and let the application handle this as an unquoted literal. A document read from
+          // memory is all in the buffer, so there a number ending at the limit is complete.
+          return PEEKED_NONE;
+        }
+        if (!fillBuffer(i + 1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      byte c = buffer[p + i];
+      switch (c) {
+      case '-':
+        if (last == NUMBER_CHAR_NONE) {
+          negative = true;
+          last = NUMBER_CHAR_SIGN;
+          continue;
+        } else if (last == NUMBER_CHAR_EXP_E) {
+          last = NUMBER_CHAR_EXP_SIGN;
+          continue;
+        }
+        return PEEKED_NONE;
+
+      case '+':
+        if (last == NUMBER_CHAR_EXP_E) {
+          last = NUMBER_CHAR_EXP_SIGN;
+          continue;
+        }
+        return PEEKED_NONE;
+
+      case 'e':
+      case 'E':
+        if (last == NUMBER_CHAR_DIGIT || last == NUMBER_CHAR_FRACTION_DIGIT) {
+          last = NUMBER_CHAR_EXP_E;
+          continue;
+        }
+        return PEEKED_NONE;
+
+      case '.':
+        if (last == NUMBER_CHAR_DIGIT) {
+          last = NUMBER_CHAR_DECIMAL;
+          continue;
+        }
+        return PEEKED_NONE;
+
+      default:
+        if (c < '0' || c > '9') {
+          if (!isLiteral((char) c)) {
+            break charactersOfNumber;
+          }
+          return PEEKED_NONE;
+        }
+        if (last == NUMBER_CHAR_SIGN || last == NUMBER_CHAR_NONE) {
+          value = -(c - '0');
+          last = NUMBER_CHAR_DIGIT;
+        } else if (last == NUMBER_CHAR_DIGIT) {
+          if (value == 0) {
+            return PEEKED_NONE; // Leading '0' prefix is not allowed (since it could be octal).
+          }
+          long newValue = value * 10 - (c - '0');
+          fitsInLong &= value > MIN_INCOMPLETE_INTEGER
+              || (value == MIN_INCOMPLETE_INTEGER && newValue < value);
+          value = newValue;
+        } else if (last == NUMBER_CHAR_DECIMAL) {
+          last = NUMBER_CHAR_FRACTION_DIGIT;
+        } else if (last == NUMBER_CHAR_EXP_E || last == NUMBER_CHAR_EXP_SIGN) {
+          last = NUMBER_CHAR_EXP_DIGIT;
+        }
+      }
+    }
+
+    // We've read a complete number. Decide if it's a PEEKED_LONG or a PEEKED_NUMBER.
+    if (last == NUMBER_CHAR_DIGIT && fitsInLong && (value != Long.MIN_VALUE || negative) && (value != 0 || !negative)) {
+      peekedLong = negative ? value : -value;
+      pos += i;
+      return peeked = PEEKED_LONG;
+    } else if (last == NUMBER_CHAR_DIGIT || last == NUMBER_CHAR_FRACTION_DIGIT
+        || last == NUMBER_CHAR_EXP_DIGIT) {
+      peekedNumberLength = i;
+      return peeked = PEEKED_NUMBER;
+    } else {
+      return PEEKED_NONE;
+    }
+  }
+
+  @Override public String nextName() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED_NAME) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      result = nextQuotedValue((byte) '\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      result = nextQuotedValue((byte) '"');
+    } else {
+      throw new IllegalStateException("Expected a name but was " + peek() + locationString());
+    }
+    peeked = PEEKED_NONE;
+    pathNames[stackSize - 1] = result;
+    return result;
+  }
+
+  @Override public String nextString() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      result = nextQuotedValue((byte) '\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED) {
+      result = nextQuotedValue((byte) '"');
+    } else if (p == PEEKED_BUFFERED) {
+      result = peekedString;
+      peekedString = null;
+    } else if (p == PEEKED_LONG) {
+      result = Long.toString(peekedLong);
+    } else if (p == PEEKED_NUMBER) {
+      result = new String(buffer, pos, peekedNumberLength, UTF_8);
+      pos += peekedNumberLength;
+    } else {
+      throw new IllegalStateException("Expected a string but was " + peek() + locationString());
+    }
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public int selectName(Options options) throws IOException {
+    if (getClass() != Utf8JsonReader.class) {
+      return options.indexOf(nextName()); // see JsonReader.selectName
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    int index = p == PEEKED_DOUBLE_QUOTED_NAME ? selectPlainString(options) : -1;
+    if (index == -1) {
+      // Decode the name; it may still match after escapes or malformed bytes are decoded.
+      return options.indexOf(nextName());
+    }
+    pathNames[stackSize - 1] = options.strings[index];
+    peeked = PEEKED_NONE;
+    return index;
+  }
+
+  @Override public int selectName(Options options, int expected) throws IOException {
+    if (expected != -1 && options.plain[expected] && getClass() == Utf8JsonReader.class) {
+      int p = peeked;
+      if (p == PEEKED_NONE) {
+        p = doPeek();
+      }
+      byte[] candidate = options.utf8Strings[expected];
+      if (p == PEEKED_DOUBLE_QUOTED_NAME && matchesPlainString(candidate)) {
+        pathNames[stackSize - 1] = options.strings[expected];
+        pos += candidate.length + 1;
+        peeked = PEEKED_NONE;
+        return expected;
+      }
+    }
+    return selectName(options);
+  }
+
+  /**
+   * Returns true if the double-quoted string that starts at {@code pos} is
+   * exactly the encoded {@code candidate}. This fills the buffer as needed
+   * but consumes nothing.
+   */
+  private boolean matchesPlainString(byte[] candidate) throws IOException {
+    int length = candidate.length;
+    if (limit - pos <= length
+        && (length + 1 >= buffer.length || !fillBuffer(length + 1))) {
+      return false;
+    }
+    byte[] buffer = this.buffer;
+    int p = pos;
+    for (int i = 0; i < length; i++) {
+      if (buffer[p + i] != candidate[i]) {
+        return false;
+      }
+    }
+    return buffer[p + length] == '"';
+  }
+
+  @Override public int selectString(Options options) throws IOException {
+    if (getClass() != Utf8JsonReader.class) {
+      return options.indexOf(nextString());
+    }
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    int index = p == PEEKED_DOUBLE_QUOTED ? selectPlainString(options) : -1;
+    if (index == -1) {
+      return options.indexOf(nextString());
+    }
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return index;
+  }
+
+  /**
+   * Compares the double-quoted string that starts at {@code pos} with
+   * {@code options} without decoding it. If it matches, this consumes the
+   * string and returns its index. Otherwise, or if the string contains
+   * escapes or newlines or doesn't fit in the buffer, this returns -1 and
+   * leaves the string to be decoded.
+   */
+  private int selectPlainString(Options options) throws IOException {
+    int p = pos;
+    while (true) {
+      if (p == limit) {
+        int length = p - pos;
+        if (length + 1 >= buffer.length || !fillBuffer(length + 1)) {
+          return -1;
+        }
+        p = pos + length;
+      }
+      byte c = buffer[p];
+      if (c == '"') {
+        break;
+      } else if (c == '\\' || c == '\n') {
+        return -1;
+      }
+      p++;
+    }
+    int index = options.find(buffer, pos, p - pos);
+    if (index != -1) {
+      pos = p + 1;
+    }
+    return index;
+  }
+
+  @Override public double nextDouble() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return (double) peekedLong;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      double result = DoubleParser.parseDouble(buffer, pos, peekedNumberLength);
+      if (!Double.isInfinite(result)) {
+        pos += peekedNumberLength;
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      }
+      peekedString = new String(buffer, pos, peekedNumberLength, UTF_8);
+      pos += peekedNumberLength;
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
+      peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? (byte) '\'' : (byte) '"');
+    } else if (p == PEEKED_UNQUOTED) {
+      peekedString = nextUnquotedValue();
+    } else if (p != PEEKED_BUFFERED) {
+      throw new IllegalStateException("Expected a double but was " + peek() + locationString());
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double result = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result))) {
+      throw new MalformedJsonException(
+          "JSON forbids NaN and infinities: " + result + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public long nextLong() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return peekedLong;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = new String(buffer, pos, peekedNumberLength, UTF_8);
+      pos += peekedNumberLength;
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? (byte) '\'' : (byte) '"');
+      }
+      try {
+        long result = Long.parseLong(peekedString);
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw new IllegalStateException("Expected a long but was " + peek() + locationString());
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    long result = (long) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'long'.
+      throw new NumberFormatException("Expected a long but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  @Override public int nextInt() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    int result;
+    if (p == PEEKED_LONG) {
+      result = (int) peekedLong;
+      if (peekedLong != result) { // Make sure no precision was lost casting to 'int'.
+        throw new NumberFormatException("Expected an int but was " + peekedLong + locationString());
+      }
+      peeked = PEEKED_NONE;
+      pathIndices[stackSize - 1]++;
+      return result;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = new String(buffer, pos, peekedNumberLength, UTF_8);
+      pos += peekedNumberLength;
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? (byte) '\'' : (byte) '"');
+      }
+      try {
+        result = Integer.parseInt(peekedString);
+        peeked = PEEKED_NONE;
+        pathIndices[stackSize - 1]++;
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw new IllegalStateException("Expected an int but was " + peek() + locationString());
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    result = (int) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'int'.
+      throw new NumberFormatException("Expected an int but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    pathIndices[stackSize - 1]++;
+    return result;
+  }
+
+  /**
+   * Returns the string up to but not including {@code quote}, unescaping any
+   * character escape sequences encountered along the way. The opening quote
+   * should have already been read. This consumes the closing quote, but does
+   * not include it in the returned string.
+   *
+   * @param quote either ' or ".
+   */
+  private String nextQuotedValue(byte quote) throws IOException {
+    // Fast path: the whole string is already buffered and has no escapes, so
+    // it can be decoded straight out of the buffer.
+    byte[] buffer = this.buffer;
+    int start = pos;
+    for (int p = start, l = limit; p < l; p++) {
+      byte c = buffer[p];
+      if (c == quote) {
+        pos = p + 1;
+        return new String(buffer, start, p - start, UTF_8);
+      } else if (c == '\\' || c == '\n') {
+        break;
+      }
+    }
+    return nextQuotedValueSlow(quote);
+  }
+
+  /**
+   * Decodes a quoted value one byte at a time into {@link #chars}. Bytes
+   * belonging to a multi-byte sequence never equal an ASCII quote or
+   * backslash, so it is safe to look for those before decoding.
+   */
+  private String nextQuotedValueSlow(byte quote) throws IOException {
+    char[] chars = this.chars;
+    if (chars == null) {
+      chars = this.chars = new char[64];
+    }
+    int count = 0;
+    while (true) {
+      if (pos == limit && !fillBuffer(1)) {
+        throw syntaxError("Unterminated string");
+      }
+      if (count + 2 > chars.length) {
+        chars = this.chars = Arrays.copyOf(chars, chars.length * 2);
+      }
+      int c = buffer[pos++];
+      if (c == quote) {
+        return new String(chars, 0, count);
+      } else if (c == '\\') {
+        chars[count++] = readEscapeCharacter();
+      } else if (c >= 0) {
+        if (c == '\n') {
+          lineNumber++;
+          lineStart = pos;
+        }
+        chars[count++] = (char) c;
+      } else {
+        count = decodeMultiByteCharacter(c & 0xff, chars, count);
+      }
+    }
+  }
+
+  /**
+   * Decodes the UTF-8 sequence whose lead byte {@code lead} has already been
+   * consumed, writing one or two chars to {@code chars} at {@code count}.
+   * Returns the new count.
+   */
+  private int decodeMultiByteCharacter(int lead, char[] chars, int count) throws IOException {
+    int length;
+    int codePoint;
+    int min;
+    if ((lead & 0xe0) == 0xc0) {
+      length = 2;
+      codePoint = lead & 0x1f;
+      min = 0x80;
+    } else if ((lead & 0xf0) == 0xe0) {
+      length = 3;
+      codePoint = lead & 0x0f;
+      min = 0x800;
+    } else if ((lead & 0xf8) == 0xf0) {
+      length = 4;
+      codePoint = lead & 0x07;
+      min = 0x10000;
+    } else {
+      chars[count++] = REPLACEMENT_CHARACTER;
+      return count;
+    }
+
+    for (int i = 1; i < length; i++) {
+      if (pos == limit && !fillBuffer(1)) {
+        chars[count++] = REPLACEMENT_CHARACTER;
+        return count;
+      }
+      int b = buffer[pos];
+      if ((b & 0xc0) != 0x80) {
+        // Truncated sequence. Leave the unexpected byte for the caller.
+        chars[count++] = REPLACEMENT_CHARACTER;
+        return count;
+      }
+      pos++;
+      codePoint = (codePoint << 6) | (b & 0x3f);
+    }
+
+    if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+        || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+      chars[count++] = REPLACEMENT_CHARACTER;
+    } else if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      chars[count++] = (char) codePoint;
+    } else {
+      chars[count++] = Character.highSurrogate(codePoint);
+      chars[count++] = Character.lowSurrogate(codePoint);
+    }
+    return count;
+  }
+
+  /**
+   * Returns an unquoted value as a string.
+   */
+  @SuppressWarnings("fallthrough")
+  private String nextUnquotedValue() throws IOException {
+    ByteArrayOutputStream builder = null;
+    int i = 0;
+
+    findNonLiteralCharacter:
+    while (true) {
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+        case '/':
+        case '\\':
+        case ';':
+        case '#':
+        case '=':
+          checkLenient(); // fall-through
+        case '{':
+        case '}':
+        case '[':
+        case ']':
+        case ':':
+        case ',':
+        case ' ':
+        case '\t':
+        case '\f':
+        case '\r':
+        case '\n':
+          break findNonLiteralCharacter;
+        }
+      }
+
+      // Attempt to load the entire literal into the buffer at once.
+      if (i < buffer.length) {
+        if (fillBuffer(i + 1)) {
+          continue;
+        } else {
+          break;
+        }
+      }
+
+      // use a byte builder when the value is too long. This is too long to be a number!
+      if (builder == null) {
+        builder = new ByteArrayOutputStream(Math.max(i, 16));
+      }
+      builder.write(buffer, pos, i);
+      pos += i;
+      i = 0;
+      if (!fillBuffer(1)) {
+        break;
+      }
+    }
+
+    String result;
+    if (builder == null) {
+      result = new String(buffer, pos, i, UTF_8);
+    } else {
+      builder.write(buffer, pos, i);
+      result = new String(builder.toByteArray(), UTF_8);
+    }
+    pos += i;
+    return result;
+  }
+
+  private void skipQuotedValue(byte quote) throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    do {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          return;
+        } else if (c == '\\') {
+          pos = p;
+          readEscapeCharacter();
+          p = pos;
+          l = limit;
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+      }
+      pos = p;
+    } while (fillBuffer(1));
+    throw syntaxError("Unterminated string");
+  }
+
+  @SuppressWarnings("fallthrough")
+  private void skipUnquotedValue() throws IOException {
+    do {
+      int i = 0;
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+        case '/':
+        case '\\':
+        case ';':
+        case '#':
+        case '=':
+          checkLenient(); // fall-through
+        case '{':
+        case '}':
+        case '[':
+        case ']':
+        case ':':
+        case ',':
+        case ' ':
+        case '\t':
+        case '\f':
+        case '\r':
+        case '\n':
+          pos += i;
+          return;
+        }
+      }
+      pos += i;
+    } while (fillBuffer(1));
+  }
+
+  /**
+   * Returns the offset in the caller's array of the next byte to be consumed.
+   * After {@link #peek} returns {@link JsonToken#BEGIN_OBJECT} or {@link
+   * JsonToken#BEGIN_ARRAY} the bracket is at the offset before it.
+   */
+  int position() {
+    if (in != null) {
+      throw new IllegalStateException("Not reading a byte array");
+    }
+    return pos;
+  }
+
+  /**
+   * Closes this JSON reader and the underlying {@link InputStream}, if any.
+   */
+  @Override public void close() throws IOException {
+    peeked = PEEKED_NONE;
+    stack[0] = JsonScope.CLOSED;
+    stackSize = 1;
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  @Override public void skipValue() throws IOException {
+    int count = 0;
+    do {
+      int p = peeked;
+      if (p == PEEKED_NONE) {
+        p = doPeek();
+      }
+
+      if (p == PEEKED_BEGIN_ARRAY) {
+        push(JsonScope.EMPTY_ARRAY);
+        count++;
+      } else if (p == PEEKED_BEGIN_OBJECT) {
+        push(JsonScope.EMPTY_OBJECT);
+        count++;
+      } else if (p == PEEKED_END_ARRAY) {
+        stackSize--;
+        count--;
+      } else if (p == PEEKED_END_OBJECT) {
+        stackSize--;
+        count--;
+      } else if (p == PEEKED_UNQUOTED_NAME || p == PEEKED_UNQUOTED) {
+        skipUnquotedValue();
+      } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_SINGLE_QUOTED_NAME) {
+        skipQuotedValue((byte) '\'');
+      } else if (p == PEEKED_DOUBLE_QUOTED || p == PEEKED_DOUBLE_QUOTED_NAME) {
+        skipQuotedValue((byte) '"');
+      } else if (p == PEEKED_NUMBER) {
+        pos += peekedNumberLength;
+      }
+      peeked = PEEKED_NONE;
+    } while (count != 0);
+
+    pathIndices[stackSize - 1]++;
+    pathNames[stackSize - 1] = "null";
+  }
+
+  /**
+   * Returns true once {@code limit - pos >= minimum}. If the data is
+   * exhausted before that many bytes are available, this returns false.
+   */
+  private boolean fillBuffer(int minimum) throws IOException {
+    if (in == null) {
+      // The whole document is already in the buffer.
+      return limit - pos >= minimum;
+    }
+
+    byte[] buffer = this.buffer;
+    lineStart -= pos;
+    if (limit != pos) {
+      limit -= pos;
+      System.arraycopy(buffer, pos, buffer, 0, limit);
+    } else {
+      limit = 0;
+    }
+
+    pos = 0;
+    int total;
+    while ((total = in.read(buffer, limit, buffer.length - limit)) != -1) {
+      limit += total;
+      if (limit >= minimum) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the next byte in the stream that is neither whitespace nor a
+   * part of a comment. When this returns, the returned byte is always at
+   * {@code buffer[pos-1]}; this means the caller can always push back the
+   * returned byte by decrementing {@code pos}.
+   */
+  private int nextNonWhitespace(boolean throwOnEof) throws IOException {
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+    while (true) {
+      if (p == l) {
+        pos = p;
+        if (!fillBuffer(1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      int c = buffer[p++];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = p;
+        continue;
+      } else if (c == ' ' || c == '\r' || c == '\t') {
+        continue;
+      }
+
+      if (c == '/') {
+        pos = p;
+        if (p == l) {
+          pos--; // push back '/' so it's still in the buffer when this method returns
+          boolean bytesLoaded = fillBuffer(2);
+          pos++; // consume the '/' again
+          if (!bytesLoaded) {
+            return c;
+          }
+        }
+
+        checkLenient();
+        byte peek = buffer[pos];
+        switch (peek) {
+        case '*':
+          // skip a /* c-style comment */
+          pos++;
+          if (!skipTo("*/")) {
+            throw syntaxError("Unterminated comment");
+          }
+          p = pos + 2;
+          l = limit;
+          continue;
+
+        case '/':
+          // skip a // end-of-line comment
+          pos++;
+          skipToEndOfLine();
+          p = pos;
+          l = limit;
+          continue;
+
+        default:
+          return c;
+        }
+      } else if (c == '#') {
+        pos = p;
+        checkLenient();
+        skipToEndOfLine();
+        p = pos;
+        l = limit;
+      } else {
+        pos = p;
+        return c;
+      }
+    }
+    if (throwOnEof) {
+      throw new EOFException("End of input" + locationString());
+    } else {
+      return -1;
+    }
+  }
+
+  /**
+   * Advances the position until after the next newline character. If the line
+   * is terminated by "\r\n", the '\n' must be consumed as whitespace by the
+   * caller.
+   */
+  private void skipToEndOfLine() throws IOException {
+    while (pos < limit || fillBuffer(1)) {
+      byte c = buffer[pos++];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = pos;
+        break;
+      } else if (c == '\r') {
+        break;
+      }
+    }
+  }
+
+  /**
+   * @param toFind an ASCII string to search for. Must not contain a newline.
+   */
+  private boolean skipTo(String toFind) throws IOException {
+    int length = toFind.length();
+    outer:
+    for (; pos + length <= limit || fillBuffer(length); pos++) {
+      if (buffer[pos] == '\n') {
+        lineNumber++;
+        lineStart = pos + 1;
+        continue;
+      }
+      for (int c = 0; c < length; c++) {
+        if (buffer[pos + c] != toFind.charAt(c)) {
+          continue outer;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override String locationString() {
+    int line = lineNumber + 1;
+    int column = pos - lineStart + 1;
+    return " at line " + line + " column " + column + " path " + getPath();
+  }
+
+  /**
+   * Unescapes the character identified by the character or characters that
+   * immediately follow a backslash. The backslash '\' should have already
+   * been read. This supports both unicode escapes "u000A" and two-character
+   * escapes "\n".
+   *
+   * @throws NumberFormatException if any unicode escape sequences are
+   *     malformed.
+   */
+  @SuppressWarnings("fallthrough")
+  private char readEscapeCharacter() throws IOException {
+    if (pos == limit && !fillBuffer(1)) {
+      throw syntaxError("Unterminated escape sequence");
+    }
+
+    byte escaped = buffer[pos++];
+    switch (escaped) {
+    case 'u':
+      if (pos + 4 > limit && !fillBuffer(4)) {
+        throw syntaxError("Unterminated escape sequence");
+      }
+      char result = 0;
+      for (int i = pos, end = i + 4; i < end; i++) {
+        byte c = buffer[i];
+        result <<= 4;
+        if (c >= '0' && c <= '9') {
+          result += (c - '0');
+        } else if (c >= 'a' && c <= 'f') {
+          result += (c - 'a' + 10);
+        } else if (c >= 'A' && c <= 'F') {
+          result += (c - 'A' + 10);
+        } else {
+          throw new NumberFormatException("\\u" + new String(buffer, pos, 4, UTF_8));
+        }
+      }
+      pos += 4;
+      return result;
+
+    case 't':
+      return '\t';
+
+    case 'b':
+      return '\b';
+
+    case 'n':
+      return '\n';
+
+    case 'r':
+      return '\r';
+
+    case 'f':
+      return '\f';
+
+    case '\n':
+      lineNumber++;
+      lineStart = pos;
+      // fall-through
+
+    case '\'':
+    case '"':
+    case '\\':
+    case '/':
+      return (char) escaped;
+    default:
+      // throw error when none of the above cases are matched
+      throw syntaxError("Invalid escape sequence");
+    }
+  }
+
+  /**
+   * Consumes a UTF-8 byte order mark if the document starts with one.
+   */
+  private void consumeByteOrderMark() throws IOException {
+    if ((pos + 3 <= limit || fillBuffer(3))
+        && buffer[pos] == (byte) 0xef
+        && buffer[pos + 1] == (byte) 0xbb
+        && buffer[pos + 2] == (byte) 0xbf) {
+      pos += 3;
+      lineStart = pos;
+    }
+  }
+
+  /**
+   * Consumes the non-execute prefix if it exists.
+   */
+  private void consumeNonExecutePrefix() throws IOException {
+    // fast forward through the leading whitespace
+    nextNonWhitespace(true);
+    pos--;
+
+    if (pos + NON_EXECUTE_PREFIX.length > limit && !fillBuffer(NON_EXECUTE_PREFIX.length)) {
+      return;
+    }
+
+    for (int i = 0; i < NON_EXECUTE_PREFIX.length; i++) {
+      if (buffer[pos + i] != NON_EXECUTE_PREFIX[i]) {
+        return; // not a security token!
+      }
+    }
+
+    // we consumed a security token!
+    pos += NON_EXECUTE_PREFIX.length;
+  }
+}
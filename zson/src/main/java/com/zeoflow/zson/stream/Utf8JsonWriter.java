@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2021 ZeoFlow
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zeoflow.zson.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonWriter} that encodes its output as UTF-8 straight into a byte
+ * buffer, without an intermediate {@link java.io.OutputStreamWriter} or
+ * {@code String}.
+ *
+ * <p>A writer created with {@link #Utf8JsonWriter(OutputStream)} reuses a
+ * single buffer and hands it to the stream whenever it fills up and on
+ * {@link #flush()}. A writer created with {@link #Utf8JsonWriter()} keeps the
+ * whole document in memory; use {@link #toByteArray()} to retrieve it.
+ *
+ * <p>Unpaired surrogate characters are encoded as {@code '?'}, as an
+ * {@link java.io.OutputStreamWriter} would do.
+ */
+public class Utf8JsonWriter extends JsonWriter {
+  private final Utf8Sink sink;
+
+  /**
+   * Creates a new instance that writes a UTF-8 encoded JSON stream to
+   * {@code out}. Output is buffered internally; call {@link #flush()} or
+   * {@link #close()} to push it to the stream.
+   */
+  public Utf8JsonWriter(OutputStream out) {
+    this(new Utf8Sink(out));
+  }
+
+  /**
+   * Creates a new instance that encodes the JSON document into memory.
+   */
+  public Utf8JsonWriter() {
+    this(new Utf8Sink());
+  }
+
+  private Utf8JsonWriter(Utf8Sink sink) {
+    super(sink);
+    this.sink = sink;
+  }
+
+  /**
+   * Returns a copy of the bytes written so far. Only available for writers
+   * created with {@link #Utf8JsonWriter()}.
+   */
+  public byte[] toByteArray() {
+    if (sink.out != null) {
+      throw new IllegalStateException("Output is written to an OutputStream");
+    }
+    return Arrays.copyOf(sink.buffer, sink.count);
+  }
+
+  /**
+   * Encodes characters to UTF-8 directly into a byte buffer.
+   */
+  private static final class Utf8Sink extends Writer {
+    /** The stream the buffer is drained to, or null to grow the buffer instead. */
+    final OutputStream out;
+    byte[] buffer;
+    int count;
+
+    /** A high surrogate waiting for its low surrogate, or 0 if there is none. */
+    private char pendingHighSurrogate;
+
+    Utf8Sink(OutputStream out) {
+      if (out == null) {
+        throw new NullPointerException("out == null");
+      }
+      this.out = out;
+      this.buffer = new byte[8192];
+    }
+
+    Utf8Sink() {
+      this.out = null;
+      this.buffer = new byte[256];
+    }
+
+    @Override public void write(int c) throws IOException {
+      writeChar((char) c);
+    }
+
+    @Override public void write(char[] chars, int offset, int length) throws IOException {
+      for (int i = offset, end = offset + length; i < end; i++) {
+        writeChar(chars[i]);
+      }
+    }
+
+    @Override public void write(String s) throws IOException {
+      write(s, 0, s.length());
+    }
+
+    @Override public void write(String s, int offset, int length) throws IOException {
+      int i = offset;
+      int end = offset + length;
+      while (i < end) {
+        if (pendingHighSurrogate == 0) {
+          // Copy the run of ASCII characters that fits in the buffer without
+          // checking capacity for each of them.
+          byte[] buffer = this.buffer;
+          int count = this.count;
+          int runEnd = Math.min(end, i + buffer.length - count);
+          while (i < runEnd) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+              break;
+            }
+            buffer[count++] = (byte) c;
+            i++;
+          }
+          this.count = count;
+          if (i == end) {
+            return;
+          }
+          if (count == buffer.length) {
+            require(1);
+            continue;
+          }
+        }
+        writeChar(s.charAt(i++));
+      }
+    }
+
+    private void writeChar(char c) throws IOException {
+      if (pendingHighSurrogate != 0) {
+        char high = pendingHighSurrogate;
+        pendingHighSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          int codePoint = Character.toCodePoint(high, c);
+          require(4);
+          buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+          buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+          buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+          buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+          return;
+        }
+        writeByte('?');
+      }
+
+      if (c < 0x80) {
+        writeByte(c);
+      } else if (c < 0x800) {
+        require(2);
+        buffer[count++] = (byte) (0xc0 | (c >> 6));
+        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c)) {
+        pendingHighSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        writeByte('?');
+      } else {
+        require(3);
+        buffer[count++] = (byte) (0xe0 | (c >> 12));
+        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+
+    private void writeByte(int b) throws IOException {
+      if (count == buffer.length) {
+        require(1);
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Makes room for at least {@code n} more bytes, either by draining the
+     * buffer to the stream or by growing it.
+     */
+    private void require(int n) throws IOException {
+      if (count + n <= buffer.length) {
+        return;
+      }
+      if (out != null) {
+        out.write(buffer, 0, count);
+        count = 0;
+      } else {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + n));
+      }
+    }
+
+    @Override public void flush() throws IOException {
+      if (out != null) {
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+      }
+    }
+
+    @Override public void close() throws IOException {
+      if (pendingHighSurrogate != 0) {
+        pendingHighSurrogate = 0;
+        writeByte('?');
+      }
+      if (out != null) {
+        out.write(buffer, 0, count);
+        count = 0;
+        out.close();
+      }
+    }
+  }
+}